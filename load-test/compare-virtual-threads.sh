@@ -0,0 +1,59 @@
+#!/bin/bash
+# Throughput comparison: platform-thread Tomcat pool vs virtual threads
+#
+# Starts the application twice (VIRTUAL_THREADS=false, then true), drives the same open-loop
+# workload against each with the Java load generator, and prints achieved throughput and
+# corrected latency side by side.
+#
+# Usage:
+#   ./load-test/compare-virtual-threads.sh [generator options]
+#   RATE=800 DURATION=90s ./load-test/compare-virtual-threads.sh --mix search=60,login=20,dashboard=20
+#
+# Environment:
+#   RATE, DURATION, WARMUP   workload shape (defaults 500 req/s, 60s, 15s)
+#   TOMCAT_MAX_THREADS       platform pool size for the baseline run (default 200)
+#   DB_POOL_SIZE             Hikari pool size for both runs (default 10)
+#   APP_PROFILE, JAVA_OPTS   passed to the application (see run-load-test.sh)
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+RATE="${RATE:-500}"
+DURATION="${DURATION:-60s}"
+WARMUP="${WARMUP:-15s}"
+RESULTS_DIR="$SCRIPT_DIR/../load-test-results/virtual-threads-$(date +%Y%m%d-%H%M%S)"
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m'
+
+for mode in false true; do
+    echo -e "${YELLOW}🧵 VIRTUAL_THREADS=$mode${NC}"
+    VIRTUAL_THREADS=$mode START_APP=1 "$SCRIPT_DIR/run-load-test.sh" \
+        --rate "$RATE" --duration "$DURATION" --warmup "$WARMUP" \
+        --max-in-flight 50000 --output "$RESULTS_DIR/virtual-$mode" "$@"
+    cp "$SCRIPT_DIR/app-under-test.log" "$RESULTS_DIR/virtual-$mode/app.log"
+done
+
+case "$DURATION" in
+    *ms) seconds=$(( ${DURATION%ms} / 1000 )) ;;
+    *m) seconds=$(( ${DURATION%m} * 60 )) ;;
+    *s) seconds=${DURATION%s} ;;
+    *) seconds=$DURATION ;;
+esac
+
+echo
+echo -e "${GREEN}📊 Target $RATE req/s for ${seconds}s${NC}"
+printf "%-10s %-9s %10s %10s %10s %10s %10s\n" "operation" "virtual" "ok req/s" "errors" "p50 ms" "p99 ms" "max ms"
+for op in login search borrow return dashboard; do
+    for mode in false true; do
+        awk -F, -v op="$op" -v mode="$mode" -v secs="$seconds" \
+            '$1 == op && $2 + $3 + $4 > 0 { printf "%-10s %-9s %10.1f %10d %10.1f %10.1f %10.1f\n", op, mode, $2 / secs, $4, $6, $8, $10 }' \
+            "$RESULTS_DIR/virtual-$mode/summary.csv"
+    done
+done
+
+pinned=$(grep -c "Virtual thread pinned" "$RESULTS_DIR/virtual-true/app.log" || true)
+echo
+echo "Distinct pinning sites logged in virtual-thread mode: $pinned (see $RESULTS_DIR/virtual-true/app.log)"
+echo "Pinning counters: library.virtualthreads.pinned / library.virtualthreads.pinned.duration"
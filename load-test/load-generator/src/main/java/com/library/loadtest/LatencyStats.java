@@ -0,0 +1,113 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms, recorded in microseconds.
+ *
+ * Two latencies are kept for every request:
+ * - response time, measured from the moment the request was <em>scheduled</em> to start.
+ *   Under open-loop scheduling this is the coordinated-omission-corrected figure: when the
+ *   server stalls, requests queued behind the stall are charged for their wait.
+ * - service time, measured from the moment the request was actually sent. This is what a
+ *   closed-loop tool would report, and is kept for comparison.
+ *
+ * Recording is lock-free (HdrHistogram {@link Recorder}). One reporter thread drains
+ * interval histograms and accumulates the totals.
+ */
+public class LatencyStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final LongAdder queued = new LongAdder();
+
+    public LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public void record(Operation operation, long intendedStartNanos, long actualStartNanos, long endNanos,
+                       LibraryClient.Outcome outcome) {
+        OperationStats operationStats = stats.get(operation);
+        operationStats.responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos));
+        operationStats.serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - actualStartNanos));
+        switch (outcome) {
+            case OK -> operationStats.ok.increment();
+            case REJECTED -> operationStats.rejected.increment();
+            case ERROR -> operationStats.errors.increment();
+        }
+    }
+
+    /** The scheduled operation could not run (e.g. a return with no outstanding loan). */
+    public void recordSkipped(Operation operation) {
+        stats.get(operation).skipped.increment();
+    }
+
+    /** The arrival had to wait for a slot because too many requests were already outstanding. */
+    public void recordQueued() {
+        queued.increment();
+    }
+
+    /**
+     * Moves everything recorded since the previous call into the totals and returns the
+     * interval response-time histograms for progress reporting.
+     */
+    public synchronized Map<Operation, Histogram> drainInterval() {
+        Map<Operation, Histogram> interval = new EnumMap<>(Operation.class);
+        stats.forEach((operation, operationStats) -> {
+            Histogram response = operationStats.responseTime.getIntervalHistogram();
+            Histogram service = operationStats.serviceTime.getIntervalHistogram();
+            operationStats.totalResponseTime.add(response);
+            operationStats.totalServiceTime.add(service);
+            interval.put(operation, response);
+        });
+        return interval;
+    }
+
+    public Histogram getResponseTime(Operation operation) {
+        return stats.get(operation).totalResponseTime;
+    }
+
+    public Histogram getServiceTime(Operation operation) {
+        return stats.get(operation).totalServiceTime;
+    }
+
+    public long getOk(Operation operation) {
+        return stats.get(operation).ok.sum();
+    }
+
+    public long getRejected(Operation operation) {
+        return stats.get(operation).rejected.sum();
+    }
+
+    public long getErrors(Operation operation) {
+        return stats.get(operation).errors.sum();
+    }
+
+    public long getSkipped(Operation operation) {
+        return stats.get(operation).skipped.sum();
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    private static class OperationStats {
+        final Recorder responseTime = new Recorder(SIGNIFICANT_DIGITS);
+        final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+        final Histogram totalResponseTime = new Histogram(SIGNIFICANT_DIGITS);
+        final Histogram totalServiceTime = new Histogram(SIGNIFICANT_DIGITS);
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+    }
+}
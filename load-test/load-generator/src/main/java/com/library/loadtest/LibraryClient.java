@@ -0,0 +1,180 @@
+package com.library.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin blocking HTTP client for the application's REST API.
+ *
+ * Calls are meant to run on virtual threads, so blocking on {@link HttpClient#send} is cheap.
+ */
+public class LibraryClient {
+
+    /** How a request ended, as seen by the workload. */
+    public enum Outcome {
+        /** 2xx response. */
+        OK,
+        /** 400/409: the request was served but refused by business rules (no copies left, loan limit, ...). */
+        REJECTED,
+        /** Any other status, an I/O failure or a timeout. */
+        ERROR
+    }
+
+    private static final Pattern BOOK_ID = Pattern.compile("\\{\"id\":(\\d+),\"isbn\"");
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public LibraryClient(String baseUrl, Duration requestTimeout, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    public boolean isHealthy() {
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    request("/actuator/health", null).GET().build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Returns a JWT for the account, or throws if the credentials are refused. */
+    public String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                request("/api/auth/login", null)
+                        .header("Content-Type", "application/json")
+                        .POST(json(Map.of("usernameOrEmail", username, "password", password)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed for " + username + ": HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    public void register(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                request("/api/auth/register", null)
+                        .header("Content-Type", "application/json")
+                        .POST(json(Map.of(
+                                "username", username,
+                                "password", password,
+                                "email", username + "@loadtest.local",
+                                "firstName", "Load",
+                                "lastName", "Tester")))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Registration failed for " + username + ": " + response.body());
+        }
+    }
+
+    public List<Long> availableBookIds(String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                request("/api/books/available", token).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Could not list available books: HTTP " + response.statusCode());
+        }
+        // Book entities are serialized with their transaction graph, which can exceed the
+        // server's JSON nesting limit and truncate the body, so scan for ids instead of parsing
+        Set<Long> ids = new LinkedHashSet<>();
+        Matcher matcher = BOOK_ID.matcher(response.body());
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public List<String> categories(String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                request("/api/books/categories", token).GET().build(), HttpResponse.BodyHandlers.ofString());
+        List<String> categories = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            for (JsonNode category : objectMapper.readTree(response.body())) {
+                categories.add(category.asText());
+            }
+        }
+        return categories;
+    }
+
+    // Workload calls: the response body is drained but not parsed
+
+    public Outcome search(String token, String term) {
+        return send(request("/api/books/search?searchTerm=" + URLEncoder.encode(term, StandardCharsets.UTF_8), token)
+                .GET().build());
+    }
+
+    public Outcome borrow(String token, long bookId) {
+        return send(request("/api/transactions/borrow?bookId=" + bookId, token)
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    public Outcome returnBook(String token, long bookId) {
+        return send(request("/api/transactions/return?bookId=" + bookId, token)
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    public Outcome dashboard(String token) {
+        return send(request("/api/analytics/dashboard", token).GET().build());
+    }
+
+    private Outcome send(HttpRequest request) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) return Outcome.OK;
+            if (status == 400 || status == 409) return Outcome.REJECTED;
+            return Outcome.ERROR;
+        } catch (IOException e) {
+            return Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.ERROR;
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
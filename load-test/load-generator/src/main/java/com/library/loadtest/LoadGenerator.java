@@ -0,0 +1,103 @@
+package com.library.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Entry point: logs in the patron sessions, discovers books and search terms, then drives
+ * an open-loop mixed workload and reports HdrHistogram latencies.
+ */
+public class LoadGenerator {
+
+    private static final List<String> DEFAULT_SEARCH_TERMS = List.of(
+            "the", "java", "history", "harry", "code", "science", "love", "war", "river", "secret");
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LibraryClient client = new LibraryClient(options.getBaseUrl(), options.getRequestTimeout(), executor);
+            if (!client.isHealthy()) {
+                System.err.println("Application is not healthy at " + options.getBaseUrl() + "/actuator/health");
+                System.exit(1);
+            }
+
+            String adminToken = client.login(options.getAdminUsername(), options.getAdminPassword());
+            List<Workload.Session> sessions = openSessions(client, options, executor);
+            long[] bookIds = bookIds(client, adminToken, options);
+            List<String> searchTerms = new ArrayList<>(DEFAULT_SEARCH_TERMS);
+            searchTerms.addAll(client.categories(adminToken));
+
+            System.out.printf("Prepared %d patron sessions, %d books, %d search terms%n",
+                    sessions.size(), bookIds.length, searchTerms.size());
+
+            Workload workload = new Workload(client, sessions, adminToken, bookIds, options.getBookSkew(), searchTerms);
+            LatencyStats stats = new LatencyStats();
+            new OpenLoopRunner(workload, options.getMix(), stats, executor, options.getMaxInFlight())
+                    .run(options.getRate(), options.getWarmup(), options.getDuration(), options.getReportInterval(),
+                            options.getSeed());
+
+            LoadTestReport report = new LoadTestReport(stats, options);
+            report.print(System.out);
+            report.write(options.getOutputDir());
+            System.out.println("Histograms written to " + options.getOutputDir().toAbsolutePath());
+        }
+    }
+
+    /** Logs in existing accounts (--user-pattern) or registers fresh ones, concurrently. */
+    private static List<Workload.Session> openSessions(LibraryClient client, LoadTestOptions options,
+                                                      ExecutorService executor) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<Workload.Session>> futures = new ArrayList<>();
+        for (int i = 0; i < options.getUsers(); i++) {
+            String username = options.getUserPattern() != null
+                    ? String.format(options.getUserPattern(), options.getUserRangeStart() + i)
+                    : "lt" + runId + "u" + i;
+            futures.add(executor.submit(() -> {
+                if (options.getUserPattern() == null) {
+                    client.register(username, options.getUserPassword());
+                }
+                String token = client.login(username, options.getUserPassword());
+                return new Workload.Session(username, options.getUserPassword(), token);
+            }));
+        }
+        List<Workload.Session> sessions = new ArrayList<>(futures.size());
+        for (Future<Workload.Session> future : futures) {
+            sessions.add(future.get());
+        }
+        return sessions;
+    }
+
+    /** Book ids to borrow from, shuffled with the seed so popularity is not tied to id order. */
+    private static long[] bookIds(LibraryClient client, String adminToken, LoadTestOptions options)
+            throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        if (options.hasBookIdRange()) {
+            for (long id = options.getFirstBookId(); id <= options.getLastBookId(); id++) {
+                ids.add(id);
+            }
+        } else {
+            // Health turns UP before startup data loaders finish, so give them a moment
+            for (int attempt = 0; attempt < 120 && ids.isEmpty(); attempt++) {
+                ids.addAll(client.availableBookIds(adminToken));
+                if (ids.isEmpty()) Thread.sleep(1000);
+            }
+        }
+        Collections.shuffle(ids, new Random(options.getSeed()));
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Command line options for the load generator.
+ *
+ * Every option has the form {@code --name value}; see {@link #usage()}.
+ */
+public class LoadTestOptions {
+
+    private String baseUrl = "http://localhost:8080";
+    private double rate = 50;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration reportInterval = Duration.ofSeconds(5);
+    private WorkloadMix mix = WorkloadMix.parse("search=50,borrow=15,return=15,login=10,dashboard=10");
+    private int users = 50;
+    private String userPattern;
+    private int userRangeStart = 3;
+    private String userPassword = "user123";
+    private String adminUsername = "admin";
+    private String adminPassword = "admin123";
+    private long firstBookId;
+    private long lastBookId;
+    private double bookSkew = 1.0;
+    private int maxInFlight = 10_000;
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private long seed = 42;
+    private Path outputDir = Path.of("load-test-results",
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if ("--help".equals(name) || "-h".equals(name)) {
+                System.out.println(usage());
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--base-url" -> options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--rate" -> options.rate = Double.parseDouble(value);
+                case "--duration" -> options.duration = parseDuration(value);
+                case "--warmup" -> options.warmup = parseDuration(value);
+                case "--report-interval" -> options.reportInterval = parseDuration(value);
+                case "--mix" -> options.mix = WorkloadMix.parse(value);
+                case "--users" -> options.users = Integer.parseInt(value);
+                case "--user-pattern" -> options.userPattern = value;
+                case "--user-range-start" -> options.userRangeStart = Integer.parseInt(value);
+                case "--user-password" -> options.userPassword = value;
+                case "--admin-username" -> options.adminUsername = value;
+                case "--admin-password" -> options.adminPassword = value;
+                case "--book-ids" -> options.parseBookIds(value);
+                case "--book-skew" -> options.bookSkew = Double.parseDouble(value);
+                case "--max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "--request-timeout" -> options.requestTimeout = parseDuration(value);
+                case "--seed" -> options.seed = Long.parseLong(value);
+                case "--output" -> options.outputDir = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return options;
+    }
+
+    /** Accepts plain seconds ({@code 90}) or a unit suffix ({@code 500ms}, {@code 30s}, {@code 5m}). */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    private void parseBookIds(String value) {
+        String[] parts = value.split("-");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("--book-ids expects a range such as 1-200000");
+        }
+        firstBookId = Long.parseLong(parts[0].trim());
+        lastBookId = Long.parseLong(parts[1].trim());
+    }
+
+    public static String usage() {
+        return """
+                Usage: java -jar library-load-generator.jar [options]
+
+                  --base-url URL          application base URL (default http://localhost:8080)
+                  --rate N                target arrival rate in requests/second (default 50)
+                  --duration D            measured duration, e.g. 60s, 5m (default 60s)
+                  --warmup D              unmeasured warmup before the measured window (default 10s)
+                  --report-interval D     progress line interval (default 5s)
+                  --mix SPEC              operation weights (default search=50,borrow=15,return=15,login=10,dashboard=10)
+                  --users N               number of patron sessions (default 50)
+                  --user-pattern P        use existing accounts, e.g. patron%d (synthetic-data profile);
+                                          without it, fresh accounts are registered for the run
+                  --user-range-start N    first index substituted into --user-pattern (default 3)
+                  --user-password P       patron password (default user123)
+                  --admin-username U      account used for dashboard calls (default admin)
+                  --admin-password P      (default admin123)
+                  --book-ids A-B          book id range to borrow from; default is /api/books/available
+                  --book-skew S           Zipf exponent for book choice, 0 = uniform (default 1.0)
+                  --max-in-flight N       requests allowed outstanding before arrivals wait (default 10000)
+                  --request-timeout D     per-request timeout (default 30s)
+                  --seed N                seed for operation and book choice (default 42)
+                  --output DIR            directory for .hgrm files and summary.csv
+                """;
+    }
+
+    public String getBaseUrl() { return baseUrl; }
+    public double getRate() { return rate; }
+    public Duration getDuration() { return duration; }
+    public Duration getWarmup() { return warmup; }
+    public Duration getReportInterval() { return reportInterval; }
+    public WorkloadMix getMix() { return mix; }
+    public int getUsers() { return users; }
+    public String getUserPattern() { return userPattern; }
+    public int getUserRangeStart() { return userRangeStart; }
+    public String getUserPassword() { return userPassword; }
+    public String getAdminUsername() { return adminUsername; }
+    public String getAdminPassword() { return adminPassword; }
+    public boolean hasBookIdRange() { return lastBookId >= firstBookId && lastBookId > 0; }
+    public long getFirstBookId() { return firstBookId; }
+    public long getLastBookId() { return lastBookId; }
+    public double getBookSkew() { return bookSkew; }
+    public int getMaxInFlight() { return maxInFlight; }
+    public Duration getRequestTimeout() { return requestTimeout; }
+    public long getSeed() { return seed; }
+    public Path getOutputDir() { return outputDir; }
+}
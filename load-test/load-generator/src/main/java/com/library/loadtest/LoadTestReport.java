@@ -0,0 +1,88 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Console summary plus files for offline analysis:
+ * - {@code <operation>.hgrm}: corrected response-time percentile distribution (milliseconds),
+ *   loadable in the HdrHistogram plotter
+ * - {@code <operation>-service.hgrm}: uncorrected service-time distribution
+ * - {@code summary.csv}: one row per operation
+ */
+public class LoadTestReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LatencyStats stats;
+    private final LoadTestOptions options;
+
+    public LoadTestReport(LatencyStats stats, LoadTestOptions options) {
+        this.stats = stats;
+        this.options = options;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = options.getDuration().toMillis() / 1000.0;
+        out.println();
+        out.printf(Locale.ROOT, "Target rate %.1f req/s for %.0fs, mix %s%n", options.getRate(), seconds, options.getMix());
+        out.printf(Locale.ROOT, "%-10s %8s %8s %8s %8s %9s %9s %9s %9s %9s %9s %11s%n",
+                "operation", "ok", "rejected", "errors", "skipped", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        for (Operation operation : Operation.values()) {
+            Histogram response = stats.getResponseTime(operation);
+            long total = response.getTotalCount();
+            if (total == 0 && stats.getSkipped(operation) == 0) continue;
+            out.printf(Locale.ROOT, "%-10s %8d %8d %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %11.1f%n",
+                    operation.getKey(),
+                    stats.getOk(operation), stats.getRejected(operation), stats.getErrors(operation),
+                    stats.getSkipped(operation), total / seconds,
+                    millis(response, 50), millis(response, 90), millis(response, 99), millis(response, 99.9),
+                    response.getMaxValue() / MICROS_PER_MILLI,
+                    millis(stats.getServiceTime(operation), 99));
+        }
+        if (stats.getQueued() > 0) {
+            out.printf("Queued %d arrivals behind %d outstanding requests; their wait is included above%n",
+                    stats.getQueued(), options.getMaxInFlight());
+        }
+        out.println("Latencies are measured from the scheduled start (coordinated-omission corrected);");
+        out.println("'svc p99' is measured from the actual send, for comparison.");
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(directory.resolve("summary.csv")))) {
+            csv.println("operation,ok,rejected,errors,skipped,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,service_p99_ms");
+            for (Operation operation : Operation.values()) {
+                Histogram response = stats.getResponseTime(operation);
+                Histogram service = stats.getServiceTime(operation);
+                if (response.getTotalCount() > 0) {
+                    writeDistribution(response, directory.resolve(operation.getKey() + ".hgrm"));
+                    writeDistribution(service, directory.resolve(operation.getKey() + "-service.hgrm"));
+                }
+                csv.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        operation.getKey(),
+                        stats.getOk(operation), stats.getRejected(operation), stats.getErrors(operation),
+                        stats.getSkipped(operation),
+                        millis(response, 50), millis(response, 90), millis(response, 99), millis(response, 99.9),
+                        response.getMaxValue() / MICROS_PER_MILLI, millis(service, 99));
+            }
+        }
+    }
+
+    private void writeDistribution(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,127 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests at a constant arrival rate, independent of how fast the server answers.
+ *
+ * Request {@code i} is scheduled for {@code start + i / rate}. The scheduler thread sleeps
+ * until that instant and hands the call to a virtual thread; it never waits for earlier
+ * requests to finish. If the scheduler falls behind (GC pause, saturated client), it
+ * catches up without waiting, and the latency is still measured from the scheduled
+ * instant, so the delay is not silently omitted.
+ *
+ * At most {@code maxInFlight} requests are outstanding. An arrival past that limit waits for
+ * a free slot instead of being discarded, and is charged for the wait like any other delay.
+ */
+public class OpenLoopRunner {
+
+    private final Workload workload;
+    private final WorkloadMix mix;
+    private final LatencyStats stats;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenLoopRunner(Workload workload, WorkloadMix mix, LatencyStats stats, ExecutorService executor,
+                          int maxInFlight) {
+        this.workload = workload;
+        this.mix = mix;
+        this.stats = stats;
+        this.executor = executor;
+        this.slots = new Semaphore(maxInFlight);
+    }
+
+    public void run(double ratePerSecond, Duration warmup, Duration duration, Duration reportInterval, long seed)
+            throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double intervalNanos = 1_000_000_000.0 / ratePerSecond;
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        Thread reporter = Thread.ofPlatform().daemon().name("load-reporter")
+                .start(() -> report(measureStart, reportInterval));
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + (long) (i * intervalNanos);
+            if (intendedStart >= end) break;
+
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+
+            Operation operation = mix.next(random);
+            Workload.Call call = workload.prepare(operation, random);
+            boolean measured = intendedStart >= measureStart;
+
+            if (!slots.tryAcquire()) {
+                if (measured) stats.recordQueued();
+                slots.acquire();
+            }
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    long actualStart = System.nanoTime();
+                    LibraryClient.Outcome outcome = call.execute();
+                    long finished = System.nanoTime();
+                    if (!measured) return;
+                    if (outcome == null) {
+                        stats.recordSkipped(operation);
+                    } else {
+                        stats.record(operation, intendedStart, actualStart, finished, outcome);
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                    slots.release();
+                }
+            });
+        }
+
+        // Let requests scheduled inside the window finish; they belong to the measurement
+        while (inFlight.get() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        reporter.interrupt();
+        reporter.join();
+        stats.drainInterval();
+    }
+
+    private void report(long measureStart, Duration reportInterval) {
+        long intervalNanos = reportInterval.toNanos();
+        long next = System.nanoTime() + intervalNanos;
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            next += intervalNanos;
+            if (now < measureStart) {
+                System.out.printf("[warmup] in-flight=%d%n", inFlight.get());
+                continue;
+            }
+            Map<Operation, Histogram> interval = stats.drainInterval();
+            StringBuilder line = new StringBuilder();
+            line.append(String.format("[%6.1fs] in-flight=%-5d", (now - measureStart) / 1e9, inFlight.get()));
+            interval.forEach((operation, histogram) -> {
+                if (histogram.getTotalCount() == 0) return;
+                line.append(String.format(" | %s n=%d p50=%.1fms p99=%.1fms", operation.getKey(),
+                        histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0));
+            });
+            System.out.println(line);
+        }
+    }
+}
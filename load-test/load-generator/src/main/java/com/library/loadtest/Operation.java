@@ -0,0 +1,31 @@
+package com.library.loadtest;
+
+/**
+ * Request types the load generator can issue.
+ */
+public enum Operation {
+    LOGIN("login"),
+    SEARCH("search"),
+    BORROW("borrow"),
+    RETURN("return"),
+    DASHBOARD("dashboard");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
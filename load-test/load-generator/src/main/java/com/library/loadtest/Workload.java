@@ -0,0 +1,130 @@
+package com.library.loadtest;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Turns scheduled operations into API calls against a pool of patron sessions.
+ *
+ * Random choices (which patron, which book, which search term) are drawn on the scheduler
+ * thread in {@link #prepare}, so a given seed always produces the same request sequence.
+ * Returns are driven by a queue of loans opened by successful borrows.
+ */
+public class Workload {
+
+    /** A logged-in patron; the token is refreshed by login operations. */
+    public static class Session {
+        private final String username;
+        private final String password;
+        private volatile String token;
+
+        public Session(String username, String password, String token) {
+            this.username = username;
+            this.password = password;
+            this.token = token;
+        }
+    }
+
+    private record Loan(Session session, long bookId) {
+    }
+
+    /** One scheduled request with its random choices already made. */
+    public interface Call {
+        /** Runs the request; returns null when it had nothing to do and should count as skipped. */
+        LibraryClient.Outcome execute();
+    }
+
+    private final LibraryClient client;
+    private final List<Session> sessions;
+    private final String adminToken;
+    private final long[] bookIds;
+    private final double[] bookCumulative;
+    private final List<String> searchTerms;
+    private final Queue<Loan> loans = new ConcurrentLinkedQueue<>();
+
+    public Workload(LibraryClient client, List<Session> sessions, String adminToken, long[] bookIds,
+                    double bookSkew, List<String> searchTerms) {
+        if (sessions.isEmpty()) throw new IllegalArgumentException("At least one patron session is required");
+        if (bookIds.length == 0) throw new IllegalArgumentException("At least one book id is required");
+        if (searchTerms.isEmpty()) throw new IllegalArgumentException("At least one search term is required");
+        this.client = client;
+        this.sessions = sessions;
+        this.adminToken = adminToken;
+        this.bookIds = bookIds;
+        this.bookCumulative = zipfCumulative(bookIds.length, bookSkew);
+        this.searchTerms = searchTerms;
+    }
+
+    public Call prepare(Operation operation, SplittableRandom random) {
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        return switch (operation) {
+            case LOGIN -> () -> {
+                try {
+                    session.token = client.login(session.username, session.password);
+                    return LibraryClient.Outcome.OK;
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                    return LibraryClient.Outcome.ERROR;
+                }
+            };
+            case SEARCH -> {
+                String term = searchTerms.get(random.nextInt(searchTerms.size()));
+                yield () -> client.search(session.token, term);
+            }
+            case BORROW -> {
+                long bookId = bookIds[sampleBookIndex(random)];
+                yield () -> {
+                    LibraryClient.Outcome outcome = client.borrow(session.token, bookId);
+                    if (outcome == LibraryClient.Outcome.OK) {
+                        loans.add(new Loan(session, bookId));
+                    }
+                    return outcome;
+                };
+            }
+            case RETURN -> () -> {
+                Loan loan = loans.poll();
+                if (loan == null) return null;
+                return client.returnBook(loan.session().token, loan.bookId());
+            };
+            case DASHBOARD -> () -> client.dashboard(adminToken);
+        };
+    }
+
+    public int getOutstandingLoans() {
+        return loans.size();
+    }
+
+    private int sampleBookIndex(SplittableRandom random) {
+        if (bookCumulative == null) {
+            return random.nextInt(bookIds.length);
+        }
+        double u = random.nextDouble();
+        int low = 0;
+        int high = bookCumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookCumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] zipfCumulative(int n, double exponent) {
+        if (exponent <= 0) return null;
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+}
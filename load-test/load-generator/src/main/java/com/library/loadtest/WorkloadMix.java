@@ -0,0 +1,74 @@
+package com.library.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted operation mix, parsed from strings such as
+ * {@code search=50,borrow=15,return=15,login=10,dashboard=10}.
+ */
+public class WorkloadMix {
+
+    private final Operation[] operations;
+    private final double[] cumulative;
+    private final Map<Operation, Double> weights;
+
+    private WorkloadMix(Map<Operation, Double> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new double[operations.length];
+
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Workload mix must contain at least one positive weight");
+        }
+        double sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]) / total;
+            cumulative[i] = sum;
+        }
+        cumulative[operations.length - 1] = 1.0;
+    }
+
+    public static WorkloadMix parse(String spec) {
+        Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) continue;
+            String[] parts = trimmed.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + trimmed);
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        return new WorkloadMix(weights);
+    }
+
+    public Operation next(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (u < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    public boolean includes(Operation operation) {
+        return weights.containsKey(operation);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        weights.forEach((operation, weight) -> {
+            if (!sb.isEmpty()) sb.append(',');
+            sb.append(operation.getKey()).append('=').append(weight.intValue() == weight ? weight.intValue() : weight);
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,75 @@
+#!/bin/bash
+# Mixed-workload load test using the Java load generator (load-test/load-generator)
+#
+# Usage:
+#   ./load-test/run-load-test.sh [generator options]
+#   START_APP=1 ./load-test/run-load-test.sh --rate 200 --duration 2m
+#
+# Environment:
+#   START_APP=1        build and start the application locally, stop it afterwards
+#   APP_PROFILE=...    Spring profile for the started application (e.g. synthetic-data)
+#   APP_ARGS="..."     extra application arguments
+#   JAVA_OPTS="..."    JVM options for the started application
+#   BASE_URL=...       application URL (default http://localhost:8080)
+#
+# Generator options are passed through; run with --help for the full list.
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(cd "$SCRIPT_DIR/.." && pwd)"
+GENERATOR_DIR="$SCRIPT_DIR/load-generator"
+GENERATOR_JAR="$GENERATOR_DIR/target/library-load-generator-1.0.0.jar"
+APP_JAR="$ROOT_DIR/target/library-management-1.0.0.jar"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+APP_PID=""
+cleanup() {
+    if [ -n "$APP_PID" ]; then
+        echo -e "${YELLOW}⏹  Stopping application (pid $APP_PID)...${NC}"
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+}
+trap cleanup EXIT
+
+if [ ! -f "$GENERATOR_JAR" ]; then
+    echo -e "${YELLOW}🔨 Building load generator...${NC}"
+    mvn -B -q -f "$GENERATOR_DIR/pom.xml" package
+fi
+
+if [ "$START_APP" = "1" ]; then
+    if [ ! -f "$APP_JAR" ]; then
+        echo -e "${YELLOW}🔨 Building application...${NC}"
+        mvn -B -q -f "$ROOT_DIR/pom.xml" package -DskipTests
+    fi
+    PROFILE_ARG=""
+    if [ -n "$APP_PROFILE" ]; then
+        PROFILE_ARG="--spring.profiles.active=$APP_PROFILE"
+    fi
+    echo -e "${YELLOW}🚀 Starting application${APP_PROFILE:+ (profile $APP_PROFILE)}...${NC}"
+    java $JAVA_OPTS -jar "$APP_JAR" $PROFILE_ARG \
+        --logging.level.com.library=INFO --logging.level.org.springframework.security=WARN \
+        --spring.jpa.show-sql=false $APP_ARGS > "$SCRIPT_DIR/app-under-test.log" 2>&1 &
+    APP_PID=$!
+fi
+
+echo -e "${YELLOW}⏳ Waiting for $BASE_URL/actuator/health...${NC}"
+for i in $(seq 1 600); do
+    if curl -sf "$BASE_URL/actuator/health" >/dev/null 2>&1; then
+        break
+    fi
+    if [ -n "$APP_PID" ] && ! kill -0 "$APP_PID" 2>/dev/null; then
+        echo -e "${RED}❌ Application exited; see $SCRIPT_DIR/app-under-test.log${NC}"
+        exit 1
+    fi
+    sleep 1
+done
+
+echo -e "${GREEN}✅ Application is up, starting load...${NC}"
+java -jar "$GENERATOR_JAR" --base-url "$BASE_URL" "$@"
@@ -0,0 +1,43 @@
+package com.library.benchmark;
+
+import com.library.service.AnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full dashboard generation through {@link AnalyticsService}.
+ *
+ * Dashboard cost grows with catalog and transaction volume, so this benchmark
+ * reports milliseconds and uses fewer, longer iterations than the others.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class AnalyticsServiceBenchmark {
+
+    private AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryContextState state) {
+        analyticsService = state.getBean(AnalyticsService.class);
+    }
+
+    @Benchmark
+    public Object generateDashboard() {
+        return analyticsService.generateDashboard();
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.benchmark;
+
+import com.library.LibraryManagementApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Boots the application once per trial against a private in-memory H2 database
+ * and seeds it to the scale chosen by the subclass.
+ *
+ * The servlet container is not started; benchmarks call services and filters directly.
+ * Scale is the number of seeded books; users and transactions are derived from it
+ * (see {@link BenchmarkDataSeeder}).
+ */
+public abstract class ApplicationContextState {
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataSeeder.SeededData seededData;
+
+    protected abstract int scale();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark_" + scale() + "_" + System.nanoTime()
+                                + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.main.banner-mode=off",
+                        "management.tracing.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.library=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+
+        seededData = new BenchmarkDataSeeder(getBean(JdbcTemplate.class)).seed(scale());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T getBean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    public BenchmarkDataSeeder.SeededData getSeededData() {
+        return seededData;
+    }
+}
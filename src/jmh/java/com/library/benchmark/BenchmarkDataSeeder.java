@@ -0,0 +1,187 @@
+package com.library.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a benchmark database on top of the regular {@code DataInitializer} data.
+ *
+ * Rows are written with batched JDBC so that seeding 10^4 books does not dominate
+ * trial setup. The random source is fixed so every run sees the same dataset.
+ */
+public class BenchmarkDataSeeder {
+
+    public static final String RUNNER_USERNAME = "bench.runner";
+    public static final String RUNNER_PASSWORD = "runner123";
+
+    private static final String[] CATEGORIES = {
+        "Programming", "Fiction", "Fantasy", "Mystery", "History", "Science",
+        "Economics", "Psychology", "Thriller", "Romance", "Young Adult", "Children"
+    };
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+
+    public BenchmarkDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public SeededData seed(int scale) {
+        LocalDateTime now = LocalDateTime.now();
+        String passwordHash = new BCryptPasswordEncoder().encode(RUNNER_PASSWORD);
+
+        insertBooks(scale, now);
+        insertUsers(Math.max(10, scale / 4), passwordHash, now);
+        insertTransactions(scale * 2, now);
+
+        Long runnerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = ?", Long.class, RUNNER_USERNAME);
+        List<Long> borrowable = jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE isbn LIKE 'BENCH-%' AND available_copies >= 2 ORDER BY id",
+                Long.class);
+
+        return new SeededData(runnerId, borrowable.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private void insertBooks(int count, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < count; i++) {
+            int copies = 2 + random.nextInt(7);
+            String category = CATEGORIES[i % CATEGORIES.length];
+            batch.add(new Object[] {
+                String.format("BENCH-%07d", i), "Benchmark Title " + i, "Author " + (i % 500),
+                "Publisher " + (i % 50), 1950 + random.nextInt(75), category,
+                "A benchmark book in the " + category + " category", copies, copies,
+                9.99 + random.nextInt(40), "English", 100 + random.nextInt(900), "AVAILABLE",
+                timestamp, timestamp
+            });
+            if (batch.size() == BATCH_SIZE) {
+                flushBooks(batch);
+            }
+        }
+        flushBooks(batch);
+    }
+
+    private void flushBooks(List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO books (id, isbn, title, author, publisher, publication_year, category, description, " +
+                "total_copies, available_copies, price, language, pages, status, created_at, updated_at, version) " +
+                "VALUES (NEXT VALUE FOR books_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", batch);
+        batch.clear();
+    }
+
+    private void insertUsers(int count, String passwordHash, LocalDateTime now) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        batch.add(userRow(RUNNER_USERNAME, passwordHash, "Bench", "Runner", Timestamp.valueOf(now)));
+        for (int i = 0; i < count; i++) {
+            Timestamp createdAt = Timestamp.valueOf(now.minusDays(random.nextInt(365)));
+            batch.add(userRow("bench.user" + i, passwordHash, "Bench", "User" + i, createdAt));
+            if (batch.size() == BATCH_SIZE) {
+                flushUsers(batch);
+            }
+        }
+        flushUsers(batch);
+    }
+
+    private Object[] userRow(String username, String passwordHash, String firstName, String lastName,
+                             Timestamp createdAt) {
+        return new Object[] {
+            username, passwordHash, username + "@bench.local", firstName, lastName,
+            "555-0000", "1 Benchmark Way", "USER", true, createdAt, createdAt
+        };
+    }
+
+    private void flushUsers(List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, username, password, email, first_name, last_name, phone_number, address, " +
+                "role, enabled, created_at, updated_at) " +
+                "VALUES (NEXT VALUE FOR users_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private void insertTransactions(int count, LocalDateTime now) {
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'bench.user%' ORDER BY id", Long.class);
+        List<Long> bookIds = jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE isbn LIKE 'BENCH-%' ORDER BY id", Long.class);
+        int[] available = jdbcTemplate.queryForList(
+                "SELECT available_copies FROM books WHERE isbn LIKE 'BENCH-%' ORDER BY id", Integer.class)
+                .stream().mapToInt(Integer::intValue).toArray();
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            int bookIndex = random.nextInt(bookIds.size());
+            Long userId = userIds.get(random.nextInt(userIds.size()));
+            LocalDateTime borrowedAt = now.minusDays(random.nextInt(180)).minusHours(random.nextInt(24));
+            Timestamp borrowed = Timestamp.valueOf(borrowedAt);
+            Timestamp due = Timestamp.valueOf(borrowedAt.plusDays(14));
+
+            // Keep at least one copy of every book on the shelf for the borrow benchmarks
+            boolean active = random.nextDouble() < 0.3 && available[bookIndex] > 2;
+            if (active) {
+                available[bookIndex]--;
+                batch.add(new Object[] {userId, bookIds.get(bookIndex), "BORROW", "ACTIVE",
+                        borrowed, due, null, borrowed, borrowed});
+            } else {
+                Timestamp returned = Timestamp.valueOf(borrowedAt.plusDays(1 + random.nextInt(20)));
+                batch.add(new Object[] {userId, bookIds.get(bookIndex), "BORROW", "RETURNED",
+                        borrowed, due, returned, borrowed, returned});
+            }
+            if (batch.size() == BATCH_SIZE) {
+                flushTransactions(batch);
+            }
+        }
+        flushTransactions(batch);
+
+        List<Object[]> availability = new ArrayList<>(bookIds.size());
+        for (int i = 0; i < bookIds.size(); i++) {
+            availability.add(new Object[] {available[i], bookIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE books SET available_copies = ? WHERE id = ?", availability);
+    }
+
+    private void flushTransactions(List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, user_id, book_id, type, status, borrowed_at, due_date, returned_at, " +
+                "created_at, updated_at, version) " +
+                "VALUES (NEXT VALUE FOR transactions_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", batch);
+        batch.clear();
+    }
+
+    /**
+     * Identifiers the benchmarks need after seeding: a user without loans and the
+     * books that always have a copy on the shelf.
+     */
+    public static class SeededData {
+
+        private final long runnerUserId;
+        private final long[] borrowableBookIds;
+
+        public SeededData(long runnerUserId, long[] borrowableBookIds) {
+            this.runnerUserId = runnerUserId;
+            this.borrowableBookIds = borrowableBookIds;
+        }
+
+        public long getRunnerUserId() {
+            return runnerUserId;
+        }
+
+        public long[] getBorrowableBookIds() {
+            return borrowableBookIds;
+        }
+    }
+}
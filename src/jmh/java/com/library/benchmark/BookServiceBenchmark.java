@@ -0,0 +1,94 @@
+package com.library.benchmark;
+
+import com.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search and CSV import through {@link BookService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BookServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SearchState {
+
+        // "Title 12" matches a handful of rows, "Fiction" matches a category slice
+        @Param({"Title 12", "Fiction"})
+        public String searchTerm;
+
+        BookService bookService;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryContextState state) {
+            bookService = state.getBean(BookService.class);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CsvImportState {
+
+        @Param({"100"})
+        public int rows;
+
+        BookService bookService;
+        JdbcTemplate jdbcTemplate;
+        MockMultipartFile file;
+        long batch;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryContextState state) {
+            bookService = state.getBean(BookService.class);
+            jdbcTemplate = state.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void buildFile() {
+            StringBuilder csv = new StringBuilder(
+                    "ISBN,Title,Author,Category,Publisher,TotalCopies,Price,PublicationYear,Pages,Language,Description\n");
+            for (int i = 0; i < rows; i++) {
+                csv.append("CSV-").append(batch).append('-').append(i)
+                   .append(",Imported Title ").append(i)
+                   .append(",Import Author,Fiction,Import House,3,12.50,2020,250,English,Imported by benchmark\n");
+            }
+            batch++;
+            file = new MockMultipartFile("file", "books.csv", "text/csv",
+                    csv.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @TearDown(Level.Invocation)
+        public void removeImportedBooks() {
+            jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'CSV-%'");
+        }
+    }
+
+    @Benchmark
+    public Object searchBooks(SearchState state) {
+        return state.bookService.searchBooks(state.searchTerm);
+    }
+
+    @Benchmark
+    public Object importCsv(CsvImportState state) throws Exception {
+        return state.bookService.createBooksFromCsv(state.file);
+    }
+}
@@ -0,0 +1,126 @@
+package com.library.benchmark;
+
+import com.library.LibraryManagementApplication;
+import com.library.config.DataInitializer;
+import com.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.h2.tools.Server;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the CSV import and the {@link DataInitializer} seed with Hibernate's
+ * JDBC batching off ({@code batchSize=1}, one round trip per row as under IDENTITY ids) and
+ * at the configured size. Each invocation writes into emptied tables.
+ *
+ * {@code connection=tcp} reaches the same in-memory database through a local H2 TCP server,
+ * so every round trip crosses a socket as it would against a database server; embedded H2
+ * runs statements in-process and gains little from batching.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class InsertBatchingBenchmark {
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"5000"})
+    public int rows;
+
+    @Param({"embedded", "tcp"})
+    public String connection;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private DataInitializer dataInitializer;
+    private JdbcTemplate jdbcTemplate;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void startContext() throws SQLException {
+        String database = "mem:batching_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        String url = "jdbc:h2:" + database;
+        if (connection.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/" + database;
+        }
+        // Passed as arguments: builder properties are defaults that application.properties overrides
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--library.ledger.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--management.tracing.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.library=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        bookService = context.getBean(BookService.class);
+        dataInitializer = context.getBean(DataInitializer.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StringBuilder csv = new StringBuilder(
+                "ISBN,Title,Author,Category,Publisher,TotalCopies,Price,PublicationYear,Pages,Language,Description\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("BATCH-").append(i)
+               .append(",Imported Title ").append(i)
+               .append(",Import Author,Fiction,Import House,3,12.50,2020,250,English,Imported by benchmark\n");
+        }
+        file = new MockMultipartFile("file", "books.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTables() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM transactions");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        if (context != null) {
+            context.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public Object importCsv() throws Exception {
+        return bookService.createBooksFromCsv(file);
+    }
+
+    @Benchmark
+    public void seedSampleData() throws Exception {
+        dataInitializer.run();
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The application context seeded at each {@link #scale}, for benchmarks whose cost
+ * depends on how much data there is.
+ */
+@State(Scope.Benchmark)
+public class LibraryContextState extends ApplicationContextState {
+
+    @Param({"100", "1000", "10000"})
+    public int scale;
+
+    @Override
+    protected int scale() {
+        return scale;
+    }
+}
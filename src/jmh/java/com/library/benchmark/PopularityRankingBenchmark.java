@@ -0,0 +1,101 @@
+package com.library.benchmark;
+
+import com.library.dto.AnalyticsDashboardDto.PopularBookDto;
+import com.library.service.LongIntCounter;
+import com.library.service.TopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Most-borrowed ranking over an in-memory catalog and transaction list, as the dashboard's
+ * stream pipeline did it (boxed counts, a DTO per book, sort, limit) and as it does now (a
+ * {@link LongIntCounter} tally and a {@link TopK} heap, DTOs for the winners only). Borrows
+ * follow a skewed popularity curve, ten per book on average.
+ *
+ * Allocation is the point; run with the GC profiler and compare {@code gc.alloc.rate.norm}:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=PopularityRankingBenchmark -Djmh.args="-prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class PopularityRankingBenchmark {
+
+    private static final int TOP = 10;
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    private CatalogEntry[] catalog;
+    private long[] borrowedBookIds;
+
+    private record CatalogEntry(long id, String title, String author, String category) {
+    }
+
+    @Setup(Level.Trial)
+    public void createCatalog() {
+        catalog = new CatalogEntry[books];
+        for (int i = 0; i < books; i++) {
+            catalog[i] = new CatalogEntry(i + 1, "Title " + i, "Author " + i % 500, "Category " + i % 20);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        borrowedBookIds = new long[books * 10];
+        for (int i = 0; i < borrowedBookIds.length; i++) {
+            // Squaring a uniform draw piles borrows onto the low ids
+            double draw = random.nextDouble();
+            borrowedBookIds[i] = 1 + (long) (draw * draw * books);
+        }
+    }
+
+    @Benchmark
+    public List<PopularBookDto> streamPipeline() {
+        Map<Long, Long> counts = Arrays.stream(borrowedBookIds).boxed()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        return Arrays.stream(catalog)
+                .map(book -> new PopularBookDto(book.title(), book.author(), book.category(),
+                        counts.getOrDefault(book.id(), 0L)))
+                .sorted((a, b) -> Long.compare(b.getBorrowCount(), a.getBorrowCount()))
+                .limit(TOP)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<PopularBookDto> counterAndHeap() {
+        LongIntCounter counts = new LongIntCounter(1024);
+        for (long bookId : borrowedBookIds) {
+            counts.increment(bookId);
+        }
+        TopK top = new TopK(TOP);
+        counts.forEach(top::offer);
+        long[] ids = top.drain();
+        List<PopularBookDto> popular = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            CatalogEntry book = catalog[(int) id - 1];
+            popular.add(new PopularBookDto(book.title(), book.author(), book.category(), counts.get(id)));
+        }
+        return popular;
+    }
+}
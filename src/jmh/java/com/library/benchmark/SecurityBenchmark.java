@@ -0,0 +1,106 @@
+package com.library.benchmark;
+
+import com.library.config.JwtAuthenticationFilter;
+import com.library.config.JwtUtils;
+import com.library.service.UserService;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request security overhead: JWT signing and parsing in {@link JwtUtils}, the
+ * {@link JwtAuthenticationFilter} on its own, and the complete Spring Security
+ * filter chain for an authenticated GET.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SecurityBenchmark {
+
+    /**
+     * Token and filter costs do not depend on table sizes, so the context is seeded once
+     * at the smallest scale instead of at every {@link LibraryContextState#scale}.
+     */
+    @State(Scope.Benchmark)
+    public static class SecurityContextState extends ApplicationContextState {
+
+        @Override
+        protected int scale() {
+            return 100;
+        }
+    }
+
+    private JwtUtils jwtUtils;
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private Filter springSecurityFilterChain;
+    private UserDetails runner;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp(SecurityContextState state) {
+        jwtUtils = state.getBean(JwtUtils.class);
+        jwtAuthenticationFilter = state.getBean(JwtAuthenticationFilter.class);
+        springSecurityFilterChain = state.getBean("springSecurityFilterChain", Filter.class);
+        runner = state.getBean(UserService.class).loadUserByUsername(BenchmarkDataSeeder.RUNNER_USERNAME);
+        token = jwtUtils.generateToken(runner);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(runner);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtils.extractUsername(token);
+    }
+
+    @Benchmark
+    public Object jwtAuthenticationFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtAuthenticationFilter.doFilter(authenticatedRequest(), response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public int securityFilterChain() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(authenticatedRequest(), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private MockHttpServletRequest authenticatedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setServletPath("/api/books");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.benchmark;
+
+import com.library.LibraryManagementApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to a ready application context with a synthetic dataset of {@code scale} transactions:
+ * <ul>
+ *   <li>{@code memory}: in-memory H2, generated from scratch on every start (the default setup)</li>
+ *   <li>{@code file-cold}: the persistent profile against an empty data directory</li>
+ *   <li>{@code file-reopen}: the persistent profile reopening a store seeded once per trial</li>
+ * </ul>
+ * Each invocation is one start; shutdown (including the store's compaction on close) is not timed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"memory", "file-cold", "file-reopen"})
+    public String store;
+
+    @Param({"100000"})
+    public int scale;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createStore() throws IOException {
+        dataDir = Files.createTempDirectory("library-startup-");
+        if (store.equals("file-reopen")) {
+            start().close();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStore() {
+        if (store.equals("file-cold")) {
+            deleteContents(dataDir);
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startUp() {
+        context = start();
+        return context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void shutDown() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() {
+        deleteContents(dataDir);
+    }
+
+    private ConfigurableApplicationContext start() {
+        // Passed as arguments: builder properties are defaults that application.properties overrides
+        List<String> args = new ArrayList<>(List.of(
+                "--LIBRARY_DATA_DIR=" + dataDir,
+                "--library.synthetic.users=" + Math.max(100, scale / 5),
+                "--library.synthetic.books=" + Math.max(50, scale / 25),
+                "--library.synthetic.transactions=" + scale,
+                "--library.synthetic.batch-size=5000",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.banner-mode=off",
+                "--management.tracing.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.library=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false);
+        if (store.equals("memory")) {
+            // A fresh database per start, as a restart of the default configuration gets
+            builder.profiles("synthetic-data");
+            args.add("--spring.datasource.url=jdbc:h2:mem:startup_" + System.nanoTime());
+        } else {
+            builder.profiles("persistent", "synthetic-data");
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+
+    private static void deleteContents(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder())
+                    .filter(path -> !path.equals(directory))
+                    .forEach(path -> {
+                        try {
+                            Files.delete(path);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.benchmark;
+
+import com.library.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow and return latency through {@link TransactionService}.
+ *
+ * Each invocation works on the next shelf book for the dedicated runner user; the
+ * opposite operation runs in invocation-level setup/teardown so inventory and the
+ * runner's borrowing limit stay constant across the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class TransactionServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        TransactionService transactionService;
+        long userId;
+        long[] bookIds;
+        int next;
+        long currentBookId;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryContextState state) {
+            transactionService = state.getBean(TransactionService.class);
+            userId = state.getSeededData().getRunnerUserId();
+            bookIds = state.getSeededData().getBorrowableBookIds();
+        }
+
+        long advance() {
+            currentBookId = bookIds[next++ % bookIds.length];
+            return currentBookId;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BorrowCursor extends Cursor {
+
+        @Setup(Level.Invocation)
+        public void pickBook() {
+            advance();
+        }
+
+        @TearDown(Level.Invocation)
+        public void returnBorrowedBook() {
+            transactionService.returnBook(userId, currentBookId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReturnCursor extends Cursor {
+
+        @Setup(Level.Invocation)
+        public void borrowBook() {
+            transactionService.borrowBook(userId, advance());
+        }
+    }
+
+    @Benchmark
+    public Object borrowBook(BorrowCursor cursor) {
+        return cursor.transactionService.borrowBook(cursor.userId, cursor.currentBookId);
+    }
+
+    @Benchmark
+    public Object returnBook(ReturnCursor cursor) {
+        return cursor.transactionService.returnBook(cursor.userId, cursor.currentBookId);
+    }
+}
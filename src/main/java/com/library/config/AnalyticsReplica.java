@@ -0,0 +1,204 @@
+package com.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-only side of the routing set up by {@link ReplicaDataSourceConfig}: a local stand-in
+ * for a streaming replica, made of two in-memory H2 databases that take turns.
+ *
+ * Every {@code refresh-interval} the idle standby is rebuilt from an H2 {@code SCRIPT}
+ * snapshot of the primary and then becomes the current replica, so readers never see a
+ * half-loaded copy. Read-only connections go to the current replica while its snapshot is
+ * younger than {@code max-lag}; otherwise (no snapshot yet, or refreshes falling behind)
+ * they go to the primary.
+ *
+ * Metrics: {@code library.replica.reads} (tagged by target), {@code library.replica.lag}
+ * and {@code library.replica.refresh}.
+ */
+public class AnalyticsReplica extends AbstractRoutingDataSource implements SmartLifecycle, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsReplica.class);
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final HikariDataSource[] replicas;
+    private final Duration refreshInterval;
+    private final long maxLagMillis;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final Timer refreshTimer;
+
+    // Index into replicas of the copy readers use; -1 until the first snapshot lands
+    private volatile int current = -1;
+    // When the current copy's snapshot was taken
+    private volatile long snapshotAt;
+    private ScheduledExecutorService refresher;
+    private volatile boolean running;
+
+    public AnalyticsReplica(DataSource primary, HikariDataSource replicaA, HikariDataSource replicaB,
+                            Duration refreshInterval, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new HikariDataSource[] {replicaA, replicaB};
+        this.refreshInterval = refreshInterval;
+        this.maxLagMillis = maxLag.toMillis();
+        setTargetDataSources(Map.of(PRIMARY, primary, 0, replicaA, 1, replicaB));
+        setDefaultTargetDataSource(primary);
+
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.primaryReads = reads(meterRegistry, "primary");
+        this.refreshTimer = Timer.builder("library.replica.refresh")
+                .description("Time to rebuild the standby replica from a snapshot of the primary")
+                .register(meterRegistry);
+        TimeGauge.builder("library.replica.lag", this, TimeUnit.MILLISECONDS, AnalyticsReplica::getLagMillis)
+                .description("Age of the snapshot the replica is serving")
+                .register(meterRegistry);
+    }
+
+    private static Counter reads(MeterRegistry registry, String target) {
+        return Counter.builder("library.replica.reads")
+                .description("Read-only connections by the database that served them")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int copy = current;
+        if (copy >= 0 && System.currentTimeMillis() - snapshotAt <= maxLagMillis) {
+            replicaReads.increment();
+            return copy;
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    /** Milliseconds since the served snapshot was taken, or {@code Long.MAX_VALUE} before the first one. */
+    public long getLagMillis() {
+        return current < 0 ? Long.MAX_VALUE : System.currentTimeMillis() - snapshotAt;
+    }
+
+    /** Whether read-only transactions are currently served by the replica. */
+    public boolean isServingReads() {
+        return current >= 0 && getLagMillis() <= maxLagMillis;
+    }
+
+    /**
+     * Rebuilds the standby copy from the primary and switches readers to it. Returns false
+     * when the standby still has readers from before the last switch; they keep their
+     * snapshot and the next refresh tries again.
+     */
+    public boolean refresh() {
+        refreshLock.lock();
+        try {
+            int standby = current == 0 ? 1 : 0;
+            HikariPoolMXBean pool = replicas[standby].getHikariPoolMXBean();
+            if (pool != null && pool.getActiveConnections() > 0) {
+                logger.debug("Replica standby {} still has {} readers, skipping refresh", standby,
+                        pool.getActiveConnections());
+                return false;
+            }
+            long started = System.nanoTime();
+            long takenAt = System.currentTimeMillis();
+            int statements = copyInto(replicas[standby]);
+            snapshotAt = takenAt;
+            current = standby;
+            refreshTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            logger.debug("Replica {} refreshed with {} statements in {} ms", standby, statements,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Replica refresh failed: " + e.getMessage(), e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /** Streams the primary's SCRIPT output straight into the emptied target. */
+    private int copyInto(DataSource target) throws SQLException {
+        int statements = 0;
+        try (Connection source = primary.getConnection();
+             Connection replica = target.getConnection();
+             Statement read = source.createStatement();
+             Statement write = replica.createStatement()) {
+            write.execute("DROP ALL OBJECTS");
+            try (ResultSet script = read.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS NOVERSION")) {
+                while (script.next()) {
+                    String sql = script.getString(1);
+                    // The replica keeps its own login
+                    if (sql.startsWith("CREATE USER")) continue;
+                    write.execute(sql);
+                    statements++;
+                }
+            }
+        }
+        return statements;
+    }
+
+    @Override
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.error("Replica refresh failed, reads fall back to the primary once it is {} ms stale",
+                        maxLagMillis, e);
+            }
+        }, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+        logger.info("Analytics replica started (refresh every {} ms, max lag {} ms)", refreshInterval.toMillis(),
+                maxLagMillis);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        refresher.shutdownNow();
+        try {
+            refresher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+    }
+}
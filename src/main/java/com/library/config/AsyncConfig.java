@@ -0,0 +1,18 @@
+package com.library.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Async} and {@code @Scheduled} processing.
+ *
+ * The executors are Spring Boot's defaults. With {@code spring.threads.virtual.enabled=true}
+ * (set via the {@code VIRTUAL_THREADS} environment variable), Tomcat request handling,
+ * {@code @Async} methods and scheduled jobs all run on virtual threads.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
@@ -0,0 +1,276 @@
+package com.library.config;
+
+import com.library.service.IdempotencyStore;
+import com.library.service.IdempotencyStore.Claim;
+import com.library.service.IdempotencyStore.StoredResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code Idempotency-Key} support for borrow, return, circulation and CSV import.
+ *
+ * A POST carrying the header is fingerprinted (user, path, query, body) and run once; the
+ * response is kept in the {@link IdempotencyStore}. A retry with the same key and request gets
+ * the stored response with {@code Idempotent-Replayed: true} instead of running the service
+ * again, and a duplicate that arrives while the first is still running waits for its result.
+ * Reusing a key for a different request is rejected with 422. Server errors are not stored,
+ * so those requests can be retried.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${library.idempotency.paths:/api/transactions/borrow,/api/transactions/return,/api/transactions/circulation,/api/books/upload}")
+    private List<String> paths;
+
+    @Value("${library.idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyStore store, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "invalid",
+                    KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        HttpServletRequest body = cacheBody(request);
+        String fingerprint = fingerprint(body);
+        // Keys are scoped per user, so one client cannot replay another's response
+        String storeKey = currentUser() + " " + key;
+
+        while (true) {
+            Claim claim = store.claim(storeKey, fingerprint);
+            if (!claim.entry().getFingerprint().equals(fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "mismatch",
+                        KEY_HEADER + " was already used for a different request");
+                return;
+            }
+            if (!claim.owner()) {
+                try {
+                    StoredResponse stored = claim.entry().getResponse().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                    replay(response, stored);
+                    return;
+                } catch (TimeoutException e) {
+                    reject(response, HttpStatus.CONFLICT, "in_progress",
+                            "A request with this " + KEY_HEADER + " is still being processed");
+                    return;
+                } catch (ExecutionException e) {
+                    // The first attempt failed without a result; take over
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException("Interrupted while waiting for an idempotent request", e);
+                }
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                filterChain.doFilter(body, wrapper);
+            } catch (IOException | ServletException | RuntimeException e) {
+                store.abandon(storeKey, claim.entry());
+                throw e;
+            }
+            if (wrapper.getStatus() >= 500) {
+                store.abandon(storeKey, claim.entry());
+            } else {
+                store.complete(storeKey, claim.entry(),
+                        new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            }
+            count("executed");
+            wrapper.copyBodyToResponse();
+            return;
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        count("replayed");
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String outcome, String message) throws IOException {
+        count(outcome);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("library.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    /** Form and multipart bodies are parsed by the container, anything else is read once and replayed. */
+    private HttpServletRequest cacheBody(HttpServletRequest request) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE))) {
+            return request;
+        }
+        return new CachedBodyRequest(request, StreamUtils.copyToByteArray(request.getInputStream()));
+    }
+
+    private String fingerprint(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        update(digest, request.getRequestURI());
+        update(digest, request.getQueryString());
+
+        String contentType = request.getContentType();
+        if (request instanceof CachedBodyRequest cached) {
+            digest.update(cached.body);
+        } else if (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            for (Part part : request.getParts()) {
+                update(digest, part.getName());
+                update(digest, part.getSubmittedFileName());
+                try (InputStream in = new DigestInputStream(part.getInputStream(), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+        } else {
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                update(digest, parameter.getKey());
+                for (String value : parameter.getValue()) {
+                    update(digest, value);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already buffered, so it is available and complete at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
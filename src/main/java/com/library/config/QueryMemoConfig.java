@@ -0,0 +1,36 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Installs {@link ReadOnlyQueryMemo} on every Spring Data repository. The advice goes first
+ * in the repository proxy, ahead of the repository's own transaction interceptor, so it sees
+ * the caller's transaction rather than the one each repository method opens for itself.
+ * Disabled with {@code library.query-memo.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.query-memo.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMemoConfig {
+
+    // Static so the post-processor does not pull this configuration (and its dependencies) in early
+    @Bean
+    public static BeanPostProcessor queryMemoRepositoryCustomizer(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(0,
+                                    new ReadOnlyQueryMemo(repositoryInformation.getRepositoryInterface(), meterRegistry))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+/**
+ * Repository advice that answers a repeated read from the result of the first one, for as
+ * long as the caller's read-only transaction lasts. Calls are keyed by repository method and
+ * arguments, so {@code bookRepository.findAll()} issued by three sections of one dashboard
+ * reaches the database once.
+ *
+ * Only applies inside {@code @Transactional(readOnly = true)}, where nothing the caller does
+ * can change what a query returns. Writes, {@code @Modifying} queries and streamed results
+ * are always passed through. Reused results are the same objects the first caller got, so
+ * callers must not modify returned collections.
+ *
+ * One instance advises one repository. Metrics: {@code library.query.memo.reused} per query;
+ * each transaction that reused reads also logs its totals at debug level.
+ */
+public class ReadOnlyQueryMemo implements MethodInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadOnlyQueryMemo.class);
+
+    private final Class<?> repositoryInterface;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, Counter> reusedCounters = new ConcurrentHashMap<>();
+
+    public ReadOnlyQueryMemo(Class<?> repositoryInterface, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repositoryInterface = repositoryInterface;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !isMemoizable(method)) {
+            return invocation.proceed();
+        }
+
+        Memo memo = currentMemo();
+        Key key = new Key(repositoryInterface, method, invocation.getArguments());
+        memo.reads++;
+        if (memo.results.containsKey(key)) {
+            memo.reused++;
+            reusedCounter(method).increment();
+            return memo.results.get(key);
+        }
+        Object result = invocation.proceed();
+        memo.results.put(key, result);
+        return result;
+    }
+
+    private static boolean isMemoizable(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class || BaseStream.class.isAssignableFrom(returnType)
+                || Iterator.class.isAssignableFrom(returnType)) {
+            return false;
+        }
+        if (method.isAnnotationPresent(Modifying.class)) {
+            return false;
+        }
+        String name = method.getName();
+        return !name.startsWith("save") && !name.startsWith("delete") && !name.startsWith("flush");
+    }
+
+    /** The memo of the current transaction; a suspended outer transaction keeps its own. */
+    private static Memo currentMemo() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Memo memo) {
+                return memo;
+            }
+        }
+        Memo memo = new Memo();
+        TransactionSynchronizationManager.registerSynchronization(memo);
+        return memo;
+    }
+
+    private Counter reusedCounter(Method method) {
+        return reusedCounters.computeIfAbsent(method, m -> Counter.builder("library.query.memo.reused")
+                .description("Repository reads answered from an earlier identical read in the same read-only transaction")
+                .tag("query", repositoryInterface.getSimpleName() + "." + m.getName())
+                .register(meterRegistry.getObject()));
+    }
+
+    private static final class Memo implements TransactionSynchronization {
+
+        private final Map<Key, Object> results = new HashMap<>();
+        private int reads;
+        private int reused;
+
+        @Override
+        public void afterCompletion(int status) {
+            if (reused > 0 && logger.isDebugEnabled()) {
+                logger.debug("Read-only transaction reused {} of {} repository reads ({} distinct)",
+                        reused, reads, results.size());
+            }
+        }
+    }
+
+    // The repository is part of the key: inherited methods such as findAll() are shared by all of them
+    private record Key(Class<?> repository, Method method, Object[] arguments) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && repository == key.repository && method.equals(key.method)
+                    && Arrays.deepEquals(arguments, key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * repository.hashCode() + method.hashCode()) + Arrays.deepHashCode(arguments);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routes read-only transactions ({@code @Transactional(readOnly = true)}, i.e. the analytics
+ * queries) to a replica pool and everything else to the primary pool, so dashboard scans do
+ * not hold the connections borrow and return need.
+ *
+ * The application's DataSource is a {@link LazyConnectionDataSourceProxy}: it only picks a
+ * pool when the first statement runs, by which time Spring has marked the connection
+ * read-only or not. Enabled with {@code library.replica.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Value("${library.replica.name:library_replica}")
+    private String replicaName;
+
+    @Value("${library.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${library.replica.refresh-interval:1s}")
+    private Duration refreshInterval;
+
+    @Value("${library.replica.max-lag:5s}")
+    private Duration maxLag;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("library-primary");
+        return dataSource;
+    }
+
+    @Bean
+    public AnalyticsReplica analyticsReplica(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                             MeterRegistry meterRegistry) {
+        return new AnalyticsReplica(primaryDataSource, replicaPool(properties, "a"), replicaPool(properties, "b"),
+                refreshInterval, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, AnalyticsReplica analyticsReplica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(analyticsReplica);
+        return dataSource;
+    }
+
+    private HikariDataSource replicaPool(DataSourceProperties properties, String copy) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("library-replica-" + copy);
+        pool.setJdbcUrl("jdbc:h2:mem:" + replicaName + "_" + copy + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        pool.setMaximumPoolSize(replicaPoolSize);
+        return pool;
+    }
+}
@@ -0,0 +1,610 @@
+package com.library.config;
+
+import com.library.service.LongIntCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Generates large, production-like datasets for benchmarks and load tests.
+ *
+ * Activated with the {@code synthetic-data} profile, which replaces {@link DataInitializer}.
+ * Output is fully determined by {@code library.synthetic.seed}: the same settings always
+ * produce the same rows. Data is written with batched JDBC using explicit ids, so
+ * transactions can reference users and books without lookups.
+ *
+ * Skew model:
+ * - book popularity follows a Zipf distribution, and user activity a flatter one
+ * - borrow dates follow a yearly season curve with a weekend bump
+ * - recent borrows are mostly still out, older ones are mostly returned, and a
+ *   configurable share of older ones are still out past their due date
+ */
+@Component
+@Profile("synthetic-data")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final int LOAN_DAYS = 14;
+    private static final int MAX_ACTIVE_PER_USER = 5;
+
+    private static final String[] CATEGORIES = {
+        "Fiction", "Fantasy", "Mystery", "Thriller", "Romance", "Science Fiction", "Young Adult", "Children",
+        "History", "Science", "Programming", "Economics", "Psychology", "Biography", "Adventure", "Horror"
+    };
+
+    private static final String[] TITLE_WORDS = {
+        "Silent", "Golden", "Hidden", "Last", "Broken", "Northern", "Crimson", "Endless", "Secret", "Distant",
+        "River", "Kingdom", "Garden", "Empire", "Shadow", "Journey", "Winter", "Harbor", "Code", "Machine",
+        "Memory", "Storm", "Light", "Forest", "City", "Ocean", "Mountain", "Signal", "Archive", "Promise"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "Alice", "Bob", "Charlie", "Diana", "Edward", "Fiona", "George", "Hannah", "Ian", "Julia",
+        "Kevin", "Laura", "Michael", "Nancy", "Oscar", "Patricia", "Quinn", "Rachel", "Samuel", "Teresa"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Lee"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${library.synthetic.seed:20240101}")
+    private long seed;
+
+    @Value("${library.synthetic.users:1000000}")
+    private int userCount;
+
+    @Value("${library.synthetic.books:200000}")
+    private int bookCount;
+
+    @Value("${library.synthetic.transactions:5000000}")
+    private long transactionCount;
+
+    @Value("${library.synthetic.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${library.synthetic.history-days:365}")
+    private int historyDays;
+
+    @Value("${library.synthetic.book-zipf-exponent:1.07}")
+    private double bookZipfExponent;
+
+    @Value("${library.synthetic.user-zipf-exponent:0.6}")
+    private double userZipfExponent;
+
+    @Value("${library.synthetic.overdue-ratio:0.03}")
+    private double overdueRatio;
+
+    @Value("${library.synthetic.user-password:user123}")
+    private String userPassword;
+
+    // Derived from bookCount once per run; the rank mapping is applied to every generated row
+    private long popularityStride;
+    private long popularityInverse;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PasswordEncoder passwordEncoder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (count("users") > 0 || count("books") > 0 || count("transactions") > 0) {
+            logger.info("Database is not empty, skipping synthetic data generation");
+            return;
+        }
+
+        logger.info("Generating synthetic dataset: {} users, {} books, {} transactions (seed {})",
+                userCount, bookCount, transactionCount, seed);
+        long startTime = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        popularityStride = computePopularityStride();
+        popularityInverse = modInverse(popularityStride % bookCount, bookCount);
+
+        int[] totalCopies = generateBooks(now);
+        generateUsers(now);
+        int[] activeByBook = generateTransactions(now, totalCopies);
+        applyAvailability(totalCopies, activeByBook);
+        restartSequences();
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("Synthetic dataset generated in {} ms", elapsed);
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // Books
+
+    private int[] generateBooks(LocalDateTime now) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ZipfSampler popularity = new ZipfSampler(bookCount, bookZipfExponent);
+        int[] totalCopies = new int[bookCount + 1];
+        Timestamp createdAt = Timestamp.valueOf(now.minusDays(historyDays));
+
+        long startTime = System.currentTimeMillis();
+        for (int from = 1; from <= bookCount; from += batchSize) {
+            int to = Math.min(bookCount, from + batchSize - 1);
+            int first = from;
+            int size = to - from + 1;
+            int[] copies = new int[size];
+            for (int i = 0; i < size; i++) {
+                long id = first + i;
+                // Popular titles are stocked deeper, mirroring real acquisition policies
+                double share = popularity.probabilityOf(popularityRankOfBook(id));
+                int extra = (int) Math.min(15, share * bookCount * 2);
+                copies[i] = 1 + random.nextInt(4) + extra;
+                totalCopies[(int) id] = copies[i];
+            }
+
+            inTransaction(() -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO books (id, isbn, title, author, publisher, publication_year, category, description, " +
+                    "total_copies, available_copies, price, language, pages, status, created_at, updated_at, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            long id = first + i;
+                            String category = CATEGORIES[(int) (mix(id) % CATEGORIES.length)];
+                            ps.setLong(1, id);
+                            ps.setString(2, String.format("979%010d", id));
+                            ps.setString(3, TITLE_WORDS[(int) (mix(id * 31) % TITLE_WORDS.length)] + " "
+                                    + TITLE_WORDS[(int) (mix(id * 37) % TITLE_WORDS.length)] + " " + id);
+                            ps.setString(4, FIRST_NAMES[(int) (mix(id * 41) % FIRST_NAMES.length)] + " "
+                                    + LAST_NAMES[(int) (mix(id * 43) % LAST_NAMES.length)]);
+                            ps.setString(5, "Publisher " + (mix(id * 47) % 200));
+                            ps.setInt(6, 1900 + (int) (mix(id * 53) % 125));
+                            ps.setString(7, category);
+                            ps.setString(8, "A synthetic " + category + " title");
+                            ps.setInt(9, copies[i]);
+                            ps.setInt(10, copies[i]);
+                            ps.setBigDecimal(11, java.math.BigDecimal.valueOf(499 + mix(id * 59) % 4500, 2));
+                            ps.setString(12, "English");
+                            ps.setInt(13, 80 + (int) (mix(id * 61) % 900));
+                            ps.setString(14, "AVAILABLE");
+                            ps.setTimestamp(15, createdAt);
+                            ps.setTimestamp(16, createdAt);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    }));
+        }
+        logRate("books", bookCount, startTime);
+        return totalCopies;
+    }
+
+    // Users
+
+    private void generateUsers(LocalDateTime now) {
+        long startTime = System.currentTimeMillis();
+        // BCrypt is deliberately slow; every synthetic patron shares one hash
+        String patronHash = passwordEncoder.encode(userPassword);
+        Timestamp staffCreatedAt = Timestamp.valueOf(now.minusDays(historyDays));
+
+        inTransaction(() -> {
+            insertStaff(1, "admin", passwordEncoder.encode("admin123"), "admin@library.com",
+                    "Library", "Administrator", "ADMIN", staffCreatedAt);
+            insertStaff(2, "librarian", passwordEncoder.encode("librarian123"), "librarian@library.com",
+                    "John", "Librarian", "LIBRARIAN", staffCreatedAt);
+        });
+
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        for (int from = 3; from <= userCount; from += batchSize) {
+            int to = Math.min(userCount, from + batchSize - 1);
+            int first = from;
+            int size = to - from + 1;
+            Timestamp[] createdAt = new Timestamp[size];
+            boolean[] enabled = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                // Sign-ups accelerate over time: square root skews towards the recent end
+                double age = 1.0 - Math.sqrt(random.nextDouble());
+                createdAt[i] = Timestamp.valueOf(now.minusMinutes((long) (age * historyDays * 24 * 60)));
+                enabled[i] = random.nextDouble() >= 0.05;
+            }
+
+            inTransaction(() -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (id, username, password, email, first_name, last_name, phone_number, " +
+                    "address, role, enabled, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            long id = first + i;
+                            String username = "patron" + id;
+                            ps.setLong(1, id);
+                            ps.setString(2, username);
+                            ps.setString(3, patronHash);
+                            ps.setString(4, username + "@synthetic.library");
+                            ps.setString(5, FIRST_NAMES[(int) (mix(id * 67) % FIRST_NAMES.length)]);
+                            ps.setString(6, LAST_NAMES[(int) (mix(id * 71) % LAST_NAMES.length)]);
+                            ps.setString(7, String.format("555-%04d", id % 10000));
+                            ps.setString(8, (id % 9000 + 1) + " Synthetic Street");
+                            ps.setString(9, "USER");
+                            ps.setBoolean(10, enabled[i]);
+                            ps.setTimestamp(11, createdAt[i]);
+                            ps.setTimestamp(12, createdAt[i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    }));
+        }
+        logRate("users", userCount, startTime);
+    }
+
+    private void insertStaff(long id, String username, String passwordHash, String email, String firstName,
+                             String lastName, String role, Timestamp createdAt) {
+        jdbcTemplate.update(
+                "INSERT INTO users (id, username, password, email, first_name, last_name, phone_number, address, " +
+                "role, enabled, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, username, passwordHash, email, firstName, lastName, "555-0001", "1 Library Square",
+                role, true, createdAt, createdAt);
+    }
+
+    // Transactions
+
+    private int[] generateTransactions(LocalDateTime now, int[] totalCopies) {
+        long startTime = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        ZipfSampler bookSampler = new ZipfSampler(bookCount, bookZipfExponent);
+        ZipfSampler userSampler = new ZipfSampler(Math.max(1, userCount - 2), userZipfExponent);
+        SeasonalCalendar calendar = new SeasonalCalendar(now.toLocalDate(), historyDays);
+
+        int[] activeByBook = new int[bookCount + 1];
+        byte[] activeByUser = new byte[userCount + 1];
+        // (user, book) pairs with a loan still out; a patron cannot hold two copies of one title
+        LongIntCounter openLoans = new LongIntCounter(1 << 16);
+        TransactionBuffer buffer = new TransactionBuffer(batchSize);
+        long nextId = 1;
+
+        while (nextId <= transactionCount) {
+            long bookId = bookIdForRank(bookSampler.sample(random));
+            long userId = 3 + userSampler.sample(random);
+            int daysAgo = calendar.sampleDaysAgo(random);
+            LocalDateTime borrowedAt = now.minusDays(daysAgo)
+                    .withHour(9 + random.nextInt(11)).withMinute(random.nextInt(60)).withSecond(random.nextInt(60));
+            if (borrowedAt.isAfter(now)) {
+                borrowedAt = now.minusMinutes(1 + random.nextInt(60));
+            }
+            LocalDateTime dueDate = borrowedAt.plusDays(LOAN_DAYS);
+
+            boolean stillOut = daysAgo < LOAN_DAYS
+                    ? random.nextDouble() < 0.6
+                    : random.nextDouble() < overdueRatio;
+            long pair = userId * (bookCount + 1L) + bookId;
+            if (stillOut && (activeByBook[(int) bookId] >= totalCopies[(int) bookId]
+                    || activeByUser[(int) userId] >= MAX_ACTIVE_PER_USER
+                    || openLoans.containsKey(pair))) {
+                stillOut = false;
+            }
+
+            if (stillOut) {
+                activeByBook[(int) bookId]++;
+                activeByUser[(int) userId]++;
+                openLoans.increment(pair);
+                buffer.add(nextId++, userId, bookId, "BORROW", "ACTIVE", borrowedAt, dueDate, null, borrowedAt);
+            } else {
+                // Return delay is roughly exponential around ten days
+                long returnMinutes = 60 + (long) (-Math.log(1.0 - random.nextDouble()) * 10 * 24 * 60);
+                LocalDateTime returnedAt = borrowedAt.plusMinutes(returnMinutes);
+                if (returnedAt.isAfter(now)) {
+                    // Never before the borrow, which may itself fall within the last minute
+                    LocalDateTime latest = now.minusMinutes(1);
+                    returnedAt = borrowedAt.isAfter(latest) ? borrowedAt : latest;
+                }
+                buffer.add(nextId++, userId, bookId, "BORROW", "RETURNED", borrowedAt, dueDate, returnedAt, returnedAt);
+                if (nextId <= transactionCount) {
+                    buffer.add(nextId++, userId, bookId, "RETURN", "RETURNED", borrowedAt, dueDate, returnedAt,
+                            returnedAt);
+                }
+            }
+
+            if (buffer.size() >= batchSize) {
+                flush(buffer);
+            }
+        }
+        flush(buffer);
+        logRate("transactions", transactionCount, startTime);
+        return activeByBook;
+    }
+
+    private void flush(TransactionBuffer buffer) {
+        if (buffer.size() == 0) return;
+        inTransaction(() -> jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, user_id, book_id, type, status, borrowed_at, due_date, returned_at, " +
+                "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                buffer));
+        buffer.clear();
+    }
+
+    private void applyAvailability(int[] totalCopies, int[] activeByBook) {
+        long startTime = System.currentTimeMillis();
+        int[] ids = new int[batchSize];
+        int pending = 0;
+        long updated = 0;
+        for (int bookId = 1; bookId <= bookCount; bookId++) {
+            if (activeByBook[bookId] == 0) continue;
+            ids[pending++] = bookId;
+            if (pending == batchSize) {
+                updateAvailability(ids, pending, totalCopies, activeByBook);
+                updated += pending;
+                pending = 0;
+            }
+        }
+        updateAvailability(ids, pending, totalCopies, activeByBook);
+        updated += pending;
+        logRate("availability updates", updated, startTime);
+    }
+
+    private void updateAvailability(int[] ids, int size, int[] totalCopies, int[] activeByBook) {
+        if (size == 0) return;
+        inTransaction(() -> jdbcTemplate.batchUpdate(
+                "UPDATE books SET available_copies = ? WHERE id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int bookId = ids[i];
+                        ps.setInt(1, totalCopies[bookId] - activeByBook[bookId]);
+                        ps.setLong(2, bookId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                }));
+    }
+
+    private void restartSequences() {
+        jdbcTemplate.execute("ALTER SEQUENCE books_seq RESTART WITH " + (bookCount + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (userCount + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE transactions_seq RESTART WITH " + (transactionCount + 1));
+    }
+
+    // Helpers
+
+    private void inTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> work.run());
+    }
+
+    /**
+     * Spreads popularity ranks over the id space so the hottest titles are not simply
+     * the lowest ids. Uses a multiplier coprime with the book count, which makes the
+     * mapping a permutation.
+     */
+    private long bookIdForRank(int rank) {
+        return (rank * popularityStride) % bookCount + 1;
+    }
+
+    private int popularityRankOfBook(long bookId) {
+        return (int) (((bookId - 1) * popularityInverse) % bookCount);
+    }
+
+    private long computePopularityStride() {
+        long stride = 2_654_435_761L % Math.max(1, bookCount);
+        while (stride <= 1 || gcd(stride, bookCount) != 1) {
+            stride++;
+            if (bookCount <= 2) return 1;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static long modInverse(long a, long m) {
+        if (m == 1) return 0;
+        long m0 = m, x0 = 0, x1 = 1;
+        while (a > 1) {
+            long q = a / m;
+            long t = m;
+            m = a % m;
+            a = t;
+            t = x0;
+            x0 = x1 - q * x0;
+            x1 = t;
+        }
+        return x1 < 0 ? x1 + m0 : x1;
+    }
+
+    /** Cheap stateless hash so descriptive columns do not consume the random stream. */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+    }
+
+    private void logRate(String what, long rows, long startTime) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        logger.info("Generated {} {} in {} ms ({} rows/s)", rows, what, elapsed, rows * 1000 / elapsed);
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent
+     * by binary search over a precomputed cumulative distribution.
+     */
+    static class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        double probabilityOf(int rank) {
+            return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+        }
+    }
+
+    /**
+     * Borrow-date distribution over the history window: a yearly cycle peaking in
+     * late summer and around the winter holidays, plus busier weekends.
+     */
+    static class SeasonalCalendar {
+
+        private final double[] cumulative;
+
+        SeasonalCalendar(LocalDate today, int days) {
+            cumulative = new double[days];
+            double sum = 0;
+            for (int daysAgo = 0; daysAgo < days; daysAgo++) {
+                LocalDate date = today.minusDays(daysAgo);
+                double angle = 2 * Math.PI * date.getDayOfYear() / 365.0;
+                double weight = 1.0 + 0.25 * Math.sin(angle - Math.PI / 2) + 0.15 * Math.cos(2 * angle);
+                if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    weight *= 1.3;
+                }
+                sum += weight;
+                cumulative[daysAgo] = sum;
+            }
+            for (int i = 0; i < days; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sampleDaysAgo(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /** Column buffers for one JDBC batch of transaction rows. */
+    private static class TransactionBuffer implements BatchPreparedStatementSetter {
+
+        private final long[] ids;
+        private final long[] userIds;
+        private final long[] bookIds;
+        private final String[] types;
+        private final String[] statuses;
+        private final Timestamp[] borrowedAt;
+        private final Timestamp[] dueDates;
+        private final Timestamp[] returnedAt;
+        private final Timestamp[] updatedAt;
+        private int size;
+
+        TransactionBuffer(int capacity) {
+            // One extra slot: a returned borrow adds its RETURN row in the same step
+            int slots = capacity + 1;
+            ids = new long[slots];
+            userIds = new long[slots];
+            bookIds = new long[slots];
+            types = new String[slots];
+            statuses = new String[slots];
+            borrowedAt = new Timestamp[slots];
+            dueDates = new Timestamp[slots];
+            returnedAt = new Timestamp[slots];
+            updatedAt = new Timestamp[slots];
+        }
+
+        void add(long id, long userId, long bookId, String type, String status, LocalDateTime borrowed,
+                 LocalDateTime due, LocalDateTime returned, LocalDateTime updated) {
+            ids[size] = id;
+            userIds[size] = userId;
+            bookIds[size] = bookId;
+            types[size] = type;
+            statuses[size] = status;
+            borrowedAt[size] = Timestamp.valueOf(borrowed);
+            dueDates[size] = Timestamp.valueOf(due);
+            returnedAt[size] = returned == null ? null : Timestamp.valueOf(returned);
+            updatedAt[size] = Timestamp.valueOf(updated);
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            ps.setLong(1, ids[i]);
+            ps.setLong(2, userIds[i]);
+            ps.setLong(3, bookIds[i]);
+            ps.setString(4, types[i]);
+            ps.setString(5, statuses[i]);
+            ps.setTimestamp(6, borrowedAt[i]);
+            ps.setTimestamp(7, dueDates[i]);
+            if (returnedAt[i] == null) {
+                ps.setNull(8, Types.TIMESTAMP);
+            } else {
+                ps.setTimestamp(8, returnedAt[i]);
+            }
+            // RETURN rows are created when the book comes back, borrows when it goes out
+            ps.setTimestamp(9, "RETURN".equals(types[i]) ? returnedAt[i] : borrowedAt[i]);
+            ps.setTimestamp(10, updatedAt[i]);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return size;
+        }
+    }
+}
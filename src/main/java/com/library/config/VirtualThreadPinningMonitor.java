@@ -0,0 +1,127 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, typically because they
+ * block inside a {@code synchronized} block (the H2 JDBC driver uses many of them).
+ *
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process and publishes:
+ * - {@code library.virtualthreads.pinned}: number of pinning events
+ * - {@code library.virtualthreads.pinned.duration}: how long carriers stayed pinned
+ *
+ * The first occurrence of each distinct pinning site is logged with its stack trace.
+ * Only active in virtual-thread mode.
+ *
+ * Application code that can block while holding a lock (file or JDBC I/O) therefore uses
+ * {@link java.util.concurrent.locks.ReentrantLock} rather than {@code synchronized}, so pinning
+ * sites reported here should come from libraries.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Counter pinnedCounter;
+    private final Timer pinnedTimer;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${library.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${library.virtual-threads.max-reported-sites:50}")
+    private int maxReportedSites;
+
+    private volatile RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("library.virtualthreads.pinned")
+                .description("Number of times a virtual thread blocked while pinned to its carrier")
+                .register(meterRegistry);
+        this.pinnedTimer = Timer.builder("library.virtualthreads.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        recordingStream = stream;
+        logger.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recordingStream;
+        recordingStream = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        pinnedTimer.record(event.getDuration());
+
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) return;
+
+        String site = pinningSite(stackTrace.getFrames());
+        if (reportedSites.size() < maxReportedSites && reportedSites.add(site)) {
+            logger.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site,
+                    formatFrames(stackTrace.getFrames()));
+        }
+    }
+
+    /** The innermost application or driver frame, skipping JDK internals. */
+    private String pinningSite(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0).getMethod().getType().getName();
+    }
+
+    private String formatFrames(List<RecordedFrame> frames) {
+        StringBuilder sb = new StringBuilder();
+        int limit = Math.min(LOGGED_FRAMES, frames.size());
+        for (int i = 0; i < limit; i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append(System.lineSeparator()).append("    at ")
+                    .append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+}
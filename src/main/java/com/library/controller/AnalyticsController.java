@@ -1,16 +1,21 @@
 package com.library.controller;
 
 import com.library.dto.AnalyticsDashboardDto;
+import com.library.dto.BookCategoryAggregate;
+import com.library.dto.BookView;
 import com.library.service.AnalyticsService;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +25,8 @@ public class AnalyticsController {
     
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private AnalyticsService analyticsService;
     
@@ -172,6 +179,37 @@ public class AnalyticsController {
         }
     }
     
+    /**
+     * Get total and available copies per category
+     */
+    @GetMapping("/inventory/categories")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    @Timed(value = "analytics.inventory.categories", description = "Time taken to aggregate inventory by category")
+    public ResponseEntity<List<BookCategoryAggregate>> getCategoryInventory() {
+        return ResponseEntity.ok(analyticsService.getCategoryInventory());
+    }
+    
+    /**
+     * Get books with more than 80% of copies on loan, one page at a time
+     */
+    @GetMapping("/inventory/high-demand")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    @Timed(value = "analytics.inventory.high-demand", description = "Time taken to list high-demand books")
+    public ResponseEntity<?> getHighDemandBooks(@RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Page<BookView> books = analyticsService.getHighDemandBooks(PageRequest.of(page, size));
+        return ResponseEntity.ok(Map.of(
+            "content", books.getContent(),
+            "page", books.getNumber(),
+            "size", books.getSize(),
+            "totalElements", books.getTotalElements(),
+            "totalPages", books.getTotalPages()
+        ));
+    }
+    
     /**
      * Get system health metrics
      * In microservices, this would aggregate health from all services
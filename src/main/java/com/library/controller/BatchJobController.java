@@ -0,0 +1,35 @@
+package com.library.controller;
+
+import com.library.entity.BatchCheckpoint;
+import com.library.service.BatchJobRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/batch")
+@CrossOrigin(origins = "*")
+public class BatchJobController {
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> getJobs() {
+        List<BatchCheckpoint> checkpoints = batchJobRunner.getCheckpoints();
+        return ResponseEntity.ok(Map.of("jobs", batchJobRunner.getJobNames(), "checkpoints", checkpoints));
+    }
+
+    /** Runs a job now, on the request thread; resumes its last run if that did not finish. */
+    @PostMapping("/jobs/{name}/run")
+    public ResponseEntity<?> runJob(@PathVariable String name) {
+        try {
+            return ResponseEntity.ok(batchJobRunner.run(name));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
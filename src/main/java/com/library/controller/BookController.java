@@ -1,6 +1,7 @@
 package com.library.controller;
 
 import com.library.dto.BookDto;
+import com.library.dto.BookView;
 import com.library.entity.Book;
 import com.library.service.BookService;
 import com.opencsv.exceptions.CsvException;
@@ -23,32 +24,32 @@ public class BookController {
     private BookService bookService;
     
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = bookService.findAllBooks();
+    public ResponseEntity<List<BookView>> getAllBooks() {
+        List<BookView> books = bookService.findAllBooks();
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<Book>> getAvailableBooks() {
-        List<Book> books = bookService.findAvailableBooks();
+    public ResponseEntity<List<BookView>> getAvailableBooks() {
+        List<BookView> books = bookService.findAvailableBooks();
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String searchTerm) {
-        List<Book> books = bookService.searchBooks(searchTerm);
+    public ResponseEntity<List<BookView>> searchBooks(@RequestParam String searchTerm) {
+        List<BookView> books = bookService.searchBooks(searchTerm);
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Book>> getBooksByCategory(@PathVariable String category) {
-        List<Book> books = bookService.findBooksByCategory(category);
+    public ResponseEntity<List<BookView>> getBooksByCategory(@PathVariable String category) {
+        List<BookView> books = bookService.findBooksByCategory(category);
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/author/{author}")
-    public ResponseEntity<List<Book>> getBooksByAuthor(@PathVariable String author) {
-        List<Book> books = bookService.findBooksByAuthor(author);
+    public ResponseEntity<List<BookView>> getBooksByAuthor(@PathVariable String author) {
+        List<BookView> books = bookService.findBooksByAuthor(author);
         return ResponseEntity.ok(books);
     }
     
@@ -71,14 +72,14 @@ public class BookController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookView> getBookById(@PathVariable Long id) {
         return bookService.findById(id)
                 .map(book -> ResponseEntity.ok().body(book))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<BookView> getBookByIsbn(@PathVariable String isbn) {
         return bookService.findByIsbn(isbn)
                 .map(book -> ResponseEntity.ok().body(book))
                 .orElse(ResponseEntity.notFound().build());
@@ -89,7 +90,7 @@ public class BookController {
     public ResponseEntity<?> createBook(@Valid @RequestBody BookDto bookDto) {
         try {
             Book book = bookService.createBook(bookDto);
-            return ResponseEntity.ok(book);
+            return ResponseEntity.ok(BookView.from(book));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -124,7 +125,7 @@ public class BookController {
     public ResponseEntity<?> updateBook(@PathVariable Long id, @Valid @RequestBody BookDto bookDto) {
         try {
             Book book = bookService.updateBook(id, bookDto);
-            return ResponseEntity.ok(book);
+            return ResponseEntity.ok(BookView.from(book));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -137,7 +138,7 @@ public class BookController {
                                            @RequestParam Integer availableCopies) {
         try {
             Book book = bookService.updateInventory(id, totalCopies, availableCopies);
-            return ResponseEntity.ok(book);
+            return ResponseEntity.ok(BookView.from(book));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -156,15 +157,15 @@ public class BookController {
     
     @GetMapping("/low-stock")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Book>> getLowStockBooks(@RequestParam(defaultValue = "5") Integer threshold) {
-        List<Book> books = bookService.getLowStockBooks(threshold);
+    public ResponseEntity<List<BookView>> getLowStockBooks(@RequestParam(defaultValue = "5") Integer threshold) {
+        List<BookView> books = bookService.getLowStockBooks(threshold);
         return ResponseEntity.ok(books);
     }
     
     @GetMapping("/out-of-stock")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Book>> getOutOfStockBooks() {
-        List<Book> books = bookService.getOutOfStockBooks();
+    public ResponseEntity<List<BookView>> getOutOfStockBooks() {
+        List<BookView> books = bookService.getOutOfStockBooks();
         return ResponseEntity.ok(books);
     }
 }
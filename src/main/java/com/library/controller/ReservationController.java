@@ -0,0 +1,113 @@
+package com.library.controller;
+
+import com.library.dto.ReservationDto;
+import com.library.entity.User;
+import com.library.service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/reservations")
+@CrossOrigin(origins = "*")
+public class ReservationController {
+
+    private static final long MAX_WAIT_SECONDS = 120;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Value("${library.reservations.subscription-timeout:30m}")
+    private Duration subscriptionTimeout;
+
+    @PostMapping
+    public ResponseEntity<?> reserveBook(@RequestParam Long bookId) {
+        try {
+            return ResponseEntity.ok(reservationService.reserve(currentUser().getId(), bookId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/my")
+    public ResponseEntity<List<ReservationDto>> getMyReservations() {
+        return ResponseEntity.ok(reservationService.getOpenReservations(currentUser().getId()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getReservation(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reservationService.getReservation(id, ownerFilter()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Long poll: answers as soon as the reservation stops waiting (its copy is ready, or it
+     * was cancelled), or with its current place in the queue after {@code timeoutSeconds}.
+     */
+    @GetMapping("/{id}/await")
+    public DeferredResult<ResponseEntity<?>> awaitReservation(@PathVariable Long id,
+                                                              @RequestParam(defaultValue = "30") long timeoutSeconds) {
+        Long userId = ownerFilter();
+        long timeout = TimeUnit.SECONDS.toMillis(Math.max(1, Math.min(timeoutSeconds, MAX_WAIT_SECONDS)));
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout);
+        result.onTimeout(() -> result.setResult(ResponseEntity.ok(reservationService.getReservation(id, userId))));
+        try {
+            reservationService.awaitReady(id, userId)
+                    .thenAccept(reservation -> result.setResult(ResponseEntity.ok(reservation)));
+        } catch (RuntimeException e) {
+            result.setResult(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+        return result;
+    }
+
+    /** Server-sent events: a {@code reservation} event each time one of the user's holds becomes ready or closes. */
+    @GetMapping(path = "/events", produces = "text/event-stream")
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(subscriptionTimeout.toMillis());
+        Runnable unsubscribe = reservationService.subscribe(currentUser().getId(), reservation -> {
+            try {
+                emitter.send(SseEmitter.event().name("reservation").data(reservation));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelReservation(@PathVariable Long id) {
+        try {
+            reservationService.cancelReservation(id, ownerFilter());
+            return ResponseEntity.ok().body("Reservation cancelled successfully");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    /** Patrons only see their own reservations; staff see everyone's. */
+    private Long ownerFilter() {
+        User user = currentUser();
+        return user.getRole() == User.Role.USER ? user.getId() : null;
+    }
+}
@@ -1,10 +1,15 @@
 package com.library.controller;
 
+import com.library.dto.CirculationRequestDto;
+import com.library.dto.CirculationResultDto;
+import com.library.dto.TransactionView;
 import com.library.entity.Transaction;
 import com.library.entity.User;
 import com.library.service.TransactionService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -29,7 +34,7 @@ public class TransactionController {
             User currentUser = (User) authentication.getPrincipal();
             
             Transaction transaction = transactionService.borrowBook(currentUser.getId(), bookId);
-            return ResponseEntity.ok(transaction);
+            return ResponseEntity.ok(TransactionView.from(transaction));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -42,35 +47,58 @@ public class TransactionController {
             User currentUser = (User) authentication.getPrincipal();
             
             Transaction transaction = transactionService.returnBook(currentUser.getId(), bookId);
-            return ResponseEntity.ok(transaction);
+            return ResponseEntity.ok(TransactionView.from(transaction));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Batch circulation for desks and self-checkout kiosks: borrow, return or renew many books
+     * for one user with a per-book result. Staff may act for another user via {@code userId}.
+     */
+    @PostMapping("/circulation")
+    public ResponseEntity<?> circulate(@Valid @RequestBody CirculationRequestDto request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User currentUser = (User) authentication.getPrincipal();
+            
+            Long userId = request.getUserId() != null ? request.getUserId() : currentUser.getId();
+            if (!userId.equals(currentUser.getId()) && currentUser.getRole() == User.Role.USER) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("Only staff can process circulation for another user");
+            }
+            
+            CirculationResultDto result = transactionService.circulate(userId, request);
+            return ResponseEntity.ok(result);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
     @GetMapping("/my-history")
-    public ResponseEntity<List<Transaction>> getMyTransactionHistory() {
+    public ResponseEntity<List<TransactionView>> getMyTransactionHistory() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) authentication.getPrincipal();
         
-        List<Transaction> transactions = transactionService.getUserTransactionHistory(currentUser.getId());
+        List<TransactionView> transactions = transactionService.getUserTransactionHistory(currentUser.getId());
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/my-active")
-    public ResponseEntity<List<Transaction>> getMyActiveTransactions() {
+    public ResponseEntity<List<TransactionView>> getMyActiveTransactions() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) authentication.getPrincipal();
         
-        List<Transaction> transactions = transactionService.getActiveTransactionsByUser(currentUser.getId());
+        List<TransactionView> transactions = transactionService.getActiveTransactionsByUser(currentUser.getId());
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getUserTransactionHistory(@PathVariable Long userId) {
+    public ResponseEntity<List<TransactionView>> getUserTransactionHistory(@PathVariable Long userId) {
         try {
-            List<Transaction> transactions = transactionService.getUserTransactionHistory(userId);
+            List<TransactionView> transactions = transactionService.getUserTransactionHistory(userId);
             return ResponseEntity.ok(transactions);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -79,9 +107,9 @@ public class TransactionController {
     
     @GetMapping("/user/{userId}/active")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getUserActiveTransactions(@PathVariable Long userId) {
+    public ResponseEntity<List<TransactionView>> getUserActiveTransactions(@PathVariable Long userId) {
         try {
-            List<Transaction> transactions = transactionService.getActiveTransactionsByUser(userId);
+            List<TransactionView> transactions = transactionService.getActiveTransactionsByUser(userId);
             return ResponseEntity.ok(transactions);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -90,9 +118,9 @@ public class TransactionController {
     
     @GetMapping("/book/{bookId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getBookTransactionHistory(@PathVariable Long bookId) {
+    public ResponseEntity<List<TransactionView>> getBookTransactionHistory(@PathVariable Long bookId) {
         try {
-            List<Transaction> transactions = transactionService.getBookTransactionHistory(bookId);
+            List<TransactionView> transactions = transactionService.getBookTransactionHistory(bookId);
             return ResponseEntity.ok(transactions);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -101,30 +129,30 @@ public class TransactionController {
     
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
+    public ResponseEntity<List<TransactionView>> getAllTransactions() {
+        List<TransactionView> transactions = transactionService.getAllTransactions();
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/overdue")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getOverdueTransactions() {
-        List<Transaction> transactions = transactionService.getOverdueTransactions();
+    public ResponseEntity<List<TransactionView>> getOverdueTransactions() {
+        List<TransactionView> transactions = transactionService.getOverdueTransactions();
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getTransactionsByDateRange(
+    public ResponseEntity<List<TransactionView>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Transaction> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
+        List<TransactionView> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id) {
+    public ResponseEntity<TransactionView> getTransactionById(@PathVariable Long id) {
         return transactionService.findById(id)
                 .map(transaction -> ResponseEntity.ok().body(transaction))
                 .orElse(ResponseEntity.notFound().build());
@@ -134,7 +162,7 @@ public class TransactionController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<?> updateTransaction(@PathVariable Long id, @RequestBody Transaction updatedTransaction) {
         try {
-            Transaction transaction = transactionService.updateTransaction(id, updatedTransaction);
+            TransactionView transaction = transactionService.updateTransaction(id, updatedTransaction);
             return ResponseEntity.ok(transaction);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,5 +1,6 @@
 package com.library.controller;
 
+import com.library.dto.UserView;
 import com.library.entity.User;
 import com.library.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +21,7 @@ public class UserController {
     private UserService userService;
     
     @GetMapping("/profile")
-    public ResponseEntity<User> getCurrentUserProfile() {
+    public ResponseEntity<UserView> getCurrentUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) authentication.getPrincipal();
         
@@ -36,7 +37,7 @@ public class UserController {
             User currentUser = (User) authentication.getPrincipal();
             
             User user = userService.updateUser(currentUser.getId(), updatedUser);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserView.from(user));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -44,21 +45,21 @@ public class UserController {
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.findAllUsers();
+    public ResponseEntity<List<UserView>> getAllUsers() {
+        List<UserView> users = userService.findAllUsers();
         return ResponseEntity.ok(users);
     }
     
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String searchTerm) {
-        List<User> users = userService.searchUsers(searchTerm);
+    public ResponseEntity<List<UserView>> searchUsers(@RequestParam String searchTerm) {
+        List<UserView> users = userService.searchUsers(searchTerm);
         return ResponseEntity.ok(users);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserView> getUserById(@PathVariable Long id) {
         return userService.findById(id)
                 .map(user -> ResponseEntity.ok().body(user))
                 .orElse(ResponseEntity.notFound().build());
@@ -69,7 +70,7 @@ public class UserController {
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
         try {
             User user = userService.updateUser(id, updatedUser);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserView.from(user));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -80,7 +81,7 @@ public class UserController {
     public ResponseEntity<?> updateUserRole(@PathVariable Long id, @RequestParam User.Role role) {
         try {
             User user = userService.updateUserRole(id, role);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserView.from(user));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,79 @@
+package com.library.dto;
+
+import com.library.entity.BatchCheckpoint;
+
+/** Outcome of one invocation of a batch job; totals cover the whole run, including resumed work. */
+public class BatchJobResultDto {
+
+    private String jobName;
+    private long runId;
+    private BatchCheckpoint.Status status;
+    private boolean resumed;
+    private long startedAfterId;
+    private long lastId;
+    private long itemsRead;
+    private long itemsWritten;
+    private long itemsFiltered;
+    private int chunks;
+    private long elapsedMs;
+    private double itemsPerSecond;
+    private String error;
+
+    public BatchJobResultDto() {}
+
+    public BatchJobResultDto(BatchCheckpoint checkpoint, boolean resumed, long startedAfterId,
+                             int chunks, long itemsThisInvocation, long elapsedMs) {
+        this.jobName = checkpoint.getJobName();
+        this.runId = checkpoint.getRunId();
+        this.status = checkpoint.getStatus();
+        this.resumed = resumed;
+        this.startedAfterId = startedAfterId;
+        this.lastId = checkpoint.getLastId();
+        this.itemsRead = checkpoint.getItemsRead();
+        this.itemsWritten = checkpoint.getItemsWritten();
+        this.itemsFiltered = checkpoint.getItemsFiltered();
+        this.chunks = chunks;
+        this.elapsedMs = elapsedMs;
+        this.itemsPerSecond = elapsedMs > 0 ? itemsThisInvocation * 1000.0 / elapsedMs : itemsThisInvocation;
+        this.error = checkpoint.getLastError();
+    }
+
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public long getRunId() { return runId; }
+    public void setRunId(long runId) { this.runId = runId; }
+
+    public BatchCheckpoint.Status getStatus() { return status; }
+    public void setStatus(BatchCheckpoint.Status status) { this.status = status; }
+
+    public boolean isResumed() { return resumed; }
+    public void setResumed(boolean resumed) { this.resumed = resumed; }
+
+    public long getStartedAfterId() { return startedAfterId; }
+    public void setStartedAfterId(long startedAfterId) { this.startedAfterId = startedAfterId; }
+
+    public long getLastId() { return lastId; }
+    public void setLastId(long lastId) { this.lastId = lastId; }
+
+    public long getItemsRead() { return itemsRead; }
+    public void setItemsRead(long itemsRead) { this.itemsRead = itemsRead; }
+
+    public long getItemsWritten() { return itemsWritten; }
+    public void setItemsWritten(long itemsWritten) { this.itemsWritten = itemsWritten; }
+
+    public long getItemsFiltered() { return itemsFiltered; }
+    public void setItemsFiltered(long itemsFiltered) { this.itemsFiltered = itemsFiltered; }
+
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public double getItemsPerSecond() { return itemsPerSecond; }
+    public void setItemsPerSecond(double itemsPerSecond) { this.itemsPerSecond = itemsPerSecond; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
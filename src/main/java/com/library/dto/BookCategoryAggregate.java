@@ -0,0 +1,14 @@
+package com.library.dto;
+
+/**
+ * Book and inventory KPIs for one category, from a single grouped scan of {@code books} with
+ * conditional counts and sums (see {@code BookRepository.aggregateByCategory}). Catalogue
+ * totals are the sum over categories.
+ */
+public record BookCategoryAggregate(
+        String category,
+        long books,
+        long availableBooks,
+        long totalCopies,
+        long availableCopies) {
+}
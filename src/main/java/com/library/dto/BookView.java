@@ -0,0 +1,37 @@
+package com.library.dto;
+
+import com.library.entity.Book;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a book for API responses. List and detail endpoints select it directly with a
+ * constructor expression (see {@code BookRepository.BOOK_VIEW}), so no entity is loaded.
+ */
+public record BookView(
+        Long id,
+        String isbn,
+        String title,
+        String author,
+        String publisher,
+        Integer publicationYear,
+        String category,
+        String description,
+        Integer totalCopies,
+        Integer availableCopies,
+        BigDecimal price,
+        String language,
+        Integer pages,
+        Book.BookStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /** For responses to writes, which already hold the entity. */
+    public static BookView from(Book book) {
+        return new BookView(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                book.getPublicationYear(), book.getCategory(), book.getDescription(), book.getTotalCopies(),
+                book.getAvailableCopies(), book.getPrice(), book.getLanguage(), book.getPages(), book.getStatus(),
+                book.getCreatedAt(), book.getUpdatedAt());
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stack of books scanned at a circulation desk or kiosk. Books can be given by id, by ISBN or
+ * both; {@code userId} defaults to the authenticated user and may only differ for staff.
+ */
+public class CirculationRequestDto {
+    
+    public enum Action {
+        BORROW, RETURN, RENEW
+    }
+    
+    @NotNull(message = "Action is required")
+    private Action action;
+    
+    private Long userId;
+    
+    @Size(max = 50, message = "At most 50 book ids per request")
+    private List<Long> bookIds = new ArrayList<>();
+    
+    @Size(max = 50, message = "At most 50 ISBNs per request")
+    private List<String> isbns = new ArrayList<>();
+    
+    // Constructors
+    public CirculationRequestDto() {}
+    
+    public CirculationRequestDto(Action action, Long userId, List<Long> bookIds, List<String> isbns) {
+        this.action = action;
+        this.userId = userId;
+        this.bookIds = bookIds;
+        this.isbns = isbns;
+    }
+    
+    // Getters and Setters
+    public Action getAction() {
+        return action;
+    }
+    
+    public void setAction(Action action) {
+        this.action = action;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+    
+    public void setBookIds(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+    
+    public List<String> getIsbns() {
+        return isbns;
+    }
+    
+    public void setIsbns(List<String> isbns) {
+        this.isbns = isbns;
+    }
+}
@@ -0,0 +1,96 @@
+package com.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Per-book outcome of a circulation request, in the order the books were given. */
+public class CirculationResultDto {
+    
+    private Long userId;
+    private CirculationRequestDto.Action action;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> items;
+    
+    public CirculationResultDto() {}
+    
+    public CirculationResultDto(Long userId, CirculationRequestDto.Action action, List<ItemResult> items) {
+        this.userId = userId;
+        this.action = action;
+        this.items = items;
+        for (ItemResult item : items) {
+            if (item.isSuccess()) succeeded++; else failed++;
+        }
+    }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public CirculationRequestDto.Action getAction() { return action; }
+    public void setAction(CirculationRequestDto.Action action) { this.action = action; }
+    
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+    
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    
+    public List<ItemResult> getItems() { return items; }
+    public void setItems(List<ItemResult> items) { this.items = items; }
+    
+    public static class ItemResult {
+        private Long bookId;
+        private String isbn;
+        private String title;
+        private boolean success;
+        private Long transactionId;
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        private LocalDateTime dueDate;
+        private String message;
+        
+        public ItemResult() {}
+        
+        public static ItemResult success(Long bookId, String isbn, String title, Long transactionId,
+                                         LocalDateTime dueDate) {
+            ItemResult result = new ItemResult();
+            result.bookId = bookId;
+            result.isbn = isbn;
+            result.title = title;
+            result.success = true;
+            result.transactionId = transactionId;
+            result.dueDate = dueDate;
+            return result;
+        }
+        
+        public static ItemResult failure(Long bookId, String isbn, String message) {
+            ItemResult result = new ItemResult();
+            result.bookId = bookId;
+            result.isbn = isbn;
+            result.message = message;
+            return result;
+        }
+        
+        public Long getBookId() { return bookId; }
+        public void setBookId(Long bookId) { this.bookId = bookId; }
+        
+        public String getIsbn() { return isbn; }
+        public void setIsbn(String isbn) { this.isbn = isbn; }
+        
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        
+        public Long getTransactionId() { return transactionId; }
+        public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+        
+        public LocalDateTime getDueDate() { return dueDate; }
+        public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+        
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
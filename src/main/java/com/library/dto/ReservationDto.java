@@ -0,0 +1,74 @@
+package com.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.library.entity.Transaction;
+import com.library.service.ReservationWaitlist;
+
+import java.time.LocalDateTime;
+
+/** A patron's reservation: its place in the book's queue, or until when a copy is held. */
+public class ReservationDto {
+
+    private Long id;
+    private Long userId;
+    private Long bookId;
+    private String title;
+    private Transaction.TransactionStatus status;
+    private int position;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reservedAt;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime pickupBy;
+
+    public ReservationDto() {}
+
+    public static ReservationDto from(ReservationWaitlist.Hold hold, int position) {
+        ReservationDto dto = new ReservationDto();
+        dto.id = hold.getId();
+        dto.userId = hold.getUserId();
+        dto.bookId = hold.getBookId();
+        dto.status = hold.getStatus();
+        dto.position = position;
+        dto.reservedAt = hold.getReservedAt();
+        dto.pickupBy = hold.getPickupBy();
+        return dto;
+    }
+
+    /** Built from the stored reservation; expects its book to be loaded. */
+    public static ReservationDto from(Transaction reservation, int position) {
+        ReservationDto dto = new ReservationDto();
+        dto.id = reservation.getId();
+        dto.userId = reservation.getUser().getId();
+        dto.bookId = reservation.getBook().getId();
+        dto.title = reservation.getBook().getTitle();
+        dto.status = reservation.getStatus();
+        dto.position = position;
+        dto.reservedAt = reservation.getCreatedAt();
+        dto.pickupBy = reservation.getStatus() == Transaction.TransactionStatus.READY ? reservation.getDueDate() : null;
+        return dto;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Transaction.TransactionStatus getStatus() { return status; }
+    public void setStatus(Transaction.TransactionStatus status) { this.status = status; }
+
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+
+    public LocalDateTime getReservedAt() { return reservedAt; }
+    public void setReservedAt(LocalDateTime reservedAt) { this.reservedAt = reservedAt; }
+
+    public LocalDateTime getPickupBy() { return pickupBy; }
+    public void setPickupBy(LocalDateTime pickupBy) { this.pickupBy = pickupBy; }
+}
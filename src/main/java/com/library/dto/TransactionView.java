@@ -0,0 +1,39 @@
+package com.library.dto;
+
+import com.library.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a loan or reservation for API responses, with the few user and book columns
+ * the clients show. Selected with its joins in one query by
+ * {@code TransactionRepository.TRANSACTION_VIEW}.
+ */
+public record TransactionView(
+        Long id,
+        Long userId,
+        String username,
+        Long bookId,
+        String bookTitle,
+        String bookIsbn,
+        Transaction.TransactionType type,
+        Transaction.TransactionStatus status,
+        LocalDateTime borrowedAt,
+        LocalDateTime dueDate,
+        LocalDateTime returnedAt,
+        BigDecimal fineAmount,
+        String notes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /** For responses to writes; expects the transaction's user and book to be loaded. */
+    public static TransactionView from(Transaction transaction) {
+        return new TransactionView(transaction.getId(), transaction.getUser().getId(),
+                transaction.getUser().getUsername(), transaction.getBook().getId(), transaction.getBook().getTitle(),
+                transaction.getBook().getIsbn(), transaction.getType(), transaction.getStatus(),
+                transaction.getBorrowedAt(), transaction.getDueDate(), transaction.getReturnedAt(),
+                transaction.getFineAmount(), transaction.getNotes(), transaction.getCreatedAt(),
+                transaction.getUpdatedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package com.library.dto;
+
+import com.library.entity.User;
+
+/**
+ * User KPIs for one role, from a single grouped scan of {@code users} with conditional counts
+ * (see {@code UserRepository.aggregateByRole}). Dashboard totals are the sum over roles.
+ */
+public record UserRoleAggregate(
+        User.Role role,
+        long users,
+        long activeUsers,
+        long newThisMonth,
+        long newLastMonth) {
+}
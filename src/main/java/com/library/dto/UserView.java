@@ -0,0 +1,30 @@
+package com.library.dto;
+
+import com.library.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a user for API responses; unlike the entity it carries no password hash or
+ * security flags. Selected directly by {@code UserRepository.USER_VIEW} queries.
+ */
+public record UserView(
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        String phoneNumber,
+        String address,
+        User.Role role,
+        boolean enabled,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /** For responses to writes, which already hold the entity. */
+    public static UserView from(User user) {
+        return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPhoneNumber(), user.getAddress(), user.getRole(), user.isEnabled(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,115 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a batch job's current (or last) run: the highest transaction id whose chunk
+ * has been committed, and running totals. Saved in the same transaction as each chunk's
+ * writes, so a restarted run resumes right after the last committed chunk.
+ */
+@Entity
+@Table(name = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "run_id")
+    private long runId;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "last_id")
+    private long lastId;
+
+    @Column(name = "items_read")
+    private long itemsRead;
+
+    @Column(name = "items_written")
+    private long itemsWritten;
+
+    @Column(name = "items_filtered")
+    private long itemsFiltered;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public BatchCheckpoint() {}
+
+    public BatchCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /** Whether the last run stopped part-way and should be resumed rather than started over. */
+    public boolean isResumable() {
+        return status == Status.RUNNING || status == Status.FAILED;
+    }
+
+    /** Starts a new run from the first id. */
+    public void startRun() {
+        runId++;
+        status = Status.RUNNING;
+        lastId = 0;
+        itemsRead = 0;
+        itemsWritten = 0;
+        itemsFiltered = 0;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+    }
+
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public long getRunId() { return runId; }
+    public void setRunId(long runId) { this.runId = runId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public long getLastId() { return lastId; }
+    public void setLastId(long lastId) { this.lastId = lastId; }
+
+    public long getItemsRead() { return itemsRead; }
+    public void setItemsRead(long itemsRead) { this.itemsRead = itemsRead; }
+
+    public long getItemsWritten() { return itemsWritten; }
+    public void setItemsWritten(long itemsWritten) { this.itemsWritten = itemsWritten; }
+
+    public long getItemsFiltered() { return itemsFiltered; }
+    public void setItemsFiltered(long itemsFiltered) { this.itemsFiltered = itemsFiltered; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
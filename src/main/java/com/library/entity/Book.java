@@ -10,11 +10,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "books")
+// Covers the per-category inventory aggregate, which then reads no table rows
+@Table(name = "books", indexes = @Index(name = "idx_books_category_copies",
+        columnList = "category, total_copies, available_copies"))
 public class Book {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "ISBN is required")
@@ -62,6 +65,9 @@ public class Book {
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transaction> transactions;
     
+    @Version
+    private Long version;
+    
     public enum BookStatus {
         AVAILABLE, OUT_OF_STOCK, DISCONTINUED
     }
@@ -92,7 +98,7 @@ public class Book {
         this.availableCopies = totalCopies;
     }
     
-    // Business methods
+    // Business methods (BookRepository.tryBorrowCopy/tryReturnCopy apply the same rules in SQL)
     public boolean isAvailable() {
         return availableCopies > 0 && status == BookStatus.AVAILABLE;
     }
@@ -245,4 +251,12 @@ public class Book {
     public void setTransactions(List<Transaction> transactions) {
         this.transactions = transactions;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
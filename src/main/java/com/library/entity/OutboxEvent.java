@@ -0,0 +1,89 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A domain event written in the same transaction as the change it describes, and delivered
+ * to in-process subscribers by the outbox relay once that transaction has committed.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_pending", columnList = "published_at, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 32, nullable = false)
+    private Type type;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    // Items covered by the event, e.g. books in a CSV import
+    private int quantity = 1;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    private int attempts;
+
+    public enum Type {
+        BOOK_BORROWED, BOOK_RETURNED, BOOK_CREATED, BOOKS_IMPORTED, USER_REGISTERED,
+        // The book or user was deleted, together with its transactions
+        BOOK_DELETED, USER_DELETED
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(Type type, Long userId, Long bookId, Long transactionId) {
+        this.type = type;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.transactionId = transactionId;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
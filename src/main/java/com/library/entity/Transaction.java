@@ -1,14 +1,16 @@
 package com.library.entity;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_updated_at", columnList = "updated_at"))
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,12 +44,21 @@ public class Transaction {
     
     private String notes;
     
+    // Accrued late fee, recomputed by the nightly fine-accrual job while the loan is open
+    @Column(name = "fine_amount", precision = 10, scale = 2)
+    private BigDecimal fineAmount;
+    
+    @Version
+    private Long version;
+    
     public enum TransactionType {
         BORROW, RETURN, RESERVE
     }
     
     public enum TransactionStatus {
-        ACTIVE, COMPLETED, OVERDUE, CANCELLED, RETURNED
+        ACTIVE, COMPLETED, OVERDUE, CANCELLED, RETURNED,
+        // Reservations: queued for a copy, then holding one until pickup
+        WAITING, READY
     }
     
     @PrePersist
@@ -61,6 +72,8 @@ public class Transaction {
         updatedAt = LocalDateTime.now();
     }
     
+    public static final int LOAN_PERIOD_DAYS = 14;
+    
     // Constructors
     public Transaction() {}
     
@@ -70,13 +83,19 @@ public class Transaction {
         this.type = type;
         if (type == TransactionType.BORROW) {
             this.borrowedAt = LocalDateTime.now();
-            this.dueDate = LocalDateTime.now().plusDays(14); // 2 weeks borrowing period
+            this.dueDate = LocalDateTime.now().plusDays(LOAN_PERIOD_DAYS); // 2 weeks borrowing period
         }
     }
     
     // Business methods
     public boolean isOverdue() {
-        return dueDate != null && LocalDateTime.now().isAfter(dueDate) && status == TransactionStatus.ACTIVE;
+        return status == TransactionStatus.OVERDUE
+                || (dueDate != null && LocalDateTime.now().isAfter(dueDate) && status == TransactionStatus.ACTIVE);
+    }
+    
+    /** A loan still out: ACTIVE, or OVERDUE once its due date has passed. */
+    public boolean isOpenLoan() {
+        return status == TransactionStatus.ACTIVE || status == TransactionStatus.OVERDUE;
     }
     
     public void markAsReturned() {
@@ -172,4 +191,20 @@ public class Transaction {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+    
+    public BigDecimal getFineAmount() {
+        return fineAmount;
+    }
+    
+    public void setFineAmount(BigDecimal fineAmount) {
+        this.fineAmount = fineAmount;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -1,19 +1,69 @@
 package com.library.repository;
 
+import com.library.dto.BookCategoryAggregate;
+import com.library.dto.BookView;
 import com.library.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     
+    // Read models for the API: selected straight into BookView, one query per response
+    String BOOK_VIEW = "SELECT new com.library.dto.BookView(b.id, b.isbn, b.title, b.author, b.publisher, " +
+                       "b.publicationYear, b.category, b.description, b.totalCopies, b.availableCopies, b.price, " +
+                       "b.language, b.pages, b.status, b.createdAt, b.updatedAt) FROM Book b ";
+    
+    @Query(BOOK_VIEW)
+    List<BookView> findAllViews();
+    
+    @Query(BOOK_VIEW + "WHERE b.id = :id")
+    Optional<BookView> findViewById(@Param("id") Long id);
+    
+    @Query(BOOK_VIEW + "WHERE b.isbn = :isbn")
+    Optional<BookView> findViewByIsbn(@Param("isbn") String isbn);
+    
+    @Query(BOOK_VIEW + "WHERE b.availableCopies > 0 AND b.status = 'AVAILABLE'")
+    List<BookView> findAvailableViews();
+    
+    @Query(BOOK_VIEW + "WHERE " +
+           "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(b.isbn) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(b.category) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(b.publisher) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    List<BookView> searchViews(@Param("searchTerm") String searchTerm);
+    
+    @Query(BOOK_VIEW + "WHERE b.category = :category")
+    List<BookView> findViewsByCategory(@Param("category") String category);
+    
+    @Query(BOOK_VIEW + "WHERE b.author = :author")
+    List<BookView> findViewsByAuthor(@Param("author") String author);
+    
+    @Query(BOOK_VIEW + "WHERE b.availableCopies <= :threshold")
+    List<BookView> findLowStockViews(@Param("threshold") Integer threshold);
+    
+    @Query(BOOK_VIEW + "WHERE b.availableCopies = 0")
+    List<BookView> findOutOfStockViews();
+    
     Optional<Book> findByIsbn(String isbn);
     
+    List<Book> findByIsbnIn(Collection<String> isbns);
+    
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
     List<Book> findByCategory(String category);
     
     List<Book> findByAuthor(String author);
@@ -25,14 +75,6 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0 AND b.status = 'AVAILABLE'")
     List<Book> findAvailableBooks();
     
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.isbn) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.category) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.publisher) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Book> searchBooks(@Param("searchTerm") String searchTerm);
-    
     @Query("SELECT DISTINCT b.category FROM Book b ORDER BY b.category")
     List<String> findAllCategories();
     
@@ -42,12 +84,6 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT DISTINCT b.publisher FROM Book b ORDER BY b.publisher")
     List<String> findAllPublishers();
     
-    @Query("SELECT b FROM Book b WHERE b.availableCopies = 0")
-    List<Book> findOutOfStockBooks();
-    
-    @Query("SELECT b FROM Book b WHERE b.availableCopies <= :threshold")
-    List<Book> findLowStockBooks(@Param("threshold") Integer threshold);
-    
     // Analytics support methods
     @Query("SELECT COUNT(b) FROM Book b WHERE b.availableCopies > :minCopies")
     long countByAvailableCopiesGreaterThan(@Param("minCopies") int minCopies);
@@ -62,4 +98,37 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<java.util.Map<String, Object>> getBookCountByCategory();
     
     List<Book> findByAvailableCopiesLessThan(int threshold);
+    
+    // Every book and inventory KPI of the dashboard in one pass over books
+    @Query("SELECT new com.library.dto.BookCategoryAggregate(b.category, COUNT(b), " +
+           "SUM(CASE WHEN b.availableCopies > 0 THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(b.totalCopies), 0), COALESCE(SUM(b.availableCopies), 0)) " +
+           "FROM Book b GROUP BY b.category")
+    List<BookCategoryAggregate> aggregateByCategory();
+    
+    // More than 80% of copies on loan: available * 5 < total, kept in integers
+    String HIGH_DEMAND = "WHERE b.totalCopies > 0 AND b.availableCopies * 5 < b.totalCopies ";
+    
+    @Query(value = BOOK_VIEW + HIGH_DEMAND + "ORDER BY b.availableCopies * 1.0 / b.totalCopies, b.id",
+           countQuery = "SELECT COUNT(b) FROM Book b " + HIGH_DEMAND)
+    Page<BookView> findHighDemandViews(Pageable pageable);
+    
+    @Query("SELECT b.title FROM Book b " + HIGH_DEMAND + "ORDER BY b.availableCopies * 1.0 / b.totalCopies, b.id")
+    List<String> findHighDemandTitles(Pageable pageable);
+    
+    // Inventory updates: single conditional statements, the affected-row count decides success.
+    // The conditions mirror Book.isAvailable()/borrowCopy() and Book.returnCopy().
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1, " +
+           "b.updatedAt = :now WHERE b.id = :id AND b.availableCopies > 0 AND b.status = 'AVAILABLE'")
+    int tryBorrowCopy(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, b.version = b.version + 1, " +
+           "b.updatedAt = :now WHERE b.id = :id AND b.availableCopies < b.totalCopies")
+    int tryReturnCopy(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // Id-ordered, streamed so rankings can visit every book without loading entities or a list of ids
+    @Query("SELECT b.id FROM Book b ORDER BY b.id")
+    Stream<Long> streamIds();
 }
@@ -1,20 +1,52 @@
 package com.library.repository;
 
+import com.library.dto.TransactionView;
 import com.library.entity.Transaction;
 import com.library.entity.User;
 import com.library.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Read models for the API: selected straight into TransactionView with the user and book
+    // columns joined in, one query per response
+    String TRANSACTION_VIEW = "SELECT new com.library.dto.TransactionView(t.id, u.id, u.username, b.id, b.title, " +
+                              "b.isbn, t.type, t.status, t.borrowedAt, t.dueDate, t.returnedAt, t.fineAmount, " +
+                              "t.notes, t.createdAt, t.updatedAt) FROM Transaction t JOIN t.user u JOIN t.book b ";
+    
+    @Query(TRANSACTION_VIEW)
+    List<TransactionView> findAllViews();
+    
+    @Query(TRANSACTION_VIEW + "WHERE t.id = :id")
+    Optional<TransactionView> findViewById(@Param("id") Long id);
+    
+    @Query(TRANSACTION_VIEW + "WHERE u.id = :userId ORDER BY t.createdAt DESC")
+    List<TransactionView> findHistoryViewsByUserId(@Param("userId") Long userId);
+    
+    @Query(TRANSACTION_VIEW + "WHERE u.id = :userId AND t.status IN ('ACTIVE', 'OVERDUE')")
+    List<TransactionView> findActiveViewsByUserId(@Param("userId") Long userId);
+    
+    @Query(TRANSACTION_VIEW + "WHERE b.id = :bookId ORDER BY t.createdAt DESC")
+    List<TransactionView> findHistoryViewsByBookId(@Param("bookId") Long bookId);
+    
+    @Query(TRANSACTION_VIEW + "WHERE t.dueDate < :currentDate AND t.status IN ('ACTIVE', 'OVERDUE')")
+    List<TransactionView> findOverdueViews(@Param("currentDate") LocalDateTime currentDate);
+    
+    @Query(TRANSACTION_VIEW + "WHERE t.createdAt BETWEEN :startDate AND :endDate")
+    List<TransactionView> findViewsByDateRange(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+    
     List<Transaction> findByUser(User user);
     
     List<Transaction> findByBook(Book book);
@@ -25,30 +57,101 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     List<Transaction> findByUserAndStatus(User user, Transaction.TransactionStatus status);
     
+    List<Transaction> findByUserAndStatusIn(User user, Collection<Transaction.TransactionStatus> statuses);
+    
     List<Transaction> findByBookAndStatus(Book book, Transaction.TransactionStatus status);
     
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.book = :book AND t.status = 'ACTIVE'")
+    // Open loans are ACTIVE, or OVERDUE once OverdueScheduler has flipped them
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.book = :book AND t.status IN ('ACTIVE', 'OVERDUE')")
     Optional<Transaction> findActiveTransactionByUserAndBook(@Param("user") User user, @Param("book") Book book);
     
-    @Query("SELECT t FROM Transaction t WHERE t.dueDate < :currentDate AND t.status = 'ACTIVE'")
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.user JOIN FETCH t.book " +
+           "WHERE t.user.id = :userId AND t.book.id = :bookId AND t.status IN ('ACTIVE', 'OVERDUE')")
+    Optional<Transaction> findActiveTransactionWithUserAndBook(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.user JOIN FETCH t.book WHERE t.id = :id")
+    Optional<Transaction> findWithUserAndBookById(@Param("id") Long id);
+    
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.book " +
+           "WHERE t.user.id = :userId AND t.book.id IN :bookIds AND t.status IN ('ACTIVE', 'OVERDUE')")
+    List<Transaction> findActiveTransactionsByUserIdAndBookIds(@Param("userId") Long userId,
+                                                               @Param("bookIds") Collection<Long> bookIds);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.dueDate < :currentDate AND t.status IN ('ACTIVE', 'OVERDUE')")
     List<Transaction> findOverdueTransactions(@Param("currentDate") LocalDateTime currentDate);
     
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user ORDER BY t.createdAt DESC")
-    List<Transaction> findUserTransactionHistory(@Param("user") User user);
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.dueDate < :currentDate AND t.status IN ('ACTIVE', 'OVERDUE')")
+    long countOverdueTransactions(@Param("currentDate") LocalDateTime currentDate);
     
-    @Query("SELECT t FROM Transaction t WHERE t.book = :book ORDER BY t.createdAt DESC")
-    List<Transaction> findBookTransactionHistory(@Param("book") Book book);
+    @Query("SELECT t.id, t.dueDate FROM Transaction t " +
+           "WHERE t.status = 'ACTIVE' AND t.dueDate IS NOT NULL AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findActiveDueDatesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = 'OVERDUE', t.version = t.version + 1, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.status = 'ACTIVE' AND t.dueDate <= :now")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Keyset-paged readers for the batch jobs: each page starts after the last id of the previous one
+    @Query("SELECT t.id FROM Transaction t " +
+           "WHERE t.status = 'ACTIVE' AND t.dueDate <= :now AND t.id > :afterId ORDER BY t.id")
+    List<Long> findOverdueCandidateIdsAfter(@Param("afterId") Long afterId, @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+    
+    @Query("SELECT t.id, t.dueDate, t.fineAmount FROM Transaction t " +
+           "WHERE t.status IN ('ACTIVE', 'OVERDUE') AND t.dueDate < :now AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findLateLoansAfter(@Param("afterId") Long afterId, @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+    
+    @Query("SELECT t.id, t.dueDate, t.status, u.email, u.firstName, b.title FROM Transaction t " +
+           "JOIN t.user u JOIN t.book b " +
+           "WHERE t.status IN ('ACTIVE', 'OVERDUE') AND t.dueDate <= :dueBy AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findLoansDueByAfter(@Param("afterId") Long afterId, @Param("dueBy") LocalDateTime dueBy,
+                                       Pageable pageable);
     
     @Query("SELECT t FROM Transaction t WHERE t.createdAt BETWEEN :startDate AND :endDate")
     List<Transaction> findTransactionsByDateRange(@Param("startDate") LocalDateTime startDate, 
                                                  @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user = :user AND t.status = 'ACTIVE'")
+    // Transactions per book and per user, for the popularity rankings before the column store is loaded
+    @Query("SELECT t.book.id, COUNT(t) FROM Transaction t GROUP BY t.book.id")
+    List<Object[]> countTransactionsPerBook();
+    
+    @Query("SELECT t.user.id, COUNT(t) FROM Transaction t GROUP BY t.user.id")
+    List<Object[]> countTransactionsPerUser();
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user = :user AND t.status IN ('ACTIVE', 'OVERDUE')")
     long countActiveTransactionsByUser(@Param("user") User user);
     
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.book = :book AND t.status = 'ACTIVE'")
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.book = :book AND t.status IN ('ACTIVE', 'OVERDUE')")
     long countActiveTransactionsByBook(@Param("book") Book book);
     
+    // Reservations (type RESERVE): WAITING in the queue, READY once a copy is held for pickup
+    @Query("SELECT t.id, t.user.id, t.book.id, t.status, t.createdAt, t.dueDate FROM Transaction t " +
+           "WHERE t.type = 'RESERVE' AND t.status IN ('WAITING', 'READY') ORDER BY t.createdAt, t.id")
+    List<Object[]> findOpenReservations();
+    
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.book WHERE t.user.id = :userId " +
+           "AND t.type = 'RESERVE' AND t.status IN ('WAITING', 'READY') ORDER BY t.createdAt, t.id")
+    List<Transaction> findOpenReservationsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId " +
+           "AND t.type = 'RESERVE' AND t.status IN ('WAITING', 'READY')")
+    long countOpenReservationsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(t) > 0 FROM Transaction t WHERE t.user.id = :userId AND t.book.id = :bookId " +
+           "AND t.type = 'RESERVE' AND t.status IN ('WAITING', 'READY')")
+    boolean existsOpenReservation(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = :to, t.dueDate = :dueDate, t.version = t.version + 1, " +
+           "t.updatedAt = :now WHERE t.id = :id AND t.type = 'RESERVE' AND t.status = :from")
+    int transitionReservation(@Param("id") Long id,
+                              @Param("from") Transaction.TransactionStatus from,
+                              @Param("to") Transaction.TransactionStatus to,
+                              @Param("dueDate") LocalDateTime dueDate,
+                              @Param("now") LocalDateTime now);
+    
     // Analytics support methods
     long countByStatus(Transaction.TransactionStatus status);
 }
@@ -1,17 +1,44 @@
 package com.library.repository;
 
+import com.library.dto.UserRoleAggregate;
+import com.library.dto.UserView;
 import com.library.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // Read models for the API: selected straight into UserView, one query per response
+    String USER_VIEW = "SELECT new com.library.dto.UserView(u.id, u.username, u.email, u.firstName, u.lastName, " +
+                       "u.phoneNumber, u.address, u.role, u.enabled, u.createdAt, u.updatedAt) FROM User u ";
+    
+    @Query(USER_VIEW)
+    List<UserView> findAllViews();
+    
+    @Query(USER_VIEW + "WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+    
+    @Query(USER_VIEW + "WHERE " +
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    List<UserView> searchViews(@Param("searchTerm") String searchTerm);
+    
+    // Row lock held to the end of the transaction; serializes checks that span a user's rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+    
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -25,15 +52,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.enabled = true")
     List<User> findAllActiveUsers();
     
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<User> searchUsers(@Param("searchTerm") String searchTerm);
+    // One row per active loan (book id null when there are none); empty when the user does not exist
+    @Query("SELECT u, t.book.id FROM User u LEFT JOIN Transaction t ON t.user = u " +
+           "AND t.status IN ('ACTIVE', 'OVERDUE') " +
+           "WHERE u.id = :userId")
+    List<Object[]> findWithActiveBookIds(@Param("userId") Long userId);
     
     // Analytics support methods
-    @Query("SELECT COUNT(DISTINCT u) FROM User u JOIN Transaction t ON u = t.user WHERE t.status = 'ACTIVE'")
+    @Query("SELECT COUNT(DISTINCT u) FROM User u JOIN Transaction t ON u = t.user WHERE t.status IN ('ACTIVE', 'OVERDUE')")
     long countUsersWithActiveTransactions();
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :date")
@@ -45,4 +71,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") User.Role role);
+    
+    // Every user KPI of the dashboard in one pass over users; new-user windows match the counts above
+    @Query("SELECT new com.library.dto.UserRoleAggregate(u.role, COUNT(u), " +
+           "SUM(CASE WHEN EXISTS (SELECT 1 FROM Transaction t WHERE t.user = u AND t.status IN ('ACTIVE', 'OVERDUE')) " +
+           "THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN u.createdAt >= :monthStart THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN u.createdAt BETWEEN :lastMonthStart AND :monthStart THEN 1 ELSE 0 END)) " +
+           "FROM User u GROUP BY u.role")
+    List<UserRoleAggregate> aggregateByRole(@Param("monthStart") java.time.LocalDateTime monthStart,
+                                            @Param("lastMonthStart") java.time.LocalDateTime lastMonthStart);
+    
+    // Id-ordered, streamed so rankings can visit every user without loading entities or a list of ids
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    Stream<Long> streamIds();
 }
@@ -1,6 +1,9 @@
 package com.library.service;
 
 import com.library.dto.AnalyticsDashboardDto;
+import com.library.dto.BookCategoryAggregate;
+import com.library.dto.BookView;
+import com.library.dto.UserRoleAggregate;
 import com.library.entity.Book;
 import com.library.entity.Transaction;
 import com.library.entity.User;
@@ -10,14 +13,19 @@ import com.library.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -25,6 +33,13 @@ public class AnalyticsService {
     
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
     
+    // The dashboard lists the first page only; the full list is paged by getHighDemandBooks
+    private static final int HIGH_DEMAND_DASHBOARD_LIMIT = 50;
+    
+    private static final int TOP_ACTIVE_USERS = 5;
+    private static final int MOST_BORROWED_BOOKS = 10;
+    private static final int LEAST_BORROWED_BOOKS = 5;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -43,6 +58,12 @@ public class AnalyticsService {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private OverdueScheduler overdueScheduler;
+    
+    @Autowired
+    private TransactionColumnStore columnStore;
+    
     /**
      * Generate comprehensive analytics dashboard
      * This method demonstrates cross-module communication that will become
@@ -78,6 +99,21 @@ public class AnalyticsService {
         }
     }
     
+    /**
+     * Per-category book counts and total/available copies, from one grouped query over the
+     * category index. Within a dashboard this is the same read as the book section's.
+     */
+    public List<BookCategoryAggregate> getCategoryInventory() {
+        return bookRepository.aggregateByCategory();
+    }
+    
+    /**
+     * Books with more than 80% of their copies on loan, least available first.
+     */
+    public Page<BookView> getHighDemandBooks(Pageable pageable) {
+        return bookRepository.findHighDemandViews(pageable);
+    }
+    
     /**
      * Generate user-focused analytics
      * In microservices: This would be a call to User Service
@@ -85,28 +121,26 @@ public class AnalyticsService {
     private AnalyticsDashboardDto.UserAnalyticsDto generateUserAnalytics() {
         logger.debug("Generating user analytics");
         
-        // Total users count
-        long totalUsers = userRepository.count();
-        
-        // Active users (users with active transactions)
-        long activeUsers = userRepository.countUsersWithActiveTransactions();
-        
-        // New users this month
-        LocalDateTime monthStart = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        long newUsersThisMonth = userRepository.countUsersByCreatedAtAfter(monthStart);
+        // Totals, active users, new users this and last month, and users by role: one grouped scan
+        long totalUsers = 0;
+        long activeUsers = 0;
+        long newUsersThisMonth = 0;
+        long newUsersLastMonth = 0;
+        Map<String, Long> usersByRole = new HashMap<>();
+        for (User.Role role : User.Role.values()) {
+            usersByRole.put(role.name(), 0L);
+        }
+        for (UserRoleAggregate aggregate : userAggregates()) {
+            totalUsers += aggregate.users();
+            activeUsers += aggregate.activeUsers();
+            newUsersThisMonth += aggregate.newThisMonth();
+            newUsersLastMonth += aggregate.newLastMonth();
+            usersByRole.put(aggregate.role().name(), aggregate.users());
+        }
         
         // Calculate growth rate
-        LocalDateTime lastMonthStart = monthStart.minusMonths(1);
-        long newUsersLastMonth = userRepository.countUsersByCreatedAtBetween(lastMonthStart, monthStart);
         double userGrowthRate = calculateGrowthRate(newUsersLastMonth, newUsersThisMonth);
         
-        // Users by role
-        Map<String, Long> usersByRole = Arrays.stream(User.Role.values())
-            .collect(Collectors.toMap(
-                Enum::name,
-                role -> userRepository.countByRole(role)
-            ));
-        
         // Top active users
         List<AnalyticsDashboardDto.UserActivityDto> topActiveUsers = getTopActiveUsers();
         
@@ -123,31 +157,26 @@ public class AnalyticsService {
     private AnalyticsDashboardDto.BookAnalyticsDto generateBookAnalytics() {
         logger.debug("Generating book analytics");
         
-        // Total books
-        long totalBooks = bookRepository.count();
-        
-        // Available books
-        long availableBooks = bookRepository.countByAvailableCopiesGreaterThan(0);
-        
-        // Borrowed books (total copies - available copies)
-        long borrowedBooks = bookRepository.getTotalCopies() - bookRepository.getTotalAvailableCopies();
-        
-        // Books by category
-        List<Map<String, Object>> categoryResults = bookRepository.getBookCountByCategory();
-        Map<String, Long> booksByCategory = categoryResults.stream()
-            .collect(Collectors.toMap(
-                result -> (String) result.get("category"),
-                result -> ((Number) result.get("count")).longValue()
-            ));
-        
-        // Most borrowed books
-        List<AnalyticsDashboardDto.PopularBookDto> mostBorrowedBooks = getMostBorrowedBooks();
+        // Total, available and borrowed books and books by category: one grouped scan
+        long totalBooks = 0;
+        long availableBooks = 0;
+        long borrowedBooks = 0;
+        Map<String, Long> booksByCategory = new HashMap<>();
+        for (BookCategoryAggregate aggregate : bookRepository.aggregateByCategory()) {
+            totalBooks += aggregate.books();
+            availableBooks += aggregate.availableBooks();
+            // Borrowed books (total copies - available copies)
+            borrowedBooks += aggregate.totalCopies() - aggregate.availableCopies();
+            booksByCategory.put(aggregate.category(), aggregate.books());
+        }
         
-        // Least borrowed books
-        List<AnalyticsDashboardDto.PopularBookDto> leastBorrowedBooks = getLeastBorrowedBooks();
+        // Most and least borrowed books, ranked from one tally of transactions per book
+        LongIntCounter transactionsPerBook = transactionsPerBook();
+        List<AnalyticsDashboardDto.PopularBookDto> mostBorrowedBooks = getMostBorrowedBooks(transactionsPerBook);
+        List<AnalyticsDashboardDto.PopularBookDto> leastBorrowedBooks = getLeastBorrowedBooks(transactionsPerBook);
         
-        // Average books per user
-        long totalUsersCount = userRepository.count();
+        // Average books per user (same aggregate as the user section, reused within the transaction)
+        long totalUsersCount = userAggregates().stream().mapToLong(UserRoleAggregate::users).sum();
         double averageBooksPerUser = totalUsersCount > 0 ? (double) totalBooks / totalUsersCount : 0;
         
         return new AnalyticsDashboardDto.BookAnalyticsDto(
@@ -169,18 +198,18 @@ public class AnalyticsService {
         // Active transactions
         long activeTransactions = transactionRepository.countByStatus(Transaction.TransactionStatus.ACTIVE);
         
-        // Overdue transactions
+        // Overdue transactions, counted by the timing wheel as they fall due
         LocalDateTime now = LocalDateTime.now();
-        long overdueTransactions = transactionRepository.findOverdueTransactions(now).size();
+        long overdueTransactions = overdueScheduler.getOverdueCount();
         
         // Transactions by time periods
         LocalDateTime todayStart = now.withHour(0).withMinute(0).withSecond(0);
         LocalDateTime weekStart = now.minusWeeks(1);
         LocalDateTime monthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
         
-        long transactionsToday = transactionRepository.findTransactionsByDateRange(todayStart, now).size();
-        long transactionsThisWeek = transactionRepository.findTransactionsByDateRange(weekStart, now).size();
-        long transactionsThisMonth = transactionRepository.findTransactionsByDateRange(monthStart, now).size();
+        long transactionsToday = countCreatedBetween(todayStart, now);
+        long transactionsThisWeek = countCreatedBetween(weekStart, now);
+        long transactionsThisMonth = countCreatedBetween(monthStart, now);
         
         // Average return time
         double averageReturnTime = calculateAverageReturnTime();
@@ -189,7 +218,8 @@ public class AnalyticsService {
         Map<String, Long> transactionsByType = Arrays.stream(Transaction.TransactionType.values())
             .collect(Collectors.toMap(
                 Enum::name,
-                type -> (long) transactionRepository.findByType(type).size()
+                type -> columnStore.isReady() ? columnStore.countByType(type)
+                        : (long) transactionRepository.findByType(type).size()
             ));
         
         // Recent activity
@@ -209,11 +239,13 @@ public class AnalyticsService {
     private AnalyticsDashboardDto.InventoryAnalyticsDto generateInventoryAnalytics() {
         logger.debug("Generating inventory analytics");
         
-        // Total copies in system
-        long totalCopies = bookRepository.getTotalCopies();
-        
-        // Available copies
-        long availableCopies = bookRepository.getTotalAvailableCopies();
+        // Total and available copies (same aggregate as the book section, reused within the transaction)
+        long totalCopies = 0;
+        long availableCopies = 0;
+        for (BookCategoryAggregate aggregate : bookRepository.aggregateByCategory()) {
+            totalCopies += aggregate.totalCopies();
+            availableCopies += aggregate.availableCopies();
+        }
         
         // Borrowed copies
         long borrowedCopies = totalCopies - availableCopies;
@@ -228,7 +260,7 @@ public class AnalyticsService {
             .collect(Collectors.toList());
         
         // High demand books (utilization > 80%)
-        List<String> highDemandBooks = getHighDemandBooks();
+        List<String> highDemandBooks = getHighDemandTitles();
         
         // Category utilization
         Map<String, Double> categoryUtilization = getCategoryUtilization();
@@ -273,52 +305,130 @@ public class AnalyticsService {
     
     // Helper methods for complex calculations
     
+    /** Per-role user KPIs; the month boundaries are fixed for the day so repeat calls hit the query memo. */
+    private List<UserRoleAggregate> userAggregates() {
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        return userRepository.aggregateByRole(monthStart, monthStart.minusMonths(1));
+    }
+    
     private double calculateGrowthRate(long previous, long current) {
         if (previous == 0) return current > 0 ? 100.0 : 0.0;
         return ((double) (current - previous) / previous) * 100;
     }
     
+    // Rankings keep the leaders of a primitive tally in a bounded heap and load only those
+    
     private List<AnalyticsDashboardDto.UserActivityDto> getTopActiveUsers() {
-        return userRepository.findAll().stream()
-            .map(user -> {
-                long totalTransactions = transactionRepository.findByUser(user).size();
-                long activeTransactions = transactionRepository.countActiveTransactionsByUser(user);
-                return new AnalyticsDashboardDto.UserActivityDto(
-                    user.getUsername(), user.getEmail(), totalTransactions, activeTransactions
-                );
-            })
-            .sorted((a, b) -> Long.compare(b.getTotalTransactions(), a.getTotalTransactions()))
-            .limit(5)
-            .collect(Collectors.toList());
+        LongIntCounter transactionsPerUser = transactionsPerUser();
+        TopK top = new TopK(TOP_ACTIVE_USERS);
+        transactionsPerUser.forEach(top::offer);
+        if (top.size() < TOP_ACTIVE_USERS) {
+            // Fewer users with transactions than places: users without any follow, lowest ids first
+            try (Stream<Long> ids = userRepository.streamIds()) {
+                ids.forEach(id -> {
+                    if (!transactionsPerUser.containsKey(id)) top.offer(id, 0);
+                });
+            }
+        }
+        
+        long[] ids = top.drain();
+        Map<Long, User> users = userRepository.findAllById(boxed(ids)).stream()
+            .collect(Collectors.toMap(User::getId, user -> user));
+        List<AnalyticsDashboardDto.UserActivityDto> topUsers = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            User user = users.get(id);
+            // Deleted since the tally was taken
+            if (user == null) continue;
+            topUsers.add(new AnalyticsDashboardDto.UserActivityDto(
+                user.getUsername(), user.getEmail(), transactionsPerUser.get(id),
+                transactionRepository.countActiveTransactionsByUser(user)
+            ));
+        }
+        return topUsers;
     }
     
-    private List<AnalyticsDashboardDto.PopularBookDto> getMostBorrowedBooks() {
-        return bookRepository.findAll().stream()
-            .map(book -> {
-                long borrowCount = transactionRepository.findByBook(book).size();
-                return new AnalyticsDashboardDto.PopularBookDto(
-                    book.getTitle(), book.getAuthor(), book.getCategory(), borrowCount
-                );
-            })
-            .sorted((a, b) -> Long.compare(b.getBorrowCount(), a.getBorrowCount()))
-            .limit(10)
-            .collect(Collectors.toList());
+    private List<AnalyticsDashboardDto.PopularBookDto> getMostBorrowedBooks(LongIntCounter transactionsPerBook) {
+        TopK top = new TopK(MOST_BORROWED_BOOKS);
+        transactionsPerBook.forEach(top::offer);
+        if (top.size() < MOST_BORROWED_BOOKS) {
+            try (Stream<Long> ids = bookRepository.streamIds()) {
+                ids.forEach(id -> {
+                    if (!transactionsPerBook.containsKey(id)) top.offer(id, 0);
+                });
+            }
+        }
+        return popularBooks(top.drain(), transactionsPerBook);
     }
     
-    private List<AnalyticsDashboardDto.PopularBookDto> getLeastBorrowedBooks() {
-        return bookRepository.findAll().stream()
-            .map(book -> {
-                long borrowCount = transactionRepository.findByBook(book).size();
-                return new AnalyticsDashboardDto.PopularBookDto(
-                    book.getTitle(), book.getAuthor(), book.getCategory(), borrowCount
-                );
-            })
-            .sorted(Comparator.comparing(AnalyticsDashboardDto.PopularBookDto::getBorrowCount))
-            .limit(5)
-            .collect(Collectors.toList());
+    private List<AnalyticsDashboardDto.PopularBookDto> getLeastBorrowedBooks(LongIntCounter transactionsPerBook) {
+        // Books never borrowed are not in the tally, so this visits every id; negated counts rank the fewest first
+        TopK bottom = new TopK(LEAST_BORROWED_BOOKS);
+        try (Stream<Long> ids = bookRepository.streamIds()) {
+            ids.forEach(id -> bottom.offer(id, -transactionsPerBook.get(id)));
+        }
+        return popularBooks(bottom.drain(), transactionsPerBook);
+    }
+    
+    private List<AnalyticsDashboardDto.PopularBookDto> popularBooks(long[] ids, LongIntCounter transactionsPerBook) {
+        Map<Long, Book> books = bookRepository.findAllById(boxed(ids)).stream()
+            .collect(Collectors.toMap(Book::getId, book -> book));
+        List<AnalyticsDashboardDto.PopularBookDto> popular = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Book book = books.get(id);
+            // Deleted since the tally was taken
+            if (book == null) continue;
+            popular.add(new AnalyticsDashboardDto.PopularBookDto(
+                book.getTitle(), book.getAuthor(), book.getCategory(), transactionsPerBook.get(id)
+            ));
+        }
+        return popular;
+    }
+    
+    private static List<Long> boxed(long[] ids) {
+        List<Long> boxed = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        return boxed;
+    }
+    
+    // Transaction scans read the off-heap column store once it is loaded, the database until then
+    
+    private long countCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        if (columnStore.isReady()) {
+            return columnStore.countCreatedBetween(from, to);
+        }
+        return transactionRepository.findTransactionsByDateRange(from, to).size();
+    }
+    
+    private LongIntCounter transactionsPerBook() {
+        LongIntCounter counts = new LongIntCounter(1024);
+        if (columnStore.isReady()) {
+            columnStore.countPerBook(counts);
+        } else {
+            for (Object[] row : transactionRepository.countTransactionsPerBook()) {
+                counts.add((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
+        return counts;
+    }
+    
+    private LongIntCounter transactionsPerUser() {
+        LongIntCounter counts = new LongIntCounter(1024);
+        if (columnStore.isReady()) {
+            columnStore.countPerUser(counts);
+        } else {
+            for (Object[] row : transactionRepository.countTransactionsPerUser()) {
+                counts.add((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
+        return counts;
     }
     
     private double calculateAverageReturnTime() {
+        if (columnStore.isReady()) {
+            return columnStore.averageLoanDays(Transaction.TransactionStatus.RETURNED);
+        }
         List<Transaction> completedTransactions = transactionRepository.findByStatus(Transaction.TransactionStatus.RETURNED);
         
         if (completedTransactions.isEmpty()) {
@@ -337,6 +447,18 @@ public class AnalyticsService {
         List<AnalyticsDashboardDto.DailyTransactionDto> activity = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         
+        if (columnStore.isReady()) {
+            LocalDate firstDay = LocalDate.now().minusDays(6);
+            long[] borrowings = columnStore.countPerDay(firstDay, 7, Transaction.TransactionType.BORROW);
+            long[] returns = columnStore.countPerDay(firstDay, 7, Transaction.TransactionType.RETURN);
+            for (int day = 0; day < 7; day++) {
+                activity.add(new AnalyticsDashboardDto.DailyTransactionDto(
+                    firstDay.plusDays(day).format(formatter), borrowings[day], returns[day]
+                ));
+            }
+            return activity;
+        }
+        
         for (int i = 6; i >= 0; i--) {
             LocalDateTime date = LocalDateTime.now().minusDays(i);
             LocalDateTime startOfDay = date.withHour(0).withMinute(0).withSecond(0);
@@ -360,39 +482,18 @@ public class AnalyticsService {
         return activity;
     }
     
-    private List<String> getHighDemandBooks() {
-        return bookRepository.findAll().stream()
-            .filter(book -> {
-                if (book.getTotalCopies() == 0) return false;
-                double utilization = ((double) (book.getTotalCopies() - book.getAvailableCopies())) / book.getTotalCopies();
-                return utilization > 0.8; // 80% utilization threshold
-            })
-            .map(Book::getTitle)
-            .collect(Collectors.toList());
+    private List<String> getHighDemandTitles() {
+        return bookRepository.findHighDemandTitles(PageRequest.of(0, HIGH_DEMAND_DASHBOARD_LIMIT));
     }
     
     private Map<String, Double> getCategoryUtilization() {
         Map<String, Double> categoryUtilization = new HashMap<>();
-        
-        List<Map<String, Object>> categoryResults = bookRepository.getBookCountByCategory();
-        Map<String, Long> booksByCategory = categoryResults.stream()
-            .collect(Collectors.toMap(
-                result -> (String) result.get("category"),
-                result -> ((Number) result.get("count")).longValue()
-            ));
-        
-        for (String category : booksByCategory.keySet()) {
-            List<Book> categoryBooks = bookRepository.findByCategory(category);
-            
-            long totalCopies = categoryBooks.stream().mapToLong(Book::getTotalCopies).sum();
-            long availableCopies = categoryBooks.stream().mapToLong(Book::getAvailableCopies).sum();
-            
-            double utilization = totalCopies > 0 ? 
-                ((double) (totalCopies - availableCopies) / totalCopies) * 100 : 0;
-            
-            categoryUtilization.put(category, utilization);
+        for (BookCategoryAggregate aggregate : getCategoryInventory()) {
+            long totalCopies = aggregate.totalCopies();
+            double utilization = totalCopies > 0 ?
+                ((double) (totalCopies - aggregate.availableCopies()) / totalCopies) * 100 : 0;
+            categoryUtilization.put(aggregate.category(), utilization);
         }
-        
         return categoryUtilization;
     }
 }
@@ -0,0 +1,576 @@
+package com.library.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy ledger for hot titles.
+ *
+ * Books that receive at least {@code library.ledger.contention-threshold} borrow attempts in
+ * a window are promoted: their available copies are loaded once and from then on borrows
+ * and returns are admitted or rejected by an atomic counter instead of an UPDATE on the
+ * shared book row. Every change is appended to a {@link LedgerJournal} and written to the
+ * books table by a batched write-behind flush; on startup unflushed journal segments are
+ * replayed. Books that cool down, or that an administrator edits, are flushed and evicted.
+ *
+ * Routing is fenced by lock stripes: borrow and return hold their book's stripe read lock for
+ * the whole database transaction, and promotion or eviction take the write lock, so a book
+ * never has in-flight database and ledger updates at the same time.
+ *
+ * Failures err towards fewer available copies: a borrow is journaled before its transaction
+ * commits and a return only after, so a crash in between can hide a copy but never oversell.
+ */
+@Component
+public class AvailabilityLedger implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityLedger.class);
+
+    private static final int STRIPES = 64;
+    private static final long FENCE_TIMEOUT_MS = 50;
+    private static final String CHECKPOINT_TABLE = "availability_ledger_checkpoint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate flushTransaction;
+
+    private final ConcurrentHashMap<Long, Entry> held = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> retired = new ConcurrentLinkedQueue<>();
+    private volatile ConcurrentHashMap<Long, LongAdder> attempts = new ConcurrentHashMap<>();
+    // Books with administrative edits in flight, by count; they are not promoted until those complete
+    private final ConcurrentHashMap<Long, Integer> editing = new ConcurrentHashMap<>();
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    // Journal appends and pending deltas move together; a flush cuts between them
+    private final ReentrantReadWriteLock epochLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter admittedBorrows;
+    private final Counter rejectedBorrows;
+    private final Counter flushes;
+    private final DistributionSummary flushedBooks;
+
+    @Value("${library.ledger.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.ledger.contention-threshold:50}")
+    private long contentionThreshold;
+
+    @Value("${library.ledger.max-held-books:256}")
+    private int maxHeldBooks;
+
+    @Value("${library.ledger.journal-dir:${java.io.tmpdir}/library-ledger}")
+    private Path journalDirectory;
+
+    @Value("${library.ledger.journal-fsync:true}")
+    private boolean journalFsync;
+
+    private volatile boolean running;
+    private LedgerJournal journal;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+
+    @Autowired
+    public AvailabilityLedger(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+
+        Gauge.builder("library.ledger.books.held", held, Map::size)
+                .description("Books whose availability is currently decided in memory")
+                .register(meterRegistry);
+        this.admittedBorrows = Counter.builder("library.ledger.borrows")
+                .description("Borrows decided by the availability ledger")
+                .tag("outcome", "admitted")
+                .register(meterRegistry);
+        this.rejectedBorrows = Counter.builder("library.ledger.borrows")
+                .description("Borrows decided by the availability ledger")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.flushes = Counter.builder("library.ledger.flushes")
+                .description("Write-behind flushes of ledger changes to the database")
+                .register(meterRegistry);
+        this.flushedBooks = DistributionSummary.builder("library.ledger.flush.books")
+                .description("Books updated per write-behind flush")
+                .register(meterRegistry);
+    }
+
+    /** Counts a borrow attempt towards promoting the book into the ledger. */
+    public void recordAttempt(Long bookId) {
+        if (!running) return;
+        attempts.computeIfAbsent(bookId, id -> new LongAdder()).increment();
+    }
+
+    /** Runs work while the book cannot move between the ledger and the database. */
+    public <T> T withRouting(Long bookId, Supplier<T> work) {
+        if (!running) return work.get();
+        ReentrantReadWriteLock.ReadLock lock = stripe(bookId).readLock();
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@link #withRouting(Long, Supplier)} for several books; stripes are locked in a fixed order. */
+    public <T> T withRouting(Collection<Long> bookIds, Supplier<T> work) {
+        if (!running) return work.get();
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long bookId : bookIds) {
+            indexes.add(stripeIndex(bookId));
+        }
+        List<ReentrantReadWriteLock.ReadLock> locked = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                ReentrantReadWriteLock.ReadLock lock = stripes[index].readLock();
+                lock.lock();
+                locked.add(lock);
+            }
+            return work.get();
+        } finally {
+            locked.forEach(ReentrantReadWriteLock.ReadLock::unlock);
+        }
+    }
+
+    public boolean isHeld(Long bookId) {
+        return running && held.containsKey(bookId);
+    }
+
+    /**
+     * Claims a copy of a held book. The claim is given back if the current transaction rolls
+     * back. Call {@link #isHeld} first, under {@link #withRouting}.
+     */
+    public boolean tryBorrow(Long bookId) {
+        Entry entry = held.get(bookId);
+        if (entry == null) {
+            throw new IllegalStateException("Book " + bookId + " is not held by the availability ledger");
+        }
+        if (!entry.take()) {
+            rejectedBorrows.increment();
+            return false;
+        }
+        try {
+            record(entry, -1);
+        } catch (RuntimeException e) {
+            entry.give();
+            throw e;
+        }
+        admittedBorrows.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED && entry.give()) {
+                        record(entry, 1);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Gives a copy of a held book back once the current transaction commits, capped at its
+     * total copies like {@code Book.returnCopy()}. Returns false if the book is not held.
+     */
+    public boolean releaseAfterCommit(Long bookId) {
+        Entry entry = held.get(bookId);
+        if (!running || entry == null) return false;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(entry);
+                }
+            });
+        } else {
+            release(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Writes pending changes for the book to the database and stops holding it. Called before
+     * an administrative edit: inside a transaction, the book is not promoted again until the
+     * transaction completes, so the ledger never reloads the row as it was before the edit.
+     */
+    public void evict(Long bookId) {
+        if (!running) return;
+        holdOffPromotion(bookId);
+        if (!held.containsKey(bookId)) return;
+        ReentrantReadWriteLock.WriteLock lock = stripe(bookId).writeLock();
+        lock.lock();
+        try {
+            retire(bookId);
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    /** Promotes books that were contended in the last window and evicts those that cooled down. */
+    @Scheduled(fixedDelayString = "${library.ledger.window-ms:1000}")
+    public void rebalance() {
+        if (!running) return;
+        Map<Long, LongAdder> window = attempts;
+        attempts = new ConcurrentHashMap<>();
+
+        boolean evicted = false;
+        for (Long bookId : held.keySet()) {
+            LongAdder count = window.get(bookId);
+            if ((count == null || count.sum() < contentionThreshold / 2) && fenced(bookId, () -> retire(bookId))) {
+                evicted = true;
+            }
+        }
+        if (evicted) {
+            flush();
+        }
+
+        List<Map.Entry<Long, LongAdder>> contended = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : window.entrySet()) {
+            if (entry.getValue().sum() >= contentionThreshold && !held.containsKey(entry.getKey())) {
+                contended.add(entry);
+            }
+        }
+        contended.sort(Comparator.comparingLong((Map.Entry<Long, LongAdder> e) -> e.getValue().sum()).reversed());
+        for (Map.Entry<Long, LongAdder> entry : contended) {
+            if (held.size() >= maxHeldBooks) break;
+            Long bookId = entry.getKey();
+            fenced(bookId, () -> promote(bookId));
+        }
+    }
+
+    /** Writes accumulated deltas to the books table and drops the journal segments they cover. */
+    @Scheduled(fixedDelayString = "${library.ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (!running) return;
+        flushLock.lock();
+        try {
+            long segment;
+            Map<Long, Integer> deltas = new HashMap<>();
+            epochLock.writeLock().lock();
+            try {
+                for (Entry entry : held.values()) {
+                    entry.drainInto(deltas);
+                }
+                for (Entry entry; (entry = retired.poll()) != null; ) {
+                    entry.drainInto(deltas);
+                }
+                if (deltas.isEmpty() && !journal.hasRecords()) return;
+                segment = journal.rotate();
+            } finally {
+                epochLock.writeLock().unlock();
+            }
+
+            try {
+                flushTransaction.executeWithoutResult(status -> {
+                    apply(deltas);
+                    saveCheckpoint(segment);
+                });
+            } catch (RuntimeException e) {
+                // The journal still covers these deltas; keep them for the next flush
+                logger.warn("Availability ledger flush failed, will retry: {}", e.getMessage());
+                deltas.forEach((bookId, delta) -> {
+                    Entry entry = held.get(bookId);
+                    if (entry == null) {
+                        entry = new Entry(bookId, 0, 0);
+                        retired.add(entry);
+                    }
+                    entry.pending.addAndGet(delta);
+                });
+                return;
+            }
+
+            for (long closed : journal.segments()) {
+                if (closed <= segment) {
+                    journal.delete(closed);
+                }
+            }
+            flushes.increment();
+            flushedBooks.record(deltas.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Availability ledger disabled");
+            return;
+        }
+        if (!lockJournalDirectory()) {
+            logger.warn("Availability ledger disabled: journal directory {} is used by another instance",
+                    journalDirectory);
+            return;
+        }
+        journal = new LedgerJournal(journalDirectory, journalFsync);
+        journal.open(recover() + 1);
+        running = true;
+        logger.info("Availability ledger started (contention threshold {} borrows per window, journal {})",
+                contentionThreshold, journalDirectory);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        flush();
+        running = false;
+        held.clear();
+        journal.close();
+        unlockJournalDirectory();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Replays segments the database has not seen and returns the last segment number. */
+    private long recover() {
+        boolean freshDatabase = createCheckpointTableIfMissing();
+        long checkpoint = jdbcTemplate.queryForObject(
+                "SELECT last_segment FROM " + CHECKPOINT_TABLE + " WHERE id = 1", Long.class);
+
+        List<Long> segments = journal.segments();
+        if (segments.isEmpty()) return checkpoint;
+
+        long last = Math.max(checkpoint, segments.get(segments.size() - 1));
+        Map<Long, Integer> replay = new HashMap<>();
+        if (freshDatabase) {
+            logger.warn("Discarding {} availability ledger journal segments written against another database",
+                    segments.size());
+        } else {
+            for (long segment : segments) {
+                if (segment > checkpoint) {
+                    journal.read(segment).forEach((bookId, delta) -> replay.merge(bookId, delta, Integer::sum));
+                }
+            }
+        }
+        flushTransaction.executeWithoutResult(status -> {
+            apply(replay);
+            saveCheckpoint(last);
+        });
+        segments.forEach(journal::delete);
+        if (!replay.isEmpty()) {
+            logger.info("Replayed availability ledger journal for {} books", replay.size());
+        }
+        return last;
+    }
+
+    private boolean createCheckpointTableIfMissing() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = ?",
+                Integer.class, CHECKPOINT_TABLE.toUpperCase());
+        if (tables != null && tables > 0) return false;
+
+        jdbcTemplate.execute("CREATE TABLE " + CHECKPOINT_TABLE
+                + " (id INT PRIMARY KEY, last_segment BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO " + CHECKPOINT_TABLE + " (id, last_segment) VALUES (1, 0)");
+        return true;
+    }
+
+    private void apply(Map<Long, Integer> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        deltas.forEach((bookId, delta) -> {
+            if (delta != 0) rows.add(new Object[]{delta, now, bookId});
+        });
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate("UPDATE books SET available_copies = available_copies + ?, "
+                + "version = version + 1, updated_at = ? WHERE id = ?", rows);
+    }
+
+    private void saveCheckpoint(long segment) {
+        jdbcTemplate.update("UPDATE " + CHECKPOINT_TABLE + " SET last_segment = ? WHERE id = 1", segment);
+    }
+
+    private void holdOffPromotion(Long bookId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        editing.merge(bookId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                editing.computeIfPresent(bookId, (id, edits) -> edits == 1 ? null : edits - 1);
+            }
+        });
+    }
+
+    /** Caller holds the book's stripe write lock. */
+    private void promote(Long bookId) {
+        if (editing.containsKey(bookId)) return;
+        List<Entry> entries = jdbcTemplate.query(
+                "SELECT available_copies, total_copies FROM books WHERE id = ? AND status = 'AVAILABLE'",
+                (rs, rowNum) -> new Entry(bookId, rs.getInt("total_copies"), rs.getInt("available_copies")),
+                bookId);
+        if (!entries.isEmpty()) {
+            held.put(bookId, entries.get(0));
+            logger.debug("Book {} promoted into the availability ledger", bookId);
+        }
+    }
+
+    /** Caller holds the book's stripe write lock. */
+    private void retire(Long bookId) {
+        Entry entry = held.remove(bookId);
+        if (entry != null) {
+            entry.retired = true;
+            retired.add(entry);
+            logger.debug("Book {} evicted from the availability ledger", bookId);
+        }
+    }
+
+    private void release(Entry entry) {
+        if (entry.give()) {
+            record(entry, 1);
+        }
+    }
+
+    private void record(Entry entry, int delta) {
+        epochLock.readLock().lock();
+        try {
+            journal.append(entry.bookId, delta);
+            entry.pending.addAndGet(delta);
+            if (entry.retired) {
+                // Evicted while the change was in flight; make sure a flush still sees it
+                retired.add(entry);
+            }
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    /** Runs the action under the book's stripe write lock, giving up if borrows keep it busy. */
+    private boolean fenced(Long bookId, Runnable action) {
+        ReentrantReadWriteLock.WriteLock lock = stripe(bookId).writeLock();
+        try {
+            if (!lock.tryLock(FENCE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock stripe(Long bookId) {
+        return stripes[stripeIndex(bookId)];
+    }
+
+    private int stripeIndex(Long bookId) {
+        return Math.floorMod(Long.hashCode(bookId), STRIPES);
+    }
+
+    private boolean lockJournalDirectory() {
+        try {
+            Files.createDirectories(journalDirectory);
+            lockChannel = FileChannel.open(journalDirectory.resolve(".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            directoryLock = null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot lock availability ledger journal directory " + journalDirectory, e);
+        }
+        if (directoryLock == null) {
+            unlockJournalDirectory();
+            return false;
+        }
+        return true;
+    }
+
+    private void unlockJournalDirectory() {
+        try {
+            if (directoryLock != null) directoryLock.release();
+            if (lockChannel != null) lockChannel.close();
+        } catch (IOException e) {
+            logger.warn("Cannot release availability ledger journal directory lock: {}", e.getMessage());
+        } finally {
+            directoryLock = null;
+            lockChannel = null;
+        }
+    }
+
+    /** Available copies of one held book plus the change not yet written to the database. */
+    private static final class Entry {
+        final long bookId;
+        final int totalCopies;
+        final AtomicInteger available;
+        final AtomicInteger pending = new AtomicInteger();
+        volatile boolean retired;
+
+        Entry(long bookId, int totalCopies, int available) {
+            this.bookId = bookId;
+            this.totalCopies = totalCopies;
+            this.available = new AtomicInteger(available);
+        }
+
+        boolean take() {
+            for (int current = available.get(); current > 0; current = available.get()) {
+                if (available.compareAndSet(current, current - 1)) return true;
+            }
+            return false;
+        }
+
+        boolean give() {
+            for (int current = available.get(); current < totalCopies; current = available.get()) {
+                if (available.compareAndSet(current, current + 1)) return true;
+            }
+            return false;
+        }
+
+        void drainInto(Map<Long, Integer> deltas) {
+            int delta = pending.getAndSet(0);
+            if (delta != 0) deltas.merge(bookId, delta, Integer::sum);
+        }
+    }
+}
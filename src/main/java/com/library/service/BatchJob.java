@@ -0,0 +1,39 @@
+package com.library.service;
+
+import java.util.List;
+
+/**
+ * A chunk-oriented batch job over the transactions table, run by {@link BatchJobRunner}.
+ *
+ * The runner reads a chunk of items with ids greater than the last checkpoint (a keyset
+ * page, so every chunk costs the same however far the run has got), processes them in
+ * parallel, then calls {@link #write} and saves the new checkpoint in one transaction.
+ *
+ * @param <I> item read from the database, identified by {@link #idOf}
+ * @param <O> processed item handed to the writer
+ */
+public interface BatchJob<I, O> {
+
+    /** Name used for the checkpoint, metrics and the admin endpoint. */
+    String name();
+
+    /** Called once before the first chunk of a run (new or resumed). */
+    default void open() {}
+
+    /** Up to {@code limit} items with ids greater than {@code afterId}, in id order. */
+    List<I> read(long afterId, int limit);
+
+    long idOf(I item);
+
+    /**
+     * Turns an item into what the writer needs, or {@code null} to skip it. Called from the
+     * runner's processor threads, so it must not touch the persistence context.
+     */
+    O process(I item);
+
+    /** Writes a processed chunk inside the chunk's transaction. */
+    void write(List<O> items);
+
+    /** Called once after the last chunk, or after a failure. */
+    default void close() {}
+}
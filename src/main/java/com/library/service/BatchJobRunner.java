@@ -0,0 +1,307 @@
+package com.library.service;
+
+import com.library.dto.BatchJobResultDto;
+import com.library.entity.BatchCheckpoint;
+import com.library.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs {@link BatchJob}s chunk by chunk: a keyset-paged read, parallel processing on a
+ * fixed pool of {@code library.batch.processor-threads}, then the job's write and the
+ * checkpoint update in one transaction. A run that fails or is cut short resumes after the
+ * last committed chunk the next time the job is started; a completed run starts over.
+ *
+ * The jobs listed in {@code library.batch.nightly-jobs} run in order on
+ * {@code library.batch.nightly-cron}; admins can also start any job on demand.
+ */
+@Service
+public class BatchJobRunner implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchJobRunner.class);
+
+    // Smaller slices are not worth handing to another thread
+    private static final int MIN_SLICE = 64;
+
+    private final Map<String, BatchJob<?, ?>> jobs = new LinkedHashMap<>();
+    private final Map<String, ReentrantLock> runLocks = new ConcurrentHashMap<>();
+    private final Map<String, JobMeters> meters = new ConcurrentHashMap<>();
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.batch.processor-threads:4}")
+    private int processorThreads;
+
+    @Value("${library.batch.nightly-jobs:overdue-sweep,fine-accrual,reminder-notices}")
+    private List<String> nightlyJobs;
+
+    private ExecutorService processors;
+    private volatile boolean running;
+
+    @Autowired
+    public BatchJobRunner(List<BatchJob<?, ?>> jobs,
+                          BatchCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (BatchJob<?, ?> job : jobs) {
+            this.jobs.put(job.name(), job);
+            this.runLocks.put(job.name(), new ReentrantLock());
+            this.meters.put(job.name(), new JobMeters(job.name(), meterRegistry));
+        }
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        processors = Executors.newFixedThreadPool(Math.max(1, processorThreads), runnable -> {
+            Thread thread = new Thread(runnable, "batch-processor-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        processors.shutdown();
+        try {
+            processors.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public List<String> getJobNames() {
+        return new ArrayList<>(jobs.keySet());
+    }
+
+    /** Checkpoints of every job that has run at least once. */
+    public List<BatchCheckpoint> getCheckpoints() {
+        return checkpointRepository.findAllById(jobs.keySet());
+    }
+
+    @Scheduled(cron = "${library.batch.nightly-cron:0 0 2 * * *}")
+    public void runNightly() {
+        for (String name : nightlyJobs) {
+            try {
+                run(name.trim());
+            } catch (RuntimeException e) {
+                logger.error("Nightly batch job {} could not start: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs a job to completion on the calling thread, resuming its last run if that did not
+     * finish. A failure is recorded on the checkpoint and reported in the result.
+     */
+    public BatchJobResultDto run(String name) {
+        BatchJob<?, ?> job = jobs.get(name);
+        if (job == null) {
+            throw new RuntimeException("Unknown batch job: " + name);
+        }
+        if (!running) {
+            throw new RuntimeException("Batch jobs are not running");
+        }
+        ReentrantLock lock = runLocks.get(name);
+        if (!lock.tryLock()) {
+            throw new RuntimeException("Batch job " + name + " is already running");
+        }
+        try {
+            return execute(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <I, O> BatchJobResultDto execute(BatchJob<I, O> job) {
+        String name = job.name();
+        JobMeters jobMeters = meters.get(name);
+        long started = System.nanoTime();
+
+        boolean[] resumed = new boolean[1];
+        BatchCheckpoint checkpoint = transactionTemplate.execute(status -> {
+            BatchCheckpoint current = checkpointRepository.findById(name).orElseGet(() -> new BatchCheckpoint(name));
+            resumed[0] = current.isResumable();
+            if (resumed[0]) {
+                current.setStatus(BatchCheckpoint.Status.RUNNING);
+                current.setLastError(null);
+            } else {
+                current.startRun();
+            }
+            return checkpointRepository.save(current);
+        });
+        long startedAfterId = checkpoint.getLastId();
+        if (resumed[0]) {
+            logger.info("Resuming batch job {} run {} after id {}", name, checkpoint.getRunId(), startedAfterId);
+        }
+
+        int chunks = 0;
+        long itemsRead = 0;
+        try {
+            job.open();
+            long afterId = startedAfterId;
+            while (true) {
+                List<I> items = job.read(afterId, chunkSize);
+                if (items.isEmpty()) break;
+                long chunkStarted = System.nanoTime();
+                List<O> processed = process(job, items);
+                long lastId = job.idOf(items.get(items.size() - 1));
+                int read = items.size();
+                int written = processed.size();
+
+                checkpoint = transactionTemplate.execute(status -> {
+                    if (!processed.isEmpty()) {
+                        job.write(processed);
+                    }
+                    // Re-read so a rolled back chunk never leaves an advanced checkpoint in memory
+                    BatchCheckpoint current = checkpointRepository.findById(name).orElseThrow();
+                    current.setLastId(lastId);
+                    current.setItemsRead(current.getItemsRead() + read);
+                    current.setItemsWritten(current.getItemsWritten() + written);
+                    current.setItemsFiltered(current.getItemsFiltered() + read - written);
+                    return current;
+                });
+
+                jobMeters.chunk.record(System.nanoTime() - chunkStarted, TimeUnit.NANOSECONDS);
+                jobMeters.read.increment(read);
+                jobMeters.written.increment(written);
+                jobMeters.filtered.increment(read - written);
+                afterId = lastId;
+                itemsRead += read;
+                chunks++;
+                if (read < chunkSize) break;
+            }
+            checkpoint = finish(name, BatchCheckpoint.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            logger.error("Batch job {} failed after {} chunks", name, chunks, e);
+            checkpoint = finish(name, BatchCheckpoint.Status.FAILED, e.getMessage());
+        } finally {
+            job.close();
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        BatchJobResultDto result = new BatchJobResultDto(checkpoint, resumed[0], startedAfterId, chunks, itemsRead, elapsedMs);
+        jobMeters.throughput = result.getItemsPerSecond();
+        logger.info("Batch job {} run {} {}: {} items in {} chunks, {} ms ({} items/s)", name, result.getRunId(),
+                result.getStatus(), itemsRead, chunks, elapsedMs, Math.round(result.getItemsPerSecond()));
+        return result;
+    }
+
+    /** Processes a chunk, split into ordered slices across the processor pool; skipped items are dropped. */
+    private <I, O> List<O> process(BatchJob<I, O> job, List<I> items) {
+        int slices = Math.min(Math.max(1, processorThreads), (items.size() + MIN_SLICE - 1) / MIN_SLICE);
+        if (slices <= 1) {
+            return processSlice(job, items);
+        }
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<Future<List<O>>> futures = new ArrayList<>(slices);
+        for (int from = 0; from < items.size(); from += sliceSize) {
+            List<I> slice = items.subList(from, Math.min(from + sliceSize, items.size()));
+            futures.add(processors.submit(() -> processSlice(job, slice)));
+        }
+        List<O> processed = new ArrayList<>(items.size());
+        try {
+            for (Future<List<O>> future : futures) {
+                processed.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while processing batch job " + job.name());
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException("Batch job " + job.name() + " processor failed", e.getCause());
+        }
+        return processed;
+    }
+
+    private static <I, O> List<O> processSlice(BatchJob<I, O> job, List<I> slice) {
+        List<O> processed = new ArrayList<>(slice.size());
+        for (I item : slice) {
+            O result = job.process(item);
+            if (result != null) {
+                processed.add(result);
+            }
+        }
+        return processed;
+    }
+
+    private BatchCheckpoint finish(String name, BatchCheckpoint.Status status, String error) {
+        return transactionTemplate.execute(tx -> {
+            BatchCheckpoint current = checkpointRepository.findById(name).orElseThrow();
+            current.setStatus(status);
+            current.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            current.setFinishedAt(LocalDateTime.now());
+            return current;
+        });
+    }
+
+    private static final class JobMeters {
+        final Counter read;
+        final Counter written;
+        final Counter filtered;
+        final Timer chunk;
+        volatile double throughput;
+
+        JobMeters(String job, MeterRegistry registry) {
+            this.read = items(registry, job, "read");
+            this.written = items(registry, job, "written");
+            this.filtered = items(registry, job, "filtered");
+            this.chunk = Timer.builder("library.batch.chunk")
+                    .description("Time to process and commit one chunk")
+                    .tag("job", job)
+                    .register(registry);
+            Gauge.builder("library.batch.throughput", this, meters -> meters.throughput)
+                    .description("Items per second in the job's last invocation")
+                    .tag("job", job)
+                    .register(registry);
+        }
+
+        private static Counter items(MeterRegistry registry, String job, String stage) {
+            return Counter.builder("library.batch.items")
+                    .description("Items handled by batch jobs")
+                    .tag("job", job)
+                    .tag("stage", stage)
+                    .register(registry);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.library.service;
 
 import com.library.dto.BookDto;
+import com.library.dto.BookView;
 import com.library.entity.Book;
 import com.library.repository.BookRepository;
 import com.opencsv.CSVReader;
@@ -14,20 +15,28 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class BookService {
     
+    // ISBNs per duplicate-check query during CSV import
+    private static final int ISBN_LOOKUP_CHUNK = 1000;
+    
     private final BookRepository bookRepository;
-    private final MetricsService metricsService;
+    private final OutboxService outboxService;
+    private final AvailabilityLedger availabilityLedger;
     
     @Autowired
-    public BookService(BookRepository bookRepository, MetricsService metricsService) {
+    public BookService(BookRepository bookRepository, OutboxService outboxService,
+                       AvailabilityLedger availabilityLedger) {
         this.bookRepository = bookRepository;
-        this.metricsService = metricsService;
+        this.outboxService = outboxService;
+        this.availabilityLedger = availabilityLedger;
     }
       public Book createBook(BookDto bookDto) {
         if (bookRepository.findByIsbn(bookDto.getIsbn()).isPresent()) {
@@ -37,8 +46,7 @@ public class BookService {
         Book book = convertDtoToEntity(bookDto);
         Book savedBook = bookRepository.save(book);
         
-        // Record metrics
-        metricsService.incrementBookCreated();
+        outboxService.bookCreated(savedBook.getId());
         
         return savedBook;
     }
@@ -76,14 +84,34 @@ public class BookService {
             }
         }
         
-        List<Book> savedBooks = bookRepository.saveAll(books);
+        List<Book> savedBooks = bookRepository.saveAll(withoutExistingIsbns(books));
         
-        // Record metrics
-        metricsService.incrementCsvImport(savedBooks.size());
+        outboxService.booksImported(savedBooks.size());
         
         return savedBooks;
     }
     
+    /**
+     * Drops records whose ISBN is already in the catalog or earlier in the file. The catalog is
+     * checked with one IN query per chunk rather than a lookup per row.
+     */
+    private List<Book> withoutExistingIsbns(List<Book> books) {
+        Set<String> seen = new HashSet<>();
+        for (int from = 0; from < books.size(); from += ISBN_LOOKUP_CHUNK) {
+            List<String> isbns = books.subList(from, Math.min(from + ISBN_LOOKUP_CHUNK, books.size())).stream()
+                    .map(Book::getIsbn)
+                    .toList();
+            seen.addAll(bookRepository.findExistingIsbns(isbns));
+        }
+        List<Book> fresh = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (seen.add(book.getIsbn())) {
+                fresh.add(book);
+            }
+        }
+        return fresh;
+    }
+    
     private Book parseCsvRecord(String[] record) {
         try {
             // Expected CSV format: ISBN, Title, Author, Category, Publisher, TotalCopies, Price, PublicationYear, Pages, Language, Description
@@ -128,11 +156,6 @@ public class BookService {
             
             book.setStatus(Book.BookStatus.AVAILABLE);
             
-            // Check if book with same ISBN already exists
-            if (bookRepository.findByIsbn(book.getIsbn()).isPresent()) {
-                return null; // Skip duplicate ISBN
-            }
-            
             return book;
             
         } catch (NumberFormatException e) {
@@ -141,30 +164,32 @@ public class BookService {
         }
     }
     
-    public Optional<Book> findById(Long id) {
-        return bookRepository.findById(id);
+    public Optional<BookView> findById(Long id) {
+        return bookRepository.findViewById(id);
+    }
+    
+    public Optional<BookView> findByIsbn(String isbn) {
+        return bookRepository.findViewByIsbn(isbn);
     }
     
-    public Optional<Book> findByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+    public List<BookView> findAllBooks() {
+        return bookRepository.findAllViews();
     }
     
-    public List<Book> findAllBooks() {
-        return bookRepository.findAll();
+    public List<BookView> findAvailableBooks() {
+        return bookRepository.findAvailableViews();
     }
     
-    public List<Book> findAvailableBooks() {
-        return bookRepository.findAvailableBooks();
-    }    public List<Book> searchBooks(String searchTerm) {
-        return bookRepository.searchBooks(searchTerm);
+    public List<BookView> searchBooks(String searchTerm) {
+        return bookRepository.searchViews(searchTerm);
     }
     
-    public List<Book> findBooksByCategory(String category) {
-        return bookRepository.findByCategory(category);
+    public List<BookView> findBooksByCategory(String category) {
+        return bookRepository.findViewsByCategory(category);
     }
     
-    public List<Book> findBooksByAuthor(String author) {
-        return bookRepository.findByAuthor(author);
+    public List<BookView> findBooksByAuthor(String author) {
+        return bookRepository.findViewsByAuthor(author);
     }
     
     public List<String> getAllCategories() {
@@ -180,6 +205,8 @@ public class BookService {
     }
     
     public Book updateBook(Long id, BookDto bookDto) {
+        // Edits work on the stored row, so take the book out of the in-memory ledger first
+        availabilityLedger.evict(id);
         return bookRepository.findById(id)
                 .map(book -> {
                     updateBookFromDto(book, bookDto);
@@ -189,6 +216,7 @@ public class BookService {
     }
     
     public Book updateInventory(Long id, Integer totalCopies, Integer availableCopies) {
+        availabilityLedger.evict(id);
         return bookRepository.findById(id)
                 .map(book -> {
                     book.setTotalCopies(totalCopies);
@@ -202,15 +230,17 @@ public class BookService {
         if (!bookRepository.existsById(id)) {
             throw new RuntimeException("Book not found with id: " + id);
         }
+        availabilityLedger.evict(id);
         bookRepository.deleteById(id);
+        outboxService.bookDeleted(id);
     }
     
-    public List<Book> getLowStockBooks(Integer threshold) {
-        return bookRepository.findLowStockBooks(threshold);
+    public List<BookView> getLowStockBooks(Integer threshold) {
+        return bookRepository.findLowStockViews(threshold);
     }
     
-    public List<Book> getOutOfStockBooks() {
-        return bookRepository.findOutOfStockBooks();
+    public List<BookView> getOutOfStockBooks() {
+        return bookRepository.findOutOfStockViews();
     }
     
     private Book convertDtoToEntity(BookDto dto) {
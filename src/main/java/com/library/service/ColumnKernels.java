@@ -0,0 +1,45 @@
+package com.library.service;
+
+import org.slf4j.LoggerFactory;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Counting loops over the columns of a {@link TransactionColumnStore}: epoch-second
+ * timestamps in {@code long} segments, type and status codes in {@code byte} segments. Every
+ * method reads rows {@code [0, rows)} and allocates nothing per row.
+ *
+ * {@link #forPlatform()} returns kernels built on the JDK Vector API, which compare a full
+ * hardware vector of timestamps or codes per instruction, when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise plain loops with the same results.
+ */
+public interface ColumnKernels {
+
+    long SECONDS_PER_DAY = 86_400;
+
+    /** Rows whose {@code long} value lies in {@code [lo, hi]}. */
+    long countInRange(MemorySegment values, long rows, long lo, long hi);
+
+    /** Rows whose {@code byte} code equals {@code code}. */
+    long countEqual(MemorySegment codes, long rows, byte code);
+
+    /**
+     * Adds to {@code counts[d]} every row with {@code code} whose timestamp falls on day
+     * {@code d} counted from {@code firstDay} (epoch second of its midnight), for
+     * {@code d < counts.length}.
+     */
+    void countPerDay(MemorySegment timestamps, MemorySegment codes, long rows, byte code, long firstDay, long[] counts);
+
+    static ColumnKernels scalar() {
+        return ScalarColumnKernels.INSTANCE;
+    }
+
+    static ColumnKernels forPlatform() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            LoggerFactory.getLogger(ColumnKernels.class)
+                    .info("jdk.incubator.vector is not enabled; column scans use scalar loops");
+            return scalar();
+        }
+        return VectorColumnKernels.INSTANCE;
+    }
+}
@@ -0,0 +1,302 @@
+package com.library.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for borrow and return: requests that arrive within
+ * {@code library.group-commit.window} of each other (up to {@code library.group-commit.max-batch})
+ * run in one database transaction, so the commit cost is shared.
+ *
+ * Each request runs inside its own savepoint, so a business failure such as "Book is not
+ * available for borrowing" only fails that caller. If the batch itself fails (an optimistic
+ * locking conflict, a constraint violation, a failed commit) every request in it is replayed
+ * on its own through {@link OptimisticRetryExecutor}.
+ *
+ * Disabled by default ({@code GROUP_COMMIT=true} turns it on); when disabled, or when called
+ * inside an existing transaction, work runs directly with one transaction per call.
+ *
+ * Exported meters: {@code library.groupcommit.batch.size}, {@code library.groupcommit.wait}
+ * (queueing delay per request), {@code library.groupcommit.commit} (batch duration) and
+ * {@code library.groupcommit.fallbacks}.
+ */
+@Component
+public class GroupCommitExecutor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final TransactionTemplate batchTransaction;
+    private final EntityManager entityManager;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final AvailabilityLedger availabilityLedger;
+    private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<>();
+
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+    private final Timer commitTimer;
+    private final Counter fallbacks;
+
+    @Value("${library.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.group-commit.window:2ms}")
+    private Duration window;
+
+    @Value("${library.group-commit.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${library.group-commit.committers:2}")
+    private int committers;
+
+    private volatile boolean running;
+    private final List<Thread> committerThreads = new ArrayList<>();
+
+    @Autowired
+    public GroupCommitExecutor(PlatformTransactionManager transactionManager,
+                               EntityManager entityManager,
+                               OptimisticRetryExecutor retryExecutor,
+                               AvailabilityLedger availabilityLedger,
+                               MeterRegistry meterRegistry) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.retryExecutor = retryExecutor;
+        this.availabilityLedger = availabilityLedger;
+
+        this.batchSize = DistributionSummary.builder("library.groupcommit.batch.size")
+                .description("Borrow/return requests committed together")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("library.groupcommit.wait")
+                .description("Time a request waited to join a batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("library.groupcommit.commit")
+                .description("Time to run and commit one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("library.groupcommit.fallbacks")
+                .description("Batches that failed as a whole and were replayed request by request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one borrow/return for a book and returns its result, sharing the commit with
+     * concurrent requests when group commit is on. Work must throw before changing managed
+     * entities, as a savepoint rollback does not undo in-memory entity changes.
+     */
+    public <T> T execute(String operation, Long bookId, Supplier<T> work) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return runAlone(operation, bookId, work);
+        }
+
+        Request<T> request = new Request<>(operation, bookId, work);
+        queue.add(request);
+        if (!running && queue.remove(request)) {
+            // Shutting down and no committer will pick it up
+            return runAlone(operation, bookId, work);
+        }
+        try {
+            return request.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + operation + " to commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 0; i < committers; i++) {
+            Thread thread = new Thread(this::commitLoop, "group-commit-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            committerThreads.add(thread);
+        }
+        logger.info("Group commit enabled ({} committers, window {} ms, up to {} requests per batch)",
+                committers, window.toMillis(), maxBatch);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        for (Thread thread : committerThreads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        committerThreads.clear();
+        // Anything queued after the committers stopped still gets an answer
+        for (Request<?> request; (request = queue.poll()) != null; ) {
+            replay(request);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void commitLoop() {
+        while (running) {
+            List<Request<?>> batch = new ArrayList<>(maxBatch);
+            try {
+                Request<?> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (batch.size() < maxBatch) {
+                    Request<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(this::replay);
+                return;
+            }
+            try {
+                commit(batch);
+            } catch (RuntimeException e) {
+                logger.error("Group commit batch of {} failed unexpectedly", batch.size(), e);
+                batch.forEach(request -> request.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void commit(List<Request<?>> batch) {
+        long started = System.nanoTime();
+        for (Request<?> request : batch) {
+            waitTimer.record(started - request.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(batch.size());
+
+        Set<Long> bookIds = new LinkedHashSet<>();
+        batch.forEach(request -> bookIds.add(request.bookId));
+        List<Runnable> outcomes = new ArrayList<>(batch.size());
+        try {
+            availabilityLedger.withRouting(bookIds, () -> batchTransaction.execute(status -> {
+                for (Request<?> request : batch) {
+                    outcomes.add(runInSavepoint(request));
+                }
+                return null;
+            }));
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            // Nothing in the batch was committed; give every request its own transaction
+            fallbacks.increment();
+            logger.debug("Group commit batch of {} failed ({}), replaying individually",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::replay);
+            return;
+        } finally {
+            commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        outcomes.forEach(Runnable::run);
+    }
+
+    /**
+     * Runs one request and returns how to complete its caller once the batch has committed.
+     * The JPA dialect has no nested transactions, so savepoints are taken on the JDBC
+     * connection; flushing first keeps earlier requests' changes out of the rolled back span.
+     */
+    private <T> Runnable runInSavepoint(Request<T> request) {
+        entityManager.flush();
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        List<TransactionSynchronization> registered = TransactionSynchronizationManager.getSynchronizations();
+        try {
+            T value = request.work.get();
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            return () -> request.result.complete(value);
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            // The session may be unusable; abort the batch
+            throw e;
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            rollBackSynchronizationsSince(registered);
+            return () -> request.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A savepoint rollback undoes the request's SQL but not the callbacks it registered, such
+     * as a ledger claim given back only if the transaction does not commit. Completes those as
+     * rolled back and drops them, so the batch's commit does not run them too.
+     */
+    private static void rollBackSynchronizationsSince(List<TransactionSynchronization> registered) {
+        List<TransactionSynchronization> added =
+                new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        added.removeAll(registered);
+        if (added.isEmpty()) return;
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        registered.forEach(TransactionSynchronizationManager::registerSynchronization);
+        TransactionSynchronizationUtils.invokeAfterCompletion(added, TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    private <T> void replay(Request<T> request) {
+        try {
+            request.result.complete(runAlone(request.operation, request.bookId, request.work));
+        } catch (RuntimeException e) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private <T> T runAlone(String operation, Long bookId, Supplier<T> work) {
+        return availabilityLedger.withRouting(bookId, () -> retryExecutor.execute(operation, work));
+    }
+
+    private static final class Request<T> {
+        final String operation;
+        final Long bookId;
+        final Supplier<T> work;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+
+        Request(String operation, Long bookId, Supplier<T> work) {
+            this.operation = operation;
+            this.bookId = bookId;
+            this.work = work;
+        }
+    }
+}
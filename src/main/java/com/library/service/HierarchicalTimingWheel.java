@@ -0,0 +1,144 @@
+package com.library.service;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of {@code long} ids keyed by deadline, after Varghese and Lauck.
+ *
+ * Four levels of 64 slots each cover 64, 64², 64³ and 64⁴ ticks; an entry sits in the
+ * coarsest level that fits its remaining time and cascades down as the wheel turns, so adding
+ * and expiring are O(1) per entry however many are scheduled. Deadlines further out than the
+ * top level wait in an overflow bucket that is re-examined once per top-level turn.
+ *
+ * Entries cannot be removed; callers re-check an expired id against the source of truth.
+ * Not thread-safe.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private final Bucket due = new Bucket();
+    private final Bucket overflow = new Bucket();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, long originMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        for (Bucket[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new Bucket();
+            }
+        }
+    }
+
+    /** Schedules {@code id} to expire at the first tick at or after {@code deadlineMillis}. */
+    public void add(long id, long deadlineMillis) {
+        long ticks = deadlineMillis - originMillis;
+        // Round up so an entry never fires before its deadline
+        long deadlineTick = ticks <= 0 ? 0 : (ticks + tickMillis - 1) / tickMillis;
+        place(id, deadlineTick);
+        size++;
+    }
+
+    /** Turns the wheel up to {@code nowMillis}, passing every expired id to {@code expired}. */
+    public int advanceTo(long nowMillis, LongConsumer expired) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int count = drain(due, expired);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Coarser levels first, so their entries can still land in this tick's slot
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][slotOf(currentTick, level)]);
+                }
+            }
+            if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                cascade(overflow);
+            }
+            count += drain(wheels[0][(int) (currentTick & SLOT_MASK)], expired);
+            count += drain(due, expired);
+        }
+        return count;
+    }
+
+    /** Entries scheduled and not yet expired (including ones whose id is no longer relevant). */
+    public int size() {
+        return size;
+    }
+
+    private void place(long id, long deadlineTick) {
+        long remaining = deadlineTick - currentTick;
+        if (remaining <= 0) {
+            due.add(id, deadlineTick);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (remaining < 1L << (SLOT_BITS * (level + 1))) {
+                wheels[level][slotOf(deadlineTick, level)].add(id, deadlineTick);
+                return;
+            }
+        }
+        overflow.add(id, deadlineTick);
+    }
+
+    private void cascade(Bucket bucket) {
+        int entries = bucket.size;
+        long[] data = bucket.data;
+        bucket.data = Bucket.EMPTY;
+        bucket.size = 0;
+        for (int i = 0; i < entries; i++) {
+            place(data[2 * i], data[2 * i + 1]);
+        }
+    }
+
+    private int drain(Bucket bucket, LongConsumer expired) {
+        int entries = bucket.size;
+        for (int i = 0; i < entries; i++) {
+            expired.accept(bucket.data[2 * i]);
+        }
+        bucket.clear();
+        size -= entries;
+        return entries;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    /** Growable array of (id, deadline tick) pairs. */
+    private static final class Bucket {
+        static final long[] EMPTY = new long[0];
+
+        long[] data = EMPTY;
+        int size;
+
+        void add(long id, long deadlineTick) {
+            if (2 * size == data.length) {
+                long[] grown = new long[Math.max(16, data.length * 2)];
+                System.arraycopy(data, 0, grown, 0, data.length);
+                data = grown;
+            }
+            data[2 * size] = id;
+            data[2 * size + 1] = deadlineTick;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            // Let a burst's worth of capacity go instead of keeping it per slot
+            if (data.length > 1024) {
+                data = EMPTY;
+            }
+        }
+    }
+}
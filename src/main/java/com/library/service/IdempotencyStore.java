@@ -0,0 +1,147 @@
+package com.library.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, expiring store of idempotent requests and their completed responses.
+ *
+ * The first request for a key claims it and runs; duplicates that arrive while it is running
+ * wait on the same future, and later replays get the stored response. Entries expire after
+ * {@code library.idempotency.ttl}; the oldest completed entries are evicted first once
+ * {@code library.idempotency.max-entries} or {@code library.idempotency.max-stored-bytes}
+ * is exceeded. Requests still running are never evicted or expired, since a retry would then
+ * claim the key again and run twice, so the store can briefly hold more entries than the
+ * limit allows.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Insertion order doubles as expiry order, since every entry lives for the same TTL
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long storedBytes;
+
+    @Value("${library.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${library.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${library.idempotency.max-stored-bytes:64MB}")
+    private DataSize maxStoredBytes;
+
+    /**
+     * Claims the key for a request with the given fingerprint, or returns the entry of the
+     * request that claimed it first.
+     */
+    public Claim claim(String key, String fingerprint) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                return new Claim(existing, false);
+            }
+            Entry entry = new Entry(fingerprint, now + ttl.toMillis());
+            entries.put(key, entry);
+            evictOverCapacity();
+            return new Claim(entry, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stores the response of a claimed request and releases anyone waiting on it. */
+    public void complete(String key, Entry entry, StoredResponse response) {
+        lock.lock();
+        try {
+            if (entries.get(key) == entry) {
+                entry.size = response.body().length;
+                entry.stored = true;
+                storedBytes += entry.size;
+                evictOverCapacity();
+            }
+        } finally {
+            lock.unlock();
+        }
+        entry.response.complete(response);
+    }
+
+    /** Forgets a claimed request that did not produce a result worth replaying. */
+    public void abandon(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        entry.response.completeExceptionally(new IllegalStateException("Idempotent request was abandoned"));
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt > now) break;
+            if (!entry.stored) continue;
+            storedBytes -= entry.size;
+            iterator.remove();
+        }
+    }
+
+    private void evictOverCapacity() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || storedBytes > maxStoredBytes.toBytes()) && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            // In flight: its size is still 0 and its key must stay claimed
+            if (!entry.stored) continue;
+            storedBytes -= entry.size;
+            iterator.remove();
+        }
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {}
+
+    public record Claim(Entry entry, boolean owner) {}
+
+    public static final class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        // Guarded by the store's lock; set before the response future completes
+        private long size;
+        private boolean stored;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public CompletableFuture<StoredResponse> getResponse() {
+            return response;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.library.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of availability changes made by the {@link AvailabilityLedger} that
+ * are not yet written to the books table.
+ *
+ * Records are fixed 12-byte (book id, delta) pairs written to numbered segment files
+ * ({@code ledger-<segment>.journal}). A flush rotates to a new segment and deletes the old
+ * ones once their deltas are committed, so only unflushed changes are ever replayed.
+ */
+public class LedgerJournal implements AutoCloseable {
+
+    private static final String PREFIX = "ledger-";
+    private static final String SUFFIX = ".journal";
+    private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final boolean fsync;
+    // Held by borrow and return request threads across the file write (see VirtualThreadPinningMonitor)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private FileChannel channel;
+    private long segment;
+    private long records;
+
+    public LedgerJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create ledger journal directory " + directory, e);
+        }
+    }
+
+    /** Segments left on disk, oldest first. */
+    public List<Long> segments() {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Cannot list ledger journal segments in " + directory, e);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /** Net delta per book recorded in a segment; a torn trailing record is ignored. */
+    public Map<Long, Integer> read(long segment) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path(segment)));
+            while (buffer.remaining() >= RECORD_BYTES) {
+                deltas.merge(buffer.getLong(), buffer.getInt(), Integer::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ledger journal segment " + segment, e);
+        }
+        return deltas;
+    }
+
+    public void delete(long segment) {
+        try {
+            Files.deleteIfExists(path(segment));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete ledger journal segment " + segment, e);
+        }
+    }
+
+    /** Starts writing to the given segment number. */
+    public void open(long segment) {
+        lock.lock();
+        try {
+            closeChannel();
+            this.channel = FileChannel.open(path(segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.segment = segment;
+            this.records = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger journal segment " + segment, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Switches to the next segment and returns the one that was just closed. */
+    public long rotate() {
+        lock.lock();
+        try {
+            long closed = segment;
+            open(closed + 1);
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Whether anything was appended to the current segment. */
+    public boolean hasRecords() {
+        lock.lock();
+        try {
+            return records > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(long bookId, int delta) {
+        lock.lock();
+        try {
+            record.clear();
+            record.putLong(bookId).putInt(delta).flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            records++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to ledger journal segment " + segment, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeChannel();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close ledger journal segment " + segment, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private Path path(long segment) {
+        return directory.resolve(PREFIX + String.format("%012d", segment) + SUFFIX);
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.service;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code int} counts, for tallying
+ * transactions per book or user without a boxed key, value or entry per id.
+ *
+ * Linear probing over a power-of-two table that doubles past half full; keys are scrambled
+ * by a Fibonacci multiply so runs of sequential ids do not cluster. Key 0 is the empty-slot
+ * marker and is counted on the side. There is no removal. Not thread-safe.
+ */
+public final class LongIntCounter {
+
+    private static final int MIN_CAPACITY = 16;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int count);
+    }
+
+    private long[] keys;
+    private int[] counts;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroKeyCount;
+
+    public LongIntCounter(int expectedKeys) {
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("Expected keys must not be negative");
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedKeys * 2L) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroKeyCount += delta;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /** The key's count, 0 if it was never added. */
+    public int get(long key) {
+        if (key == 0) {
+            return zeroKeyCount;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Visits every key with its count, in no particular order. */
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroKeyCount);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long scrambled = key * 0x9E3779B97F4A7C15L;
+        return (int) (scrambled ^ (scrambled >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            counts[slot] = oldCounts[i];
+        }
+    }
+}
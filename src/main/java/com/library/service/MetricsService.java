@@ -1,24 +1,28 @@
 package com.library.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import com.library.entity.OutboxEvent;
 import com.library.repository.BookRepository;
 import com.library.repository.TransactionRepository;
 import com.library.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
-public class MetricsService {
+public class MetricsService implements OutboxSubscriber {
 
     private final MeterRegistry meterRegistry;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
+    private final OverdueScheduler overdueScheduler;
 
     private final Counter bookBorrowCounter;
     private final Counter bookReturnCounter;
@@ -35,12 +39,14 @@ public class MetricsService {
     public MetricsService(MeterRegistry meterRegistry,
                          BookRepository bookRepository,
                          UserRepository userRepository,
-                         TransactionRepository transactionRepository) {
+                         TransactionRepository transactionRepository,
+                         OverdueScheduler overdueScheduler) {
         
         this.meterRegistry = meterRegistry;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.transactionRepository = transactionRepository;
+        this.overdueScheduler = overdueScheduler;
         
         // Create counters
         this.bookBorrowCounter = Counter.builder("library.books.borrowed")
@@ -102,6 +108,20 @@ public class MetricsService {
                 .register(meterRegistry);
     }
 
+    /** Business counters follow committed outbox events rather than the request that caused them. */
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            switch (event.getType()) {
+                case BOOK_BORROWED -> incrementBookBorrowed();
+                case BOOK_RETURNED -> incrementBookReturned();
+                case BOOK_CREATED -> incrementBookCreated();
+                case BOOKS_IMPORTED -> incrementCsvImport(event.getQuantity());
+                case USER_REGISTERED -> incrementUserRegistration();
+            }
+        }
+    }
+
     // Custom metric methods
     public void incrementBookBorrowed() {
         bookBorrowCounter.increment();
@@ -158,6 +178,23 @@ public class MetricsService {
         }
     }
 
+    // Optimistic concurrency metrics, tagged by operation (borrow, return, cancel, ...)
+    public void incrementConcurrencyConflict(String operation) {
+        meterRegistry.counter("library.concurrency.conflicts", "operation", operation).increment();
+    }
+
+    public void incrementConcurrencyRetriesExhausted(String operation) {
+        meterRegistry.counter("library.concurrency.retries.exhausted", "operation", operation).increment();
+    }
+
+    public void recordConcurrencyAttempts(String operation, int attempts) {
+        DistributionSummary.builder("library.concurrency.attempts")
+                .description("Attempts needed to commit an optimistically locked operation")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(attempts);
+    }
+
     public void incrementActiveRequests() {
         activeTransactions.incrementAndGet();
     }
@@ -189,8 +226,7 @@ public class MetricsService {
     }
 
     private double getOverdueTransactions() {
-        return transactionRepository.findOverdueTransactions(
-            java.time.LocalDateTime.now()).size();
+        return overdueScheduler.getOverdueCount();
     }
 
     // Getter for MeterRegistry
@@ -0,0 +1,98 @@
+package com.library.service;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and retries it when it loses an optimistic
+ * locking race (a {@code @Version} check or a row lock timeout).
+ *
+ * Retries are bounded and use exponential backoff with full jitter, so contenders for the
+ * same row spread out instead of colliding again in lockstep. When called inside an
+ * existing transaction the work runs once: the outer transaction is already doomed by a
+ * conflict and only its owner can retry it.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final MetricsService metricsService;
+
+    @Value("${library.concurrency.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${library.concurrency.base-backoff-ms:5}")
+    private long baseBackoffMs;
+
+    @Value("${library.concurrency.max-backoff-ms:100}")
+    private long maxBackoffMs;
+
+    @Autowired
+    public OptimisticRetryExecutor(TransactionTemplate transactionTemplate,
+                                   EntityManager entityManager,
+                                   MetricsService metricsService) {
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.metricsService = metricsService;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> work.get());
+                metricsService.recordConcurrencyAttempts(operation, attempt);
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                metricsService.incrementConcurrencyConflict(operation);
+                // Drop stale entities still held by a request-scoped persistence context
+                entityManager.clear();
+
+                if (attempt >= maxAttempts) {
+                    metricsService.incrementConcurrencyRetriesExhausted(operation);
+                    metricsService.recordConcurrencyAttempts(operation, attempt);
+                    logger.warn("Giving up {} after {} conflicting attempts", operation, attempt);
+                    throw new RuntimeException("Could not complete " + operation
+                            + " due to concurrent updates, please try again", e);
+                }
+                logger.debug("Concurrent update during {} (attempt {}), retrying", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying a concurrent update", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.library.service;
+
+import com.library.entity.OutboxEvent;
+import com.library.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbox: every {@code library.outbox.poll-interval-ms} it reads committed,
+ * unpublished events in id order ({@code library.outbox.batch-size} at a time), hands each
+ * batch to every {@link OutboxSubscriber}, then marks it published with one UPDATE.
+ *
+ * A batch that a subscriber rejects is offered to that subscriber again one event at a time,
+ * so a single bad event cannot hold up the rest. Events still rejected stay unpublished and
+ * are offered to every subscriber on later polls; one that fails
+ * {@code library.outbox.max-attempts} times is left behind as a dead letter. Published events are deleted after
+ * {@code library.outbox.retention}.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Batches per poll, so a backlog cannot monopolise the shared scheduler thread
+    private static final int MAX_BATCHES_PER_POLL = 20;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock relayLock = new ReentrantLock();
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer lag;
+
+    @Value("${library.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${library.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${library.outbox.retention:1h}")
+    private Duration retention;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.published = Counter.builder("library.outbox.published")
+                .description("Outbox events delivered to subscribers")
+                .register(meterRegistry);
+        this.failed = Counter.builder("library.outbox.failed")
+                .description("Outbox event deliveries that a subscriber rejected")
+                .register(meterRegistry);
+        this.lag = Timer.builder("library.outbox.lag")
+                .description("Time from an event being recorded to its delivery")
+                .register(meterRegistry);
+        Gauge.builder("library.outbox.pending", this, relay -> relay.outboxEventRepository.countPending(relay.maxAttempts))
+                .description("Outbox events waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("library.outbox.dead", this, relay -> relay.outboxEventRepository.countDead(relay.maxAttempts))
+                .description("Outbox events that used up their delivery attempts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.poll-interval-ms:100}")
+    public void poll() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay failed", e);
+        }
+    }
+
+    /** Delivers pending events until the outbox is empty (or the per-poll cap); returns how many were published. */
+    public int relay() {
+        // Callers outside the schedule wait for an in-flight poll rather than skip
+        relayLock.lock();
+        try {
+            int delivered = 0;
+            for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+                List<OutboxEvent> events = outboxEventRepository.findPending(maxAttempts, PageRequest.of(0, batchSize));
+                if (events.isEmpty()) break;
+                delivered += deliver(events);
+                if (events.size() < batchSize) break;
+            }
+            return delivered;
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.purge-interval-ms:60000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            logger.debug("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private int deliver(List<OutboxEvent> events) {
+        Set<Long> rejected = new HashSet<>();
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEvents(events);
+            } catch (RuntimeException e) {
+                // Only this subscriber sees the batch again, one event at a time
+                logger.warn("{} rejected a batch of {} outbox events, retrying one by one: {}",
+                        subscriber.getClass().getSimpleName(), events.size(), e.getMessage());
+                for (OutboxEvent event : events) {
+                    try {
+                        subscriber.onEvents(List.of(event));
+                    } catch (RuntimeException eventFailure) {
+                        rejected.add(event.getId());
+                    }
+                }
+            }
+        }
+
+        List<OutboxEvent> delivered = events.stream().filter(event -> !rejected.contains(event.getId())).toList();
+        if (!delivered.isEmpty()) {
+            markPublished(delivered);
+        }
+        if (!rejected.isEmpty()) {
+            failed.increment(rejected.size());
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.incrementAttempts(rejected));
+            for (OutboxEvent event : events) {
+                if (rejected.contains(event.getId()) && event.getAttempts() + 1 >= maxAttempts) {
+                    logger.error("Outbox event {} ({}) gave up after {} attempts", event.getId(), event.getType(),
+                            maxAttempts);
+                }
+            }
+        }
+        return delivered.size();
+    }
+
+    private void markPublished(List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), now));
+        published.increment(events.size());
+        for (OutboxEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), now).toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.library.service;
+
+import com.library.entity.OutboxEvent;
+import com.library.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records domain events in the outbox table as part of the caller's transaction, so an event
+ * exists exactly when the change it describes committed. {@link OutboxRelay} delivers them.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    public void bookBorrowed(Long transactionId, Long userId, Long bookId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.BOOK_BORROWED, userId, bookId, transactionId));
+    }
+
+    public void bookReturned(Long transactionId, Long userId, Long bookId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.BOOK_RETURNED, userId, bookId, transactionId));
+    }
+
+    public void bookCreated(Long bookId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.BOOK_CREATED, null, bookId, null));
+    }
+
+    public void bookDeleted(Long bookId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.BOOK_DELETED, null, bookId, null));
+    }
+
+    public void booksImported(int count) {
+        OutboxEvent event = new OutboxEvent(OutboxEvent.Type.BOOKS_IMPORTED, null, null, null);
+        event.setQuantity(count);
+        outboxEventRepository.save(event);
+    }
+
+    public void userRegistered(Long userId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.USER_REGISTERED, userId, null, null));
+    }
+
+    public void userDeleted(Long userId) {
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.Type.USER_DELETED, userId, null, null));
+    }
+}
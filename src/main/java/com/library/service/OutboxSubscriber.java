@@ -0,0 +1,15 @@
+package com.library.service;
+
+import com.library.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Receives committed domain events from the {@link OutboxRelay}, in batches and in outbox
+ * order, on the relay's thread. Delivery is at least once: a batch that fails in any
+ * subscriber is offered again, so handlers should tolerate seeing an event twice.
+ */
+public interface OutboxSubscriber {
+
+    void onEvents(List<OutboxEvent> events);
+}
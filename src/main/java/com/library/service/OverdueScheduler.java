@@ -0,0 +1,270 @@
+package com.library.service;
+
+import com.library.entity.Transaction;
+import com.library.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves loans from ACTIVE to OVERDUE as their due dates pass.
+ *
+ * Every open loan's due date sits in a {@link HierarchicalTimingWheel}, loaded once at startup
+ * and fed by borrow, renew and extend. Each tick flips the loans that fell due with batched
+ * conditional UPDATEs ({@code library.overdue.batch-size} ids each). Entries are never
+ * removed: the UPDATE only touches loans that are still ACTIVE and past due, so a return or a
+ * later due date simply makes the old entry a no-op.
+ *
+ * The number of OVERDUE loans is kept as a counter (flips add to it, returns, renewals and
+ * extensions of overdue loans subtract after commit) and recounted every
+ * {@code library.overdue.reconcile-interval} to absorb edits made elsewhere.
+ */
+@Component
+public class OverdueScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueScheduler.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate flipTransaction;
+    private final ConcurrentLinkedQueue<Scheduled> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong overdueCount = new AtomicLong();
+
+    private final Counter flipped;
+    private final Timer flipTimer;
+
+    @Value("${library.overdue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.overdue.tick:1s}")
+    private Duration tick;
+
+    @Value("${library.overdue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.overdue.reconcile-interval:5m}")
+    private Duration reconcileInterval;
+
+    @Value("${library.overdue.load-page-size:10000}")
+    private int loadPageSize;
+
+    // Owned by the tick thread
+    private HierarchicalTimingWheel wheel;
+    private long nextReconcile;
+
+    private ScheduledExecutorService ticker;
+    private volatile boolean running;
+    private volatile boolean loaded;
+
+    @Autowired
+    public OverdueScheduler(TransactionRepository transactionRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.flipTransaction = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("library.overdue.scheduled", this, scheduler -> scheduler.scheduledCount())
+                .description("Due dates waiting in the timing wheel")
+                .register(meterRegistry);
+        this.flipped = Counter.builder("library.overdue.flipped")
+                .description("Loans moved to OVERDUE by the timing wheel")
+                .register(meterRegistry);
+        this.flipTimer = Timer.builder("library.overdue.flip")
+                .description("Time to flip one tick's worth of overdue loans")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        wheel = new HierarchicalTimingWheel(tick.toMillis(), System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        ticker.scheduleWithFixedDelay(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Loads every ACTIVE loan once the application (including data seeding) is up, in pages
+     * keyed by id so memory stays flat however many loans are open.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!running) return;
+        long started = System.nanoTime();
+        int count = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> page = transactionRepository.findActiveDueDatesAfter(afterId, PageRequest.of(0, loadPageSize));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                pending.add(new Scheduled(afterId, toMillis((LocalDateTime) row[1])));
+            }
+            count += page.size();
+            if (page.size() < loadPageSize) break;
+        }
+        overdueCount.set(transactionRepository.countByStatus(Transaction.TransactionStatus.OVERDUE));
+        loaded = true;
+        logger.info("Scheduled {} due dates in {} ms ({} loans already overdue)",
+                count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), overdueCount.get());
+    }
+
+    /**
+     * Schedules a loan's (new) due date once the caller's transaction commits, so a date that
+     * is already past is not flipped against the row as it stood before the change. Safe to call for loans
+     * already scheduled.
+     */
+    public void schedule(Long transactionId, LocalDateTime dueDate) {
+        if (!running || transactionId == null || dueDate == null) return;
+        Scheduled entry = new Scheduled(transactionId, toMillis(dueDate));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.add(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.add(entry);
+            }
+        });
+    }
+
+    /** An overdue loan was returned, cancelled or given a later due date; counted once committed. */
+    public void loanLeftOverdue() {
+        adjustAfterCommit(-1);
+    }
+
+    /** A loan was marked overdue by hand; counted once committed. */
+    public void loanBecameOverdue() {
+        adjustAfterCommit(1);
+    }
+
+    /** Loans were marked overdue outside the wheel (the batch sweep); counted once committed. */
+    public void loansBecameOverdue(int count) {
+        if (count > 0) {
+            adjustAfterCommit(count);
+        }
+    }
+
+    /** Loans with status OVERDUE, read from memory; falls back to a query when the wheel is off. */
+    public long getOverdueCount() {
+        if (!loaded) {
+            return transactionRepository.countOverdueTransactions(LocalDateTime.now());
+        }
+        return overdueCount.get();
+    }
+
+    /** Turns the wheel to now and flips everything that fell due. Runs on the tick thread. */
+    void tick() {
+        try {
+            for (Scheduled entry; (entry = pending.poll()) != null; ) {
+                wheel.add(entry.transactionId, entry.dueMillis);
+            }
+            List<Long> due = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            wheel.advanceTo(now, due::add);
+            if (!due.isEmpty()) {
+                flip(due);
+            }
+            if (loaded && now >= nextReconcile) {
+                overdueCount.set(transactionRepository.countByStatus(Transaction.TransactionStatus.OVERDUE));
+                nextReconcile = now + reconcileInterval.toMillis();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Overdue tick failed", e);
+        }
+    }
+
+    private void flip(List<Long> due) {
+        long started = System.nanoTime();
+        int total = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                Integer updated = flipTransaction.execute(status ->
+                        transactionRepository.markOverdue(batch, LocalDateTime.now()));
+                total += updated != null ? updated : 0;
+            } catch (RuntimeException e) {
+                // Try these again on the next tick
+                logger.warn("Could not mark {} loans overdue: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis();
+                batch.forEach(id -> pending.add(new Scheduled(id, retryAt)));
+            }
+        }
+        overdueCount.addAndGet(total);
+        flipped.increment(total);
+        flipTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (total > 0) {
+            logger.debug("Marked {} loans overdue ({} due entries)", total, due.size());
+        }
+    }
+
+    private void adjustAfterCommit(int delta) {
+        if (!loaded) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            overdueCount.addAndGet(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                overdueCount.addAndGet(delta);
+            }
+        });
+    }
+
+    private double scheduledCount() {
+        HierarchicalTimingWheel current = wheel;
+        return (current != null ? current.size() : 0) + pending.size();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Scheduled(long transactionId, long dueMillis) {}
+}
@@ -0,0 +1,60 @@
+package com.library.service;
+
+import com.library.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Marks every ACTIVE loan that is past due as OVERDUE, a chunk of ids per UPDATE.
+ *
+ * The {@link OverdueScheduler} does this continuously; the sweep is the nightly backstop
+ * for loans it missed (for example while it was disabled) and keeps its count in step.
+ */
+@Component
+public class OverdueSweepJob implements BatchJob<Long, Long> {
+
+    private final TransactionRepository transactionRepository;
+    private final OverdueScheduler overdueScheduler;
+
+    private volatile LocalDateTime now;
+
+    @Autowired
+    public OverdueSweepJob(TransactionRepository transactionRepository, OverdueScheduler overdueScheduler) {
+        this.transactionRepository = transactionRepository;
+        this.overdueScheduler = overdueScheduler;
+    }
+
+    @Override
+    public String name() {
+        return "overdue-sweep";
+    }
+
+    @Override
+    public void open() {
+        now = LocalDateTime.now();
+    }
+
+    @Override
+    public List<Long> read(long afterId, int limit) {
+        return transactionRepository.findOverdueCandidateIdsAfter(afterId, now, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long idOf(Long id) {
+        return id;
+    }
+
+    @Override
+    public Long process(Long id) {
+        return id;
+    }
+
+    @Override
+    public void write(List<Long> ids) {
+        overdueScheduler.loansBecameOverdue(transactionRepository.markOverdue(ids, now));
+    }
+}
@@ -0,0 +1,157 @@
+package com.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.entity.Transaction;
+import com.library.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a reminder for every open loan due within {@code library.batch.notices.lead-days}
+ * (and an overdue notice for every loan already past due) to a local outbox file, one JSON
+ * object per line, standing in for email.
+ *
+ * Each day's notices go to {@code notices-<date>.jsonl} in the outbox directory. A chunk's
+ * lines are forced to disk before its checkpoint commits, so a restart can repeat at most the
+ * last chunk; every notice carries a {@code noticeId} of transaction id and date to dedupe on.
+ */
+@Component
+public class ReminderNoticeJob implements BatchJob<ReminderNoticeJob.DueLoan, String> {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.batch.notices.lead-days:2}")
+    private int leadDays;
+
+    @Value("${library.batch.notices.outbox-dir:${java.io.tmpdir}/library-outbox}")
+    private Path outboxDirectory;
+
+    private volatile LocalDateTime now;
+    private FileChannel outbox;
+
+    @Autowired
+    public ReminderNoticeJob(TransactionRepository transactionRepository, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "reminder-notices";
+    }
+
+    @Override
+    public void open() {
+        now = LocalDateTime.now();
+        Path file = outboxFile(now.toLocalDate());
+        try {
+            Files.createDirectories(outboxDirectory);
+            outbox = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open notice outbox " + file, e);
+        }
+    }
+
+    /** The outbox file notices for the given day are appended to. */
+    public Path outboxFile(LocalDate day) {
+        return outboxDirectory.resolve("notices-" + DATE.format(day) + ".jsonl");
+    }
+
+    @Override
+    public List<DueLoan> read(long afterId, int limit) {
+        List<Object[]> rows = transactionRepository.findLoansDueByAfter(afterId, now.plusDays(leadDays),
+                PageRequest.of(0, limit));
+        List<DueLoan> loans = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            loans.add(new DueLoan((Long) row[0], (LocalDateTime) row[1], (Transaction.TransactionStatus) row[2],
+                    (String) row[3], (String) row[4], (String) row[5]));
+        }
+        return loans;
+    }
+
+    @Override
+    public long idOf(DueLoan loan) {
+        return loan.id();
+    }
+
+    @Override
+    public String process(DueLoan loan) {
+        if (loan.email() == null || loan.email().isBlank()) {
+            return null;
+        }
+        boolean overdue = loan.status() == Transaction.TransactionStatus.OVERDUE || loan.dueDate().isBefore(now);
+        String dueOn = DATE.format(loan.dueDate());
+        Notice notice = new Notice(
+                loan.id() + "-" + DATE.format(now),
+                overdue ? "OVERDUE" : "REMINDER",
+                loan.id(),
+                loan.email(),
+                overdue ? "Overdue: \"" + loan.title() + "\" was due " + dueOn
+                        : "Reminder: \"" + loan.title() + "\" is due " + dueOn,
+                "Hello " + (loan.firstName() != null ? loan.firstName() : "reader") + ",\n\n"
+                        + (overdue ? "Your loan of \"" + loan.title() + "\" was due on " + dueOn
+                                + ". Please return or renew it as soon as you can; late fees apply."
+                                : "Your loan of \"" + loan.title() + "\" is due on " + dueOn
+                                + ". Renew it online if you need more time."),
+                dueOn);
+        try {
+            return objectMapper.writeValueAsString(notice) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Cannot render notice for transaction " + loan.id(), e);
+        }
+    }
+
+    @Override
+    public void write(List<String> lines) {
+        StringBuilder chunk = new StringBuilder(lines.size() * 256);
+        lines.forEach(chunk::append);
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                outbox.write(buffer);
+            }
+            outbox.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to notice outbox", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (outbox == null) return;
+        try {
+            outbox.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close notice outbox", e);
+        } finally {
+            outbox = null;
+        }
+    }
+
+    public record DueLoan(Long id, LocalDateTime dueDate, Transaction.TransactionStatus status,
+                          String email, String firstName, String title) {}
+
+    public record Notice(String noticeId, String kind, Long transactionId, String to,
+                         String subject, String body, String dueDate) {}
+}
@@ -0,0 +1,347 @@
+package com.library.service;
+
+import com.library.dto.ReservationDto;
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.Transaction.TransactionStatus;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import com.library.service.ReservationWaitlist.Hold;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Reservations (transactions of type {@code RESERVE}) for books that are out of stock.
+ *
+ * Each book has a FIFO waitlist ({@link ReservationWaitlist}). A returned copy goes to the
+ * first waiter in the same transaction as the return, so it never reaches the shelf; the hold
+ * is then {@code READY} until it is collected with a normal borrow, cancelled, or expires
+ * after {@code library.reservations.pickup-days}, when the copy moves on to the next waiter.
+ * Patrons can long-poll a reservation or subscribe to their holds instead of polling the book.
+ */
+@Service
+@Transactional
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    private static final int MAX_OPEN_RESERVATIONS = 5;
+
+    private final TransactionRepository transactionRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final AvailabilityLedger availabilityLedger;
+    private final ReservationWaitlist waitlist;
+
+    @Value("${library.reservations.pickup-days:3}")
+    private int pickupDays;
+
+    @Autowired
+    public ReservationService(TransactionRepository transactionRepository,
+                              BookRepository bookRepository,
+                              UserRepository userRepository,
+                              OptimisticRetryExecutor retryExecutor,
+                              AvailabilityLedger availabilityLedger,
+                              ReservationWaitlist waitlist) {
+        this.transactionRepository = transactionRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.retryExecutor = retryExecutor;
+        this.availabilityLedger = availabilityLedger;
+        this.waitlist = waitlist;
+    }
+
+    /**
+     * Reserves a book. If a copy is on the shelf it is set aside at once and the hold is
+     * ready; otherwise the user joins the end of the book's waitlist.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ReservationDto reserve(Long userId, Long bookId) {
+        Transaction reservation = availabilityLedger.withRouting(bookId,
+                () -> retryExecutor.execute("reserve", () -> doReserve(userId, bookId)));
+        // The waitlist only sees committed reservations, so pick up a copy freed in between
+        drain(bookId);
+        return toDto(reservation);
+    }
+
+    private Transaction doReserve(Long userId, Long bookId) {
+        // Locked so a user's concurrent reserves pass the checks below one at a time
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+
+        if (transactionRepository.existsOpenReservation(userId, bookId)) {
+            throw new RuntimeException("User already has a reservation for this book");
+        }
+        if (transactionRepository.findActiveTransactionByUserAndBook(user, book).isPresent()) {
+            throw new RuntimeException("User already has this book borrowed");
+        }
+        if (transactionRepository.countOpenReservationsByUserId(userId) >= MAX_OPEN_RESERVATIONS) {
+            throw new RuntimeException("User has reached the maximum number of reservations");
+        }
+
+        Transaction reservation = new Transaction(user, book, Transaction.TransactionType.RESERVE);
+        LocalDateTime pickupBy = LocalDateTime.now().plusDays(pickupDays);
+        boolean ready = claimCopy(bookId);
+        if (ready) {
+            reservation.setStatus(TransactionStatus.READY);
+            reservation.setDueDate(pickupBy);
+        } else {
+            reservation.setStatus(TransactionStatus.WAITING);
+        }
+        Transaction saved = transactionRepository.save(reservation);
+
+        Hold hold = new Hold(saved.getId(), userId, bookId, saved.getCreatedAt());
+        afterCommit(() -> waitlist.add(ready ? hold.ready(pickupBy) : hold));
+        return saved;
+    }
+
+    public boolean hasWaiters(Long bookId) {
+        return waitlist.hasWaiters(bookId);
+    }
+
+    /**
+     * Gives a copy that is coming back (a return, a cancelled loan or hold) to the first
+     * patron waiting for the book, inside the caller's transaction: the hold becomes ready and
+     * the copy is not restocked. Returns false if nobody is waiting.
+     */
+    public boolean handOff(Long bookId) {
+        if (!waitlist.hasWaiters(bookId)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pickupBy = now.plusDays(pickupDays);
+        for (Hold hold; (hold = waitlist.poll(bookId)) != null; ) {
+            if (transactionRepository.transitionReservation(hold.getId(), TransactionStatus.WAITING,
+                    TransactionStatus.READY, pickupBy, now) > 0) {
+                Hold next = hold;
+                afterCompletion(committed -> {
+                    if (committed) {
+                        waitlist.markReady(next, pickupBy);
+                    } else {
+                        waitlist.restore(next);
+                    }
+                });
+                return true;
+            }
+            // Cancelled meanwhile; try the next one
+        }
+        return false;
+    }
+
+    /** Puts a copy back into circulation: to the next waiter, otherwise onto the shelf. */
+    public void restock(Long bookId) {
+        if (!handOff(bookId)) {
+            releaseCopy(bookId);
+        }
+    }
+
+    /**
+     * Collects the user's ready hold on a book as part of borrowing it. Returns true if there
+     * was one; its copy is already set aside, so the borrow must not claim another.
+     */
+    public boolean collect(Long userId, Long bookId) {
+        Hold hold = waitlist.find(userId, bookId);
+        if (hold == null || hold.getStatus() != TransactionStatus.READY) {
+            return false;
+        }
+        if (transactionRepository.transitionReservation(hold.getId(), TransactionStatus.READY,
+                TransactionStatus.COMPLETED, hold.getPickupBy(), LocalDateTime.now()) == 0) {
+            return false;
+        }
+        afterCommit(() -> waitlist.remove(hold, TransactionStatus.COMPLETED));
+        return true;
+    }
+
+    /** Cancels an open reservation; {@code userId} is the owner, or null when staff cancel it. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void cancelReservation(Long reservationId, Long userId) {
+        Hold hold = waitlist.get(reservationId);
+        if (hold == null) {
+            // Not open: report why
+            findReservation(reservationId, userId);
+            throw new RuntimeException("Only open reservations can be cancelled");
+        }
+        availabilityLedger.withRouting(hold.getBookId(), () -> {
+            retryExecutor.run("cancel-reservation", () -> doCancelReservation(hold, userId));
+            return null;
+        });
+    }
+
+    private void doCancelReservation(Hold hold, Long userId) {
+        Transaction reservation = findReservation(hold.getId(), userId);
+        TransactionStatus status = reservation.getStatus();
+        if (status != TransactionStatus.WAITING && status != TransactionStatus.READY) {
+            throw new RuntimeException("Only open reservations can be cancelled");
+        }
+        reservation.setStatus(TransactionStatus.CANCELLED);
+        transactionRepository.save(reservation);
+        if (status == TransactionStatus.READY) {
+            restock(hold.getBookId());
+        }
+        afterCommit(() -> waitlist.remove(hold, TransactionStatus.CANCELLED));
+    }
+
+    /**
+     * Completes when the reservation stops waiting: a copy is ready, or it was cancelled.
+     * Completes at once if it is not waiting any more.
+     */
+    public CompletableFuture<ReservationDto> awaitReady(Long reservationId, Long userId) {
+        Hold hold = waitlist.get(reservationId);
+        if (hold == null || hold.getStatus() != TransactionStatus.WAITING) {
+            return CompletableFuture.completedFuture(getReservation(reservationId, userId));
+        }
+        checkOwner(hold.getUserId(), userId);
+        return hold.getReady().thenApply(ready -> ReservationDto.from(ready, 0));
+    }
+
+    /** Calls the listener whenever one of the user's holds becomes ready or is closed. */
+    public Runnable subscribe(Long userId, Consumer<ReservationDto> listener) {
+        return waitlist.subscribe(userId, hold -> listener.accept(ReservationDto.from(hold, 0)));
+    }
+
+    public ReservationDto getReservation(Long reservationId, Long userId) {
+        return toDto(findReservation(reservationId, userId));
+    }
+
+    public List<ReservationDto> getOpenReservations(Long userId) {
+        return transactionRepository.findOpenReservationsByUserId(userId).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Expires holds not collected in time, passing their copies on, and gives waiters any
+     * copies that reached the shelf without being handed off (inventory added by staff, or a
+     * return that committed just as the reservation was placed).
+     */
+    @Scheduled(fixedDelayString = "${library.reservations.sweep-interval-ms:5000}")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Hold hold : waitlist.readyHolds()) {
+            if (hold.getPickupBy() != null && hold.getPickupBy().isBefore(now)) {
+                expire(hold);
+            }
+        }
+        for (Long bookId : waitlist.booksWithWaiters()) {
+            drain(bookId);
+        }
+    }
+
+    private void expire(Hold hold) {
+        try {
+            availabilityLedger.withRouting(hold.getBookId(), () -> {
+                retryExecutor.run("expire-reservation", () -> {
+                    // Collected or cancelled meanwhile
+                    if (transactionRepository.transitionReservation(hold.getId(), TransactionStatus.READY,
+                            TransactionStatus.CANCELLED, hold.getPickupBy(), LocalDateTime.now()) == 0) {
+                        return;
+                    }
+                    restock(hold.getBookId());
+                    afterCommit(() -> waitlist.remove(hold, TransactionStatus.CANCELLED));
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not expire reservation {}: {}", hold.getId(), e.getMessage());
+        }
+    }
+
+    /** Hands copies on the shelf to the book's waiters until one of them runs out. */
+    private void drain(Long bookId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Inside a caller's transaction; the next sweep catches up
+            return;
+        }
+        boolean handed = true;
+        while (handed && waitlist.hasWaiters(bookId)) {
+            handed = availabilityLedger.withRouting(bookId, () -> retryExecutor.execute("reservation", () -> {
+                if (!waitlist.hasWaiters(bookId) || !claimCopy(bookId)) {
+                    return false;
+                }
+                if (handOff(bookId)) {
+                    return true;
+                }
+                releaseCopy(bookId);
+                return false;
+            }));
+        }
+    }
+
+    private boolean claimCopy(Long bookId) {
+        if (availabilityLedger.isHeld(bookId)) {
+            return availabilityLedger.tryBorrow(bookId);
+        }
+        return bookRepository.tryBorrowCopy(bookId, LocalDateTime.now()) > 0;
+    }
+
+    private void releaseCopy(Long bookId) {
+        if (!availabilityLedger.releaseAfterCommit(bookId)) {
+            bookRepository.tryReturnCopy(bookId, LocalDateTime.now());
+        }
+    }
+
+    private Transaction findReservation(Long reservationId, Long userId) {
+        Transaction reservation = transactionRepository.findById(reservationId)
+                .filter(t -> t.getType() == Transaction.TransactionType.RESERVE)
+                .orElseThrow(() -> new RuntimeException("Reservation not found with id: " + reservationId));
+        checkOwner(reservation.getUser().getId(), userId);
+        return reservation;
+    }
+
+    private static void checkOwner(Long ownerId, Long userId) {
+        if (userId != null && !userId.equals(ownerId)) {
+            throw new RuntimeException("Reservation belongs to another user");
+        }
+    }
+
+    /** Adds the live queue position (and a hold made ready since the row was read). */
+    private ReservationDto toDto(Transaction reservation) {
+        ReservationDto dto = ReservationDto.from(reservation, 0);
+        Hold hold = waitlist.get(reservation.getId());
+        if (hold != null) {
+            dto.setStatus(hold.getStatus());
+            dto.setPickupBy(hold.getPickupBy());
+            dto.setPosition(waitlist.position(hold));
+        }
+        return dto;
+    }
+
+    private static void afterCommit(Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) action.run();
+        });
+    }
+
+    /** In-memory changes follow the database: applied on commit, or compensated on rollback. */
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,243 @@
+package com.library.service;
+
+import com.library.entity.Transaction.TransactionStatus;
+import com.library.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of open reservations: one FIFO queue of waiting holds per book, plus the
+ * holds that have a copy set aside for pickup. The {@code transactions} table (type
+ * {@code RESERVE}) is the record; this is rebuilt from it on startup, and
+ * {@link ReservationService} only changes it once the matching database change has committed
+ * (or undoes it on rollback).
+ *
+ * Waiters can block on {@link Hold#getReady()} or subscribe per user; both fire when the
+ * hold leaves the queue (ready, cancelled or fulfilled).
+ */
+@Component
+public class ReservationWaitlist implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationWaitlist.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TaskExecutor notifier;
+
+    // Empty queues are removed, so a key means the book has waiters
+    private final ConcurrentHashMap<Long, ArrayDeque<Hold>> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<HoldKey, Hold> holdsByUserAndBook = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, List<Consumer<Hold>>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running;
+
+    @Autowired
+    public ReservationWaitlist(TransactionRepository transactionRepository,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor notifier) {
+        this.transactionRepository = transactionRepository;
+        this.notifier = notifier;
+    }
+
+    @Override
+    public void start() {
+        List<Object[]> rows = transactionRepository.findOpenReservations();
+        for (Object[] row : rows) {
+            Hold hold = new Hold((Long) row[0], (Long) row[1], (Long) row[2], (LocalDateTime) row[4]);
+            hold.status = (TransactionStatus) row[3];
+            hold.pickupBy = (LocalDateTime) row[5];
+            add(hold);
+        }
+        running = true;
+        if (!rows.isEmpty()) {
+            logger.info("Restored {} open reservations ({} books with a waitlist)", rows.size(), queues.size());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Adds a committed reservation: to the back of its book's queue, or to the ready holds. */
+    public void add(Hold hold) {
+        hold.sequence = sequence.incrementAndGet();
+        holds.put(hold.id, hold);
+        holdsByUserAndBook.put(new HoldKey(hold.userId, hold.bookId), hold);
+        if (hold.status == TransactionStatus.WAITING) {
+            queues.compute(hold.bookId, (bookId, queue) -> {
+                if (queue == null) queue = new ArrayDeque<>();
+                queue.addLast(hold);
+                return queue;
+            });
+        } else {
+            hold.ready.complete(hold);
+        }
+    }
+
+    public boolean hasWaiters(Long bookId) {
+        return queues.containsKey(bookId);
+    }
+
+    public List<Long> booksWithWaiters() {
+        return new ArrayList<>(queues.keySet());
+    }
+
+    /** Takes the first waiter off a book's queue; {@link #restore} puts it back. */
+    public Hold poll(Long bookId) {
+        Hold[] polled = new Hold[1];
+        queues.computeIfPresent(bookId, (id, queue) -> {
+            polled[0] = queue.pollFirst();
+            return queue.isEmpty() ? null : queue;
+        });
+        return polled[0];
+    }
+
+    /** Returns a polled hold to its original place in the queue (its transaction rolled back). */
+    public void restore(Hold hold) {
+        queues.compute(hold.bookId, (bookId, queue) -> {
+            if (queue == null) queue = new ArrayDeque<>();
+            if (queue.isEmpty() || queue.peekFirst().sequence > hold.sequence) {
+                queue.addFirst(hold);
+            } else {
+                // Several holds of one book were polled in the same transaction
+                List<Hold> ordered = new ArrayList<>(queue);
+                ordered.add(hold);
+                ordered.sort(Comparator.comparingLong(h -> h.sequence));
+                queue = new ArrayDeque<>(ordered);
+            }
+            return queue;
+        });
+    }
+
+    /** Marks a polled hold as ready for pickup and tells whoever is waiting for it. */
+    public void markReady(Hold hold, LocalDateTime pickupBy) {
+        hold.pickupBy = pickupBy;
+        hold.status = TransactionStatus.READY;
+        hold.ready.complete(hold);
+        notifySubscribers(hold);
+    }
+
+    /** Forgets a hold that was fulfilled, cancelled or expired. */
+    public void remove(Hold hold, TransactionStatus status) {
+        if (!holds.remove(hold.id, hold)) return;
+        holdsByUserAndBook.remove(new HoldKey(hold.userId, hold.bookId), hold);
+        if (hold.status == TransactionStatus.WAITING) {
+            queues.computeIfPresent(hold.bookId, (bookId, queue) -> {
+                queue.remove(hold);
+                return queue.isEmpty() ? null : queue;
+            });
+        }
+        hold.status = status;
+        hold.ready.complete(hold);
+        notifySubscribers(hold);
+    }
+
+    public Hold get(Long reservationId) {
+        return holds.get(reservationId);
+    }
+
+    public Hold find(Long userId, Long bookId) {
+        return holdsByUserAndBook.get(new HoldKey(userId, bookId));
+    }
+
+    public List<Hold> readyHolds() {
+        return holds.values().stream().filter(hold -> hold.status == TransactionStatus.READY).toList();
+    }
+
+    /** 1-based place in the book's queue, or 0 if the hold is not waiting. */
+    public int position(Hold hold) {
+        int[] position = new int[1];
+        queues.computeIfPresent(hold.bookId, (bookId, queue) -> {
+            int index = 1;
+            for (Hold waiting : queue) {
+                if (waiting == hold) {
+                    position[0] = index;
+                    break;
+                }
+                index++;
+            }
+            return queue;
+        });
+        return position[0];
+    }
+
+    /** Calls the listener, off the committing thread, whenever one of the user's holds changes state. */
+    public Runnable subscribe(Long userId, Consumer<Hold> listener) {
+        subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.computeIfPresent(userId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    private void notifySubscribers(Hold hold) {
+        List<Consumer<Hold>> listeners = subscribers.get(hold.userId);
+        if (listeners == null) return;
+        for (Consumer<Hold> listener : listeners) {
+            notifier.execute(() -> listener.accept(hold));
+        }
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    private record HoldKey(long userId, long bookId) {}
+
+    /** One open reservation; identity is the reservation (transaction) id. */
+    public static final class Hold {
+        private final Long id;
+        private final Long userId;
+        private final Long bookId;
+        private final LocalDateTime reservedAt;
+        private final CompletableFuture<Hold> ready = new CompletableFuture<>();
+        private volatile TransactionStatus status = TransactionStatus.WAITING;
+        private volatile LocalDateTime pickupBy;
+        private long sequence;
+
+        public Hold(Long id, Long userId, Long bookId, LocalDateTime reservedAt) {
+            this.id = id;
+            this.userId = userId;
+            this.bookId = bookId;
+            this.reservedAt = reservedAt;
+        }
+
+        Hold ready(LocalDateTime pickupBy) {
+            this.status = TransactionStatus.READY;
+            this.pickupBy = pickupBy;
+            return this;
+        }
+
+        public Long getId() { return id; }
+        public Long getUserId() { return userId; }
+        public Long getBookId() { return bookId; }
+        public LocalDateTime getReservedAt() { return reservedAt; }
+        public TransactionStatus getStatus() { return status; }
+        public LocalDateTime getPickupBy() { return pickupBy; }
+
+        /** Completes once the hold stops waiting in the queue. */
+        public CompletableFuture<Hold> getReady() { return ready; }
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.service;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/** One row per iteration; the fallback when the Vector API is not available. */
+final class ScalarColumnKernels implements ColumnKernels {
+
+    static final ScalarColumnKernels INSTANCE = new ScalarColumnKernels();
+
+    private ScalarColumnKernels() {
+    }
+
+    @Override
+    public long countInRange(MemorySegment values, long rows, long lo, long hi) {
+        return countInRange(values, 0, rows, lo, hi);
+    }
+
+    @Override
+    public long countEqual(MemorySegment codes, long rows, byte code) {
+        return countEqual(codes, 0, rows, code);
+    }
+
+    @Override
+    public void countPerDay(MemorySegment timestamps, MemorySegment codes, long rows, byte code, long firstDay,
+                            long[] counts) {
+        countPerDay(timestamps, codes, 0, rows, code, firstDay, counts);
+    }
+
+    // Range forms, also used for the tail rows that do not fill a vector
+
+    static long countInRange(MemorySegment values, long from, long to, long lo, long hi) {
+        long count = 0;
+        for (long i = from; i < to; i++) {
+            long value = values.getAtIndex(ValueLayout.JAVA_LONG, i);
+            if (value >= lo && value <= hi) count++;
+        }
+        return count;
+    }
+
+    static long countEqual(MemorySegment codes, long from, long to, byte code) {
+        long count = 0;
+        for (long i = from; i < to; i++) {
+            if (codes.get(ValueLayout.JAVA_BYTE, i) == code) count++;
+        }
+        return count;
+    }
+
+    static void countPerDay(MemorySegment timestamps, MemorySegment codes, long from, long to, byte code,
+                            long firstDay, long[] counts) {
+        for (long i = from; i < to; i++) {
+            if (codes.get(ValueLayout.JAVA_BYTE, i) != code) continue;
+            long day = Math.floorDiv(timestamps.getAtIndex(ValueLayout.JAVA_LONG, i) - firstDay, SECONDS_PER_DAY);
+            if (day >= 0 && day < counts.length) counts[(int) day]++;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.library.service;
+
+/**
+ * Selects the {@code k} highest-scoring {@code long} keys from any number of offers, keeping
+ * only those {@code k} in a min-heap whose root is the weakest. An offer costs O(log k) at
+ * most, usually one comparison with the root, and nothing is allocated after construction;
+ * sorting every candidate to take the first few costs O(n log n) and an object per candidate.
+ *
+ * Equal scores rank the smaller key first, as a stable sort of id-ordered input would. For the
+ * {@code k} lowest, offer negated scores. Not thread-safe.
+ */
+public final class TopK {
+
+    private final long[] keys;
+    private final long[] scores;
+    private int size;
+
+    public TopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        keys = new long[k];
+        scores = new long[k];
+    }
+
+    public void offer(long key, long score) {
+        if (size < keys.length) {
+            keys[size] = key;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (ranksBelow(keys[0], scores[0], key, score)) {
+            keys[0] = key;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The selected keys, best first. Leaves the selector empty. */
+    public long[] drain() {
+        long[] best = new long[size];
+        while (size > 0) {
+            best[size - 1] = keys[0];
+            size--;
+            keys[0] = keys[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return best;
+    }
+
+    private static boolean ranksBelow(long key, long score, long otherKey, long otherScore) {
+        return score < otherScore || (score == otherScore && key > otherKey);
+    }
+
+    private boolean ranksBelow(int i, int j) {
+        return ranksBelow(keys[i], scores[i], keys[j], scores[j]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksBelow(i, parent)) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && ranksBelow(left, weakest)) weakest = left;
+            if (right < size && ranksBelow(right, weakest)) weakest = right;
+            if (weakest == i) return;
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
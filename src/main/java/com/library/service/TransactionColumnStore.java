@@ -0,0 +1,438 @@
+package com.library.service;
+
+import com.library.entity.OutboxEvent;
+import com.library.entity.Transaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Off-heap, column-per-field mirror of the transactions table for analytics scans.
+ *
+ * Each column is a {@link MemorySegment} indexed by transaction id (ids come from a sequence,
+ * so the id is the row's slot): timestamps as epoch seconds, user and book ids as ints, type
+ * and status as byte codes (enum ordinal + 1). Slots without a row read as zero, which no
+ * code and no analytics window matches, so scans need no presence check. Scans read the
+ * segments directly and allocate nothing per row.
+ *
+ * Built at startup in id-keyed pages, then kept current by re-reading the rows whose
+ * {@code updated_at} falls within {@code library.column-store.sync-window} of the last sync.
+ * Borrow/return events from the outbox only mark the store dirty; the poll every
+ * {@code library.column-store.sync-interval-ms} syncs when it is dirty, and at least every
+ * {@code library.column-store.idle-sync-interval} for changes that emit no event (renewals, the
+ * overdue sweep, fines). A rebuild every {@code library.column-store.rebuild-interval} absorbs
+ * anything a window missed. Deleting a book or user deletes its transactions with it, so their
+ * outbox events empty the matching slots. Timestamps have second resolution.
+ *
+ * Count scans run through {@link ColumnKernels}: Vector API kernels when the JVM has the
+ * incubator module and {@code library.column-store.vectorized} is on, scalar loops otherwise.
+ */
+@Component
+public class TransactionColumnStore implements OutboxSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionColumnStore.class);
+
+    private static final long SECONDS_PER_DAY = ColumnKernels.SECONDS_PER_DAY;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final long INITIAL_CAPACITY = 1024;
+
+    private static final String COLUMNS = "SELECT id, user_id, book_id, type, status, borrowed_at, due_date, " +
+            "returned_at, created_at FROM transactions ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer syncTimer;
+    private final Timer rebuildTimer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Value("${library.column-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.column-store.sync-window:30s}")
+    private Duration syncWindow;
+
+    @Value("${library.column-store.idle-sync-interval:10s}")
+    private Duration idleSyncInterval;
+
+    @Value("${library.column-store.rebuild-interval:1h}")
+    private Duration rebuildInterval;
+
+    @Value("${library.column-store.load-page-size:10000}")
+    private int loadPageSize;
+
+    @Value("${library.column-store.vectorized:true}")
+    private boolean vectorized;
+
+    private volatile ColumnKernels kernels = ColumnKernels.scalar();
+
+    // Replaced (never modified in place) when the store grows or is rebuilt
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    // One past the highest slot holding a row
+    private volatile long limit;
+    private volatile long rows;
+    private volatile boolean ready;
+    // Borrows or returns were relayed since the last sync
+    private volatile boolean dirty;
+
+    // Owned by the writer, under writeLock
+    private LocalDateTime lastSync;
+    private long nextSync;
+    private long nextRebuild;
+
+    @Autowired
+    public TransactionColumnStore(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncTimer = Timer.builder("library.column-store.load")
+                .description("Time to bring the off-heap transaction columns up to date")
+                .tag("kind", "sync")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("library.column-store.load")
+                .description("Time to bring the off-heap transaction columns up to date")
+                .tag("kind", "rebuild")
+                .register(meterRegistry);
+        Gauge.builder("library.column-store.rows", this, TransactionColumnStore::rowCount)
+                .description("Transactions mirrored in the off-heap column store")
+                .register(meterRegistry);
+        Gauge.builder("library.column-store.bytes", this, store -> store.columns.byteSize())
+                .description("Off-heap memory held by the transaction column store")
+                .register(meterRegistry);
+    }
+
+    /** Whether the initial build has finished; until then analytics read the database. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long rowCount() {
+        return rows;
+    }
+
+    /** Loads every transaction once the application (including data seeding) is up. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) return;
+        kernels = vectorized ? ColumnKernels.forPlatform() : ColumnKernels.scalar();
+        rebuild();
+    }
+
+    /** Replaces the columns with a fresh copy of the table, in pages keyed by id. */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            long started = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            Loader loader = new Loader(new Columns(Math.max(columns.capacity, INITIAL_CAPACITY)), 0, 0, false);
+            long afterId = 0;
+            while (true) {
+                int before = loader.loaded;
+                jdbcTemplate.query(COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?", loader, afterId, loadPageSize);
+                if (loader.loaded - before < loadPageSize) break;
+                afterId = loader.lastId;
+            }
+            columns = loader.target;
+            limit = loader.limit;
+            rows = loader.rows;
+            lastSync = startedAt;
+            nextSync = System.currentTimeMillis() + idleSyncInterval.toMillis();
+            nextRebuild = System.currentTimeMillis() + rebuildInterval.toMillis();
+            ready = true;
+            rebuildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            logger.info("Column store loaded {} transactions ({} KB off-heap) in {} ms", rows,
+                    columns.byteSize() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Re-reads the rows changed since the last sync (less the window). No-op before the first build. */
+    public void sync() {
+        writeLock.lock();
+        try {
+            if (!ready) return;
+            long started = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            Loader loader = new Loader(columns, limit, rows, true);
+            jdbcTemplate.query(COLUMNS + "WHERE updated_at >= ?", loader,
+                    Timestamp.valueOf(lastSync.minus(syncWindow)));
+            rows = loader.rows;
+            limit = loader.limit;
+            lastSync = startedAt;
+            nextSync = System.currentTimeMillis() + idleSyncInterval.toMillis();
+            syncTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.column-store.sync-interval-ms:1000}")
+    public void poll() {
+        if (!enabled || !ready) return;
+        try {
+            long now = System.currentTimeMillis();
+            if (now >= nextRebuild) {
+                dirty = false;
+                rebuild();
+            } else if (dirty || now >= nextSync) {
+                // Cleared first, so events relayed during the sync mark the next one
+                dirty = false;
+                sync();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Column store refresh failed; analytics keep the last loaded data", e);
+        }
+    }
+
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        // Not gated on ready: a build in progress may have read rows deleted since
+        if (!enabled) return;
+        for (OutboxEvent event : events) {
+            switch (event.getType()) {
+                // The next poll syncs once for every batch relayed since the last
+                case BOOK_BORROWED, BOOK_RETURNED -> dirty = true;
+                // Deleted rows never show up in a sync, so empty their slots here
+                case BOOK_DELETED -> forget(true, event.getBookId());
+                case USER_DELETED -> forget(false, event.getUserId());
+                default -> { }
+            }
+        }
+    }
+
+    /** Empties the slots of every transaction of a deleted book (or user), after any load in progress. */
+    private void forget(boolean byBook, long id) {
+        writeLock.lock();
+        try {
+            Columns c = columns;
+            MemorySegment ids = byBook ? c.bookId : c.userId;
+            long end = Math.min(limit, c.capacity);
+            long removed = 0;
+            for (long i = 0; i < end; i++) {
+                if (ids.getAtIndex(ValueLayout.JAVA_INT, i) != (int) id) continue;
+                // Status first: it is what marks the slot as holding a row
+                c.status.set(ValueLayout.JAVA_BYTE, i, (byte) 0);
+                c.type.set(ValueLayout.JAVA_BYTE, i, (byte) 0);
+                c.userId.setAtIndex(ValueLayout.JAVA_INT, i, 0);
+                c.bookId.setAtIndex(ValueLayout.JAVA_INT, i, 0);
+                c.createdAt.setAtIndex(ValueLayout.JAVA_LONG, i, 0);
+                c.borrowedAt.setAtIndex(ValueLayout.JAVA_LONG, i, 0);
+                c.dueDate.setAtIndex(ValueLayout.JAVA_LONG, i, 0);
+                c.returnedAt.setAtIndex(ValueLayout.JAVA_LONG, i, 0);
+                removed++;
+            }
+            rows -= removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Scans: read the columns published when the scan starts; nothing is allocated per row
+
+    /** Transactions created in {@code [from, to]}, like {@code findTransactionsByDateRange(...).size()}. */
+    public long countCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        Columns c = columns;
+        // Empty slots read as 0 (1970-01-01), so a window never starts that early
+        return kernels.countInRange(c.createdAt, Math.min(limit, c.capacity),
+                Math.max(epochSecond(from), 1), epochSecond(to));
+    }
+
+    public long countByType(Transaction.TransactionType type) {
+        return countCode(columns.type, code(type));
+    }
+
+    public long countByStatus(Transaction.TransactionStatus status) {
+        return countCode(columns.status, code(status));
+    }
+
+    /**
+     * Mean whole days from borrow to return over the transactions in {@code status}; rows
+     * missing either date count as zero days, as in the entity-based calculation.
+     */
+    public double averageLoanDays(Transaction.TransactionStatus status) {
+        Columns c = columns;
+        long end = Math.min(limit, c.capacity);
+        byte code = code(status);
+        long matched = 0;
+        long totalDays = 0;
+        for (long i = 0; i < end; i++) {
+            if (c.status.get(ValueLayout.JAVA_BYTE, i) != code) continue;
+            matched++;
+            long borrowed = c.borrowedAt.getAtIndex(ValueLayout.JAVA_LONG, i);
+            long returned = c.returnedAt.getAtIndex(ValueLayout.JAVA_LONG, i);
+            if (borrowed != NONE && returned != NONE) {
+                totalDays += (returned - borrowed) / SECONDS_PER_DAY;
+            }
+        }
+        return matched == 0 ? 0.0 : (double) totalDays / matched;
+    }
+
+    /** Transactions of {@code type} created on each of {@code days} days starting at {@code firstDay}. */
+    public long[] countPerDay(LocalDate firstDay, int days, Transaction.TransactionType type) {
+        Columns c = columns;
+        long[] counts = new long[days];
+        kernels.countPerDay(c.createdAt, c.type, Math.min(limit, c.capacity), code(type),
+                firstDay.toEpochSecond(LocalTime.MIDNIGHT, ZoneOffset.UTC), counts);
+        return counts;
+    }
+
+    /** Adds one to {@code counts} under the book id of every transaction. */
+    public void countPerBook(LongIntCounter counts) {
+        countPerId(true, counts);
+    }
+
+    /** Adds one to {@code counts} under the user id of every transaction. */
+    public void countPerUser(LongIntCounter counts) {
+        countPerId(false, counts);
+    }
+
+    private void countPerId(boolean byBook, LongIntCounter counts) {
+        Columns c = columns;
+        MemorySegment ids = byBook ? c.bookId : c.userId;
+        long end = Math.min(limit, c.capacity);
+        for (long i = 0; i < end; i++) {
+            int id = ids.getAtIndex(ValueLayout.JAVA_INT, i);
+            // Empty slots hold id 0
+            if (id != 0) counts.increment(id);
+        }
+    }
+
+    private long countCode(MemorySegment column, byte code) {
+        return kernels.countEqual(column, Math.min(limit, column.byteSize()), code);
+    }
+
+    private static byte code(Enum<?> value) {
+        return (byte) (value.ordinal() + 1);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long epochSecond(Timestamp time) {
+        return time == null ? NONE : epochSecond(time.toLocalDateTime());
+    }
+
+    /** One allocation of every column, sized for {@code capacity} slots. */
+    private static final class Columns {
+
+        final long capacity;
+        final MemorySegment createdAt;
+        final MemorySegment borrowedAt;
+        final MemorySegment dueDate;
+        final MemorySegment returnedAt;
+        final MemorySegment userId;
+        final MemorySegment bookId;
+        final MemorySegment type;
+        final MemorySegment status;
+
+        Columns(long capacity) {
+            this.capacity = capacity;
+            // Freed by the GC once no reader or writer holds this Columns
+            Arena arena = Arena.ofAuto();
+            this.createdAt = arena.allocate(capacity * Long.BYTES, Long.BYTES);
+            this.borrowedAt = arena.allocate(capacity * Long.BYTES, Long.BYTES);
+            this.dueDate = arena.allocate(capacity * Long.BYTES, Long.BYTES);
+            this.returnedAt = arena.allocate(capacity * Long.BYTES, Long.BYTES);
+            this.userId = arena.allocate(capacity * Integer.BYTES, Integer.BYTES);
+            this.bookId = arena.allocate(capacity * Integer.BYTES, Integer.BYTES);
+            this.type = arena.allocate(capacity, 1);
+            this.status = arena.allocate(capacity, 1);
+        }
+
+        Columns grownTo(long slots) {
+            Columns grown = new Columns(Math.max(slots, capacity * 2));
+            for (int column = 0; column < 8; column++) {
+                MemorySegment from = segment(column);
+                MemorySegment.copy(from, 0, grown.segment(column), 0, from.byteSize());
+            }
+            return grown;
+        }
+
+        private MemorySegment segment(int column) {
+            return switch (column) {
+                case 0 -> createdAt;
+                case 1 -> borrowedAt;
+                case 2 -> dueDate;
+                case 3 -> returnedAt;
+                case 4 -> userId;
+                case 5 -> bookId;
+                case 6 -> type;
+                default -> status;
+            };
+        }
+
+        long byteSize() {
+            return capacity * (4L * Long.BYTES + 2L * Integer.BYTES + 2);
+        }
+    }
+
+    /** Writes result rows into their slots, growing the columns as ids pass the capacity. */
+    private final class Loader implements RowCallbackHandler {
+
+        // A sync writes into the published columns; a rebuild fills a private copy
+        final boolean live;
+        Columns target;
+        long limit;
+        long rows;
+        long lastId;
+        int loaded;
+
+        Loader(Columns target, long limit, long rows, boolean live) {
+            this.target = target;
+            this.limit = limit;
+            this.rows = rows;
+            this.live = live;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long slot = rs.getLong(1);
+            if (slot >= target.capacity) {
+                target = target.grownTo(slot + 1);
+                if (live) {
+                    // Later writes go to the grown copy, so readers switch to it now
+                    columns = target;
+                }
+            }
+            Columns c = target;
+            boolean added = c.status.get(ValueLayout.JAVA_BYTE, slot) == 0;
+            c.userId.setAtIndex(ValueLayout.JAVA_INT, slot, (int) rs.getLong(2));
+            c.bookId.setAtIndex(ValueLayout.JAVA_INT, slot, (int) rs.getLong(3));
+            c.borrowedAt.setAtIndex(ValueLayout.JAVA_LONG, slot, epochSecond(rs.getTimestamp(6)));
+            c.dueDate.setAtIndex(ValueLayout.JAVA_LONG, slot, epochSecond(rs.getTimestamp(7)));
+            c.returnedAt.setAtIndex(ValueLayout.JAVA_LONG, slot, epochSecond(rs.getTimestamp(8)));
+            Timestamp created = rs.getTimestamp(9);
+            c.createdAt.setAtIndex(ValueLayout.JAVA_LONG, slot, created == null ? 0 : epochSecond(created));
+            String type = rs.getString(4);
+            c.type.set(ValueLayout.JAVA_BYTE, slot, type == null ? 0 : code(Transaction.TransactionType.valueOf(type)));
+            c.status.set(ValueLayout.JAVA_BYTE, slot, code(Transaction.TransactionStatus.valueOf(rs.getString(5))));
+            if (added) rows++;
+            limit = Math.max(limit, slot + 1);
+            lastId = slot;
+            loaded++;
+        }
+    }
+}
@@ -1,165 +1,458 @@
 package com.library.service;
 
+import com.library.dto.CirculationRequestDto;
+import com.library.dto.CirculationResultDto;
+import com.library.dto.TransactionView;
 import com.library.entity.Book;
 import com.library.entity.Transaction;
 import com.library.entity.User;
 import com.library.repository.BookRepository;
 import com.library.repository.TransactionRepository;
 import com.library.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class TransactionService {
+    
+    private static final int MAX_ACTIVE_LOANS = 5;
+    
       private final TransactionRepository transactionRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-    private final MetricsService metricsService;
+    private final OutboxService outboxService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final AvailabilityLedger availabilityLedger;
+    private final GroupCommitExecutor groupCommit;
+    private final ReservationService reservationService;
+    private final OverdueScheduler overdueScheduler;
+    private final EntityManager entityManager;
     
     @Autowired
     public TransactionService(TransactionRepository transactionRepository, 
                             BookRepository bookRepository, 
                             UserRepository userRepository,
-                            MetricsService metricsService) {
+                            OutboxService outboxService,
+                            OptimisticRetryExecutor retryExecutor,
+                            AvailabilityLedger availabilityLedger,
+                            GroupCommitExecutor groupCommit,
+                            ReservationService reservationService,
+                            OverdueScheduler overdueScheduler,
+                            EntityManager entityManager) {
         this.transactionRepository = transactionRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
-        this.metricsService = metricsService;
+        this.outboxService = outboxService;
+        this.retryExecutor = retryExecutor;
+        this.availabilityLedger = availabilityLedger;
+        this.groupCommit = groupCommit;
+        this.reservationService = reservationService;
+        this.overdueScheduler = overdueScheduler;
+        this.entityManager = entityManager;
     }
     
+    /**
+     * Borrow a copy of a book. Inventory is claimed with a single conditional UPDATE, so
+     * concurrent borrows of the same book can never oversell; the happy path is four
+     * round trips (user and loans, inventory update, book reload, insert). Hot titles held
+     * by the {@link AvailabilityLedger} are decided in memory and never update the book row.
+     * With group commit on, concurrent borrows and returns share one transaction. A ready
+     * reservation for the book is collected instead of claiming another copy.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction borrowBook(Long userId, Long bookId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        
-        // Check if book is available
-        if (!book.isAvailable()) {
-            throw new RuntimeException("Book is not available for borrowing");
+        availabilityLedger.recordAttempt(bookId);
+        return groupCommit.execute("borrow", bookId, () -> doBorrowBook(userId, bookId));
+    }
+    
+    private Transaction doBorrowBook(Long userId, Long bookId) {
+        // User and the books they currently hold, in one query
+        List<Object[]> rows = userRepository.findWithActiveBookIds(userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found with id: " + userId);
         }
-        
-        // Check if user already has this book borrowed
-        Optional<Transaction> existingTransaction = transactionRepository
-                .findActiveTransactionByUserAndBook(user, book);
-        
-        if (existingTransaction.isPresent()) {
-            throw new RuntimeException("User already has this book borrowed");
+        User user = (User) rows.get(0)[0];
+        long activeTransactions = 0;
+        for (Object[] row : rows) {
+            if (row[1] == null) continue;
+            if (bookId.equals(row[1])) {
+                throw new RuntimeException("User already has this book borrowed");
+            }
+            activeTransactions++;
         }
         
         // Check borrowing limit (e.g., max 5 books per user)
-        long activeTransactions = transactionRepository.countActiveTransactionsByUser(user);
-        if (activeTransactions >= 5) {
+        if (activeTransactions >= MAX_ACTIVE_LOANS) {
             throw new RuntimeException("User has reached the maximum borrowing limit");
         }
-          // Create transaction
-        Transaction transaction = new Transaction(user, book, Transaction.TransactionType.BORROW);
-        transaction.setStatus(Transaction.TransactionStatus.ACTIVE);
         
-        // Update book inventory
-        book.borrowCopy();
-        bookRepository.save(book);
+        Book book;
+        if (reservationService.collect(userId, bookId)) {
+            // The copy was set aside for this user when the hold became ready
+            book = currentBook(bookId);
+        } else if (availabilityLedger.isHeld(bookId)) {
+            // Hot title: the ledger decides and the books table catches up on its next flush;
+            // the row is only read (no lock) to build the response
+            if (!availabilityLedger.tryBorrow(bookId)) {
+                throw new RuntimeException("Book is not available for borrowing");
+            }
+            book = currentBook(bookId);
+        } else {
+            // Claim a copy; only look at the book again to explain a refusal
+            if (bookRepository.tryBorrowCopy(bookId, LocalDateTime.now()) == 0) {
+                if (!bookRepository.existsById(bookId)) {
+                    throw new RuntimeException("Book not found with id: " + bookId);
+                }
+                throw new RuntimeException("Book is not available for borrowing");
+            }
+            book = currentBook(bookId);
+        }
         
+        // Create transaction
+        Transaction transaction = new Transaction(user, book, Transaction.TransactionType.BORROW);
+        transaction.setStatus(Transaction.TransactionStatus.ACTIVE);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        overdueScheduler.schedule(savedTransaction.getId(), savedTransaction.getDueDate());
         
-        // Record metrics
-        metricsService.incrementBookBorrowed();
+        // Metrics and other side effects follow from the event once this commits
+        outboxService.bookBorrowed(savedTransaction.getId(), userId, bookId);
         
         return savedTransaction;
     }
     
-    public Transaction returnBook(Long userId, Long bookId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        Book book = bookRepository.findById(bookId)
+    /**
+     * Reads the book as the database has it now. Inventory moves with conditional UPDATEs that
+     * bypass the persistence context, so under group commit an earlier request in the same
+     * batch may have left this book there with its old counts. Detaching whatever is cached
+     * (a reference costs no SQL) makes the lookup read the row again; unlike a refresh, this
+     * does not cascade into the book's loans.
+     */
+    private Book currentBook(Long bookId) {
+        entityManager.detach(bookRepository.getReferenceById(bookId));
+        return bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Transaction returnBook(Long userId, Long bookId) {
+        return groupCommit.execute("return", bookId, () -> doReturnBook(userId, bookId));
+    }
+    
+    private Transaction doReturnBook(Long userId, Long bookId) {
+        // Update book inventory first so the book below is read in its new state; a full
+        // shelf is left as is, like Book.returnCopy(). Any refusal rolls this back. A book
+        // with a waitlist keeps its count: the copy goes straight to the next reserver.
+        boolean held = availabilityLedger.isHeld(bookId);
+        boolean reserved = reservationService.hasWaiters(bookId);
+        if (!held && !reserved) {
+            bookRepository.tryReturnCopy(bookId, LocalDateTime.now());
+        }
         
-        // Find active transaction
-        Transaction transaction = transactionRepository
-                .findActiveTransactionByUserAndBook(user, book)
-                .orElseThrow(() -> new RuntimeException("No active borrowing found for this book and user"));
-          // Mark transaction as returned
-        transaction.markAsReturned();
-        
-        // Update book inventory
-        book.returnCopy();
-        bookRepository.save(book);
+        // Find active transaction together with its user and book
+        Optional<Transaction> activeTransaction = transactionRepository
+                .findActiveTransactionWithUserAndBook(userId, bookId);
+        if (activeTransaction.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found with id: " + userId);
+            }
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found with id: " + bookId);
+            }
+            throw new RuntimeException("No active borrowing found for this book and user");
+        }
         
+        // Mark transaction as returned; a held book gets its copy back once this commits
+        Transaction transaction = activeTransaction.get();
+        closeLoan(transaction);
+        if (reserved) {
+            reservationService.restock(bookId);
+        } else if (held) {
+            availabilityLedger.releaseAfterCommit(bookId);
+        }
         Transaction savedTransaction = transactionRepository.save(transaction);
         
-        // Record metrics
-        metricsService.incrementBookReturned();
+        outboxService.bookReturned(savedTransaction.getId(), userId, bookId);
         
         return savedTransaction;
     }
     
-    public List<Transaction> getUserTransactionHistory(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    /**
+     * Borrows, returns or renews a stack of books for one user in a single transaction. Books
+     * and loans are looked up with set-based queries, the borrowing limit is applied once, and
+     * every book gets its own result: a refused book does not affect the others.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CirculationResultDto circulate(Long userId, CirculationRequestDto request) {
+        List<Long> requestedIds = request.getBookIds() != null ? request.getBookIds() : List.of();
+        List<String> requestedIsbns = request.getIsbns() != null ? request.getIsbns() : List.of();
+        if (requestedIds.isEmpty() && requestedIsbns.isEmpty()) {
+            throw new RuntimeException("No books given");
+        }
+        
+        // Resolve every scanned id and ISBN with one query each
+        Map<Long, Book> booksById = new HashMap<>();
+        if (!requestedIds.isEmpty()) {
+            bookRepository.findAllById(requestedIds).forEach(book -> booksById.put(book.getId(), book));
+        }
+        Map<String, Book> booksByIsbn = new HashMap<>();
+        if (!requestedIsbns.isEmpty()) {
+            bookRepository.findByIsbnIn(requestedIsbns).forEach(book -> booksByIsbn.put(book.getIsbn(), book));
+        }
+        
+        List<ScannedBook> scanned = new ArrayList<>(requestedIds.size() + requestedIsbns.size());
+        requestedIds.forEach(id -> scanned.add(new ScannedBook(booksById.get(id),
+                "Book not found with id: " + id, id, null)));
+        requestedIsbns.forEach(isbn -> scanned.add(new ScannedBook(booksByIsbn.get(isbn),
+                "Book not found with ISBN: " + isbn, null, isbn)));
+        Set<Long> bookIds = new HashSet<>(booksById.keySet());
+        booksByIsbn.values().forEach(book -> bookIds.add(book.getId()));
         
-        return transactionRepository.findUserTransactionHistory(user);
+        List<CirculationResultDto.ItemResult> items = availabilityLedger.withRouting(bookIds,
+                () -> retryExecutor.execute("circulation", () -> switch (request.getAction()) {
+                    case BORROW -> borrowScanned(userId, scanned);
+                    case RETURN -> returnScanned(userId, bookIds, scanned);
+                    case RENEW -> renewScanned(userId, bookIds, scanned);
+                }));
+        return new CirculationResultDto(userId, request.getAction(), items);
     }
     
-    public List<Transaction> getActiveTransactionsByUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    private List<CirculationResultDto.ItemResult> borrowScanned(Long userId, List<ScannedBook> scanned) {
+        List<Object[]> rows = userRepository.findWithActiveBookIds(userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        User user = (User) rows.get(0)[0];
+        Set<Object> borrowedBookIds = new HashSet<>();
+        rows.forEach(row -> { if (row[1] != null) borrowedBookIds.add(row[1]); });
+        int freeSlots = MAX_ACTIVE_LOANS - borrowedBookIds.size();
         
-        return transactionRepository.findByUserAndStatus(user, Transaction.TransactionStatus.ACTIVE);
+        CirculationResultDto.ItemResult[] items = new CirculationResultDto.ItemResult[scanned.size()];
+        Map<Integer, Transaction> created = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < scanned.size(); i++) {
+            ScannedBook entry = scanned.get(i);
+            String refusal = entry.refusal(seen);
+            if (refusal == null && borrowedBookIds.contains(entry.book.getId())) {
+                refusal = "User already has this book borrowed";
+            } else if (refusal == null && freeSlots <= 0) {
+                refusal = "User has reached the maximum borrowing limit";
+            } else if (refusal == null && !claimCopy(userId, entry.book.getId())) {
+                refusal = "Book is not available for borrowing";
+            }
+            if (refusal != null) {
+                items[i] = entry.failure(refusal);
+                continue;
+            }
+            
+            Transaction transaction = new Transaction(user, bookRepository.getReferenceById(entry.book.getId()),
+                    Transaction.TransactionType.BORROW);
+            transaction.setStatus(Transaction.TransactionStatus.ACTIVE);
+            created.put(i, transaction);
+            freeSlots--;
+        }
+        
+        transactionRepository.saveAll(created.values());
+        created.forEach((i, transaction) -> {
+            overdueScheduler.schedule(transaction.getId(), transaction.getDueDate());
+            items[i] = scanned.get(i).success(transaction);
+            outboxService.bookBorrowed(transaction.getId(), userId, transaction.getBook().getId());
+        });
+        return List.of(items);
     }
     
-    public List<Transaction> getBookTransactionHistory(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+    private List<CirculationResultDto.ItemResult> returnScanned(Long userId, Set<Long> bookIds,
+                                                                List<ScannedBook> scanned) {
+        Map<Long, Transaction> loans = activeLoans(userId, bookIds);
+        List<CirculationResultDto.ItemResult> items = new ArrayList<>(scanned.size());
+        Set<Long> seen = new HashSet<>();
+        for (ScannedBook entry : scanned) {
+            String refusal = entry.refusal(seen);
+            Transaction transaction = refusal == null ? loans.get(entry.book.getId()) : null;
+            if (refusal == null && transaction == null) {
+                refusal = "No active borrowing found for this book and user";
+            }
+            if (refusal != null) {
+                items.add(entry.failure(refusal));
+                continue;
+            }
+            
+            closeLoan(transaction);
+            reservationService.restock(entry.book.getId());
+            items.add(entry.success(transaction));
+            outboxService.bookReturned(transaction.getId(), userId, entry.book.getId());
+        }
+        return items;
+    }
+    
+    private List<CirculationResultDto.ItemResult> renewScanned(Long userId, Set<Long> bookIds,
+                                                               List<ScannedBook> scanned) {
+        Map<Long, Transaction> loans = activeLoans(userId, bookIds);
+        List<CirculationResultDto.ItemResult> items = new ArrayList<>(scanned.size());
+        Set<Long> seen = new HashSet<>();
+        for (ScannedBook entry : scanned) {
+            String refusal = entry.refusal(seen);
+            Transaction transaction = refusal == null ? loans.get(entry.book.getId()) : null;
+            if (refusal == null && transaction == null) {
+                refusal = "No active borrowing found for this book and user";
+            }
+            if (refusal != null) {
+                items.add(entry.failure(refusal));
+                continue;
+            }
+            
+            // A renewal starts a fresh loan period from today, overdue or not
+            reopenLoan(transaction, LocalDateTime.now().plusDays(Transaction.LOAN_PERIOD_DAYS));
+            items.add(entry.success(transaction));
+        }
+        return items;
+    }
+    
+    /** Marks a loan returned, keeping the overdue count in step. */
+    private void closeLoan(Transaction transaction) {
+        if (transaction.getStatus() == Transaction.TransactionStatus.OVERDUE) {
+            overdueScheduler.loanLeftOverdue();
+        }
+        transaction.markAsReturned();
+    }
+    
+    /** Gives a loan a new due date: an overdue loan due in the future is active again. */
+    private void reopenLoan(Transaction transaction, LocalDateTime dueDate) {
+        transaction.setDueDate(dueDate);
+        if (transaction.getStatus() == Transaction.TransactionStatus.OVERDUE && dueDate.isAfter(LocalDateTime.now())) {
+            transaction.setStatus(Transaction.TransactionStatus.ACTIVE);
+            overdueScheduler.loanLeftOverdue();
+        }
+        overdueScheduler.schedule(transaction.getId(), dueDate);
+    }
+    
+    private Map<Long, Transaction> activeLoans(Long userId, Set<Long> bookIds) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        Map<Long, Transaction> loans = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            transactionRepository.findActiveTransactionsByUserIdAndBookIds(userId, bookIds)
+                    .forEach(transaction -> loans.put(transaction.getBook().getId(), transaction));
+        }
+        return loans;
+    }
+    
+    private boolean claimCopy(Long userId, Long bookId) {
+        if (reservationService.collect(userId, bookId)) {
+            return true;
+        }
+        if (availabilityLedger.isHeld(bookId)) {
+            return availabilityLedger.tryBorrow(bookId);
+        }
+        return bookRepository.tryBorrowCopy(bookId, LocalDateTime.now()) > 0;
+    }
+    
+    /** One scanned book: resolved (or not) from the id or ISBN it was given as. */
+    private record ScannedBook(Book book, String notFound, Long requestedId, String requestedIsbn) {
         
-        return transactionRepository.findBookTransactionHistory(book);
+        String refusal(Set<Long> seen) {
+            if (book == null) return notFound;
+            if (!seen.add(book.getId())) return "Book was scanned more than once";
+            return null;
+        }
+        
+        CirculationResultDto.ItemResult failure(String message) {
+            return CirculationResultDto.ItemResult.failure(book != null ? book.getId() : requestedId,
+                    book != null ? book.getIsbn() : requestedIsbn, message);
+        }
+        
+        CirculationResultDto.ItemResult success(Transaction transaction) {
+            return CirculationResultDto.ItemResult.success(book.getId(), book.getIsbn(), book.getTitle(),
+                    transaction.getId(), transaction.getDueDate());
+        }
+    }
+    
+    public List<TransactionView> getUserTransactionHistory(Long userId) {
+        List<TransactionView> history = transactionRepository.findHistoryViewsByUserId(userId);
+        // Only look the user up to explain an empty result
+        if (history.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        return history;
     }
     
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public List<TransactionView> getActiveTransactionsByUser(Long userId) {
+        List<TransactionView> active = transactionRepository.findActiveViewsByUserId(userId);
+        if (active.isEmpty() && !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        return active;
+    }
+    
+    public List<TransactionView> getBookTransactionHistory(Long bookId) {
+        List<TransactionView> history = transactionRepository.findHistoryViewsByBookId(bookId);
+        if (history.isEmpty() && !bookRepository.existsById(bookId)) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+        return history;
+    }
+    
+    public List<TransactionView> getAllTransactions() {
+        return transactionRepository.findAllViews();
     }
     
-    public List<Transaction> getOverdueTransactions() {
-        return transactionRepository.findOverdueTransactions(LocalDateTime.now());
+    public List<TransactionView> getOverdueTransactions() {
+        return transactionRepository.findOverdueViews(LocalDateTime.now());
     }
     
-    public List<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findTransactionsByDateRange(startDate, endDate);
+    public List<TransactionView> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return transactionRepository.findViewsByDateRange(startDate, endDate);
     }
     
-    public Optional<Transaction> findById(Long id) {
-        return transactionRepository.findById(id);
+    public Optional<TransactionView> findById(Long id) {
+        return transactionRepository.findViewById(id);
     }
     
-    public Transaction updateTransaction(Long id, Transaction updatedTransaction) {
-        return transactionRepository.findById(id)
+    public TransactionView updateTransaction(Long id, Transaction updatedTransaction) {
+        // Loaded with its user and book so the response needs no further queries
+        return transactionRepository.findWithUserAndBookById(id)
                 .map(transaction -> {
                     transaction.setStatus(updatedTransaction.getStatus());
                     transaction.setNotes(updatedTransaction.getNotes());
                     transaction.setDueDate(updatedTransaction.getDueDate());
-                    return transactionRepository.save(transaction);
+                    return TransactionView.from(transactionRepository.save(transaction));
                 })
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + id));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void cancelTransaction(Long id) {
+        retryExecutor.run("cancel", () -> doCancelTransaction(id));
+    }
+    
+    private void doCancelTransaction(Long id) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + id));
         
-        if (transaction.getStatus() == Transaction.TransactionStatus.ACTIVE) {
+        if (transaction.isOpenLoan()) {
+            if (transaction.getStatus() == Transaction.TransactionStatus.OVERDUE) {
+                overdueScheduler.loanLeftOverdue();
+            }
             transaction.setStatus(Transaction.TransactionStatus.CANCELLED);
             
-            // If it was a borrow transaction, return the book to inventory
+            // If it was a borrow transaction, return the book to inventory, or to the next reserver
+            // (not fenced by the ledger's routing lock, which can only hide a copy, never oversell)
             if (transaction.getType() == Transaction.TransactionType.BORROW) {
-                Book book = transaction.getBook();
-                book.returnCopy();
-                bookRepository.save(book);
+                reservationService.restock(transaction.getBook().getId());
             }
             
             transactionRepository.save(transaction);
@@ -175,6 +468,7 @@ public class TransactionService {
         if (transaction.getStatus() == Transaction.TransactionStatus.ACTIVE) {
             transaction.setStatus(Transaction.TransactionStatus.OVERDUE);
             transactionRepository.save(transaction);
+            overdueScheduler.loanBecameOverdue();
         }
     }
     
@@ -182,8 +476,8 @@ public class TransactionService {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + id));
         
-        if (transaction.getStatus() == Transaction.TransactionStatus.ACTIVE) {
-            transaction.setDueDate(newDueDate);
+        if (transaction.isOpenLoan()) {
+            reopenLoan(transaction, newDueDate);
             transactionRepository.save(transaction);
         } else {
             throw new RuntimeException("Only active transactions can have their due date extended");
@@ -1,6 +1,7 @@
 package com.library.service;
 
 import com.library.dto.UserRegistrationDto;
+import com.library.dto.UserView;
 import com.library.entity.User;
 import com.library.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,13 +21,13 @@ public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final MetricsService metricsService;
+    private final OutboxService outboxService;
     
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, MetricsService metricsService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, OutboxService outboxService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.metricsService = metricsService;
+        this.outboxService = outboxService;
     }
     
     @Override
@@ -59,14 +60,13 @@ public class UserService implements UserDetailsService {
         
         User savedUser = userRepository.save(user);
         
-        // Record metrics
-        metricsService.incrementUserRegistration();
+        outboxService.userRegistered(savedUser.getId());
         
         return savedUser;
     }
     
-    public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+    public Optional<UserView> findById(Long id) {
+        return userRepository.findViewById(id);
     }
     
     public Optional<User> findByUsername(String username) {
@@ -77,16 +77,16 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email);
     }
     
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public List<UserView> findAllUsers() {
+        return userRepository.findAllViews();
     }
     
     public List<User> findActiveUsers() {
         return userRepository.findAllActiveUsers();
     }
     
-    public List<User> searchUsers(String searchTerm) {
-        return userRepository.searchUsers(searchTerm);
+    public List<UserView> searchUsers(String searchTerm) {
+        return userRepository.searchViews(searchTerm);
     }
     
     public User updateUser(Long id, User updatedUser) {
@@ -138,6 +138,7 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        outboxService.userDeleted(id);
     }
     
     public boolean existsByUsername(String username) {
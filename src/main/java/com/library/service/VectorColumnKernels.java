@@ -0,0 +1,78 @@
+package com.library.service;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Kernels on the JDK Vector API at the platform's preferred width: a range test is two lane-wise
+ * compares ANDed into a mask, a code match one compare, and the mask's population count is the
+ * block's contribution. Rows past the last whole vector go through the scalar loops.
+ *
+ * Only loaded through {@link ColumnKernels#forPlatform()} once the incubator module is known to
+ * be present.
+ */
+final class VectorColumnKernels implements ColumnKernels {
+
+    static final VectorColumnKernels INSTANCE = new VectorColumnKernels();
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private VectorColumnKernels() {
+    }
+
+    @Override
+    public long countInRange(MemorySegment values, long rows, long lo, long hi) {
+        int lanes = LONGS.length();
+        long bound = rows - rows % lanes;
+        long count = 0;
+        for (long i = 0; i < bound; i += lanes) {
+            LongVector block = LongVector.fromMemorySegment(LONGS, values, i * Long.BYTES, ORDER);
+            count += block.compare(VectorOperators.GE, lo).and(block.compare(VectorOperators.LE, hi)).trueCount();
+        }
+        return count + ScalarColumnKernels.countInRange(values, bound, rows, lo, hi);
+    }
+
+    @Override
+    public long countEqual(MemorySegment codes, long rows, byte code) {
+        int lanes = BYTES.length();
+        long bound = rows - rows % lanes;
+        long count = 0;
+        for (long i = 0; i < bound; i += lanes) {
+            count += ByteVector.fromMemorySegment(BYTES, codes, i, ORDER).eq(code).trueCount();
+        }
+        return count + ScalarColumnKernels.countEqual(codes, bound, rows, code);
+    }
+
+    /**
+     * Tests whole vectors of timestamps against the window first. Analytics windows are a few
+     * recent days, so most blocks have no lane inside and skip the code and day work entirely.
+     */
+    @Override
+    public void countPerDay(MemorySegment timestamps, MemorySegment codes, long rows, byte code, long firstDay,
+                            long[] counts) {
+        int lanes = LONGS.length();
+        long bound = rows - rows % lanes;
+        long end = firstDay + counts.length * SECONDS_PER_DAY;
+        for (long i = 0; i < bound; i += lanes) {
+            LongVector block = LongVector.fromMemorySegment(LONGS, timestamps, i * Long.BYTES, ORDER);
+            VectorMask<Long> inWindow = block.compare(VectorOperators.GE, firstDay)
+                    .and(block.compare(VectorOperators.LT, end));
+            if (!inWindow.anyTrue()) continue;
+            for (int lane = inWindow.firstTrue(); lane < lanes; lane++) {
+                if (inWindow.laneIsSet(lane) && codes.get(ValueLayout.JAVA_BYTE, i + lane) == code) {
+                    counts[(int) ((block.lane(lane) - firstDay) / SECONDS_PER_DAY)]++;
+                }
+            }
+        }
+        ScalarColumnKernels.countPerDay(timestamps, codes, bound, rows, code, firstDay, counts);
+    }
+}
@@ -0,0 +1,102 @@
+-- Schema for the persistent (file-backed H2) profile. Applied on every start before Hibernate
+-- validates the mappings, so each statement must be safe to re-run against an existing store:
+-- add tables with CREATE ... IF NOT EXISTS and later columns with ALTER ... ADD COLUMN IF NOT EXISTS.
+-- Enums are stored as VARCHAR so new constants need no migration.
+-- Ids come from sequences that step by the entities' allocationSize (50); Hibernate hands out the
+-- block starting at each value it fetches (pooled-lo), and raw SQL inserts take NEXT VALUE FOR.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    address VARCHAR(255),
+    role VARCHAR(32),
+    enabled BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT NOT NULL PRIMARY KEY,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    publisher VARCHAR(255),
+    publication_year INTEGER,
+    category VARCHAR(255) NOT NULL,
+    description TEXT,
+    total_copies INTEGER NOT NULL,
+    available_copies INTEGER NOT NULL,
+    price NUMERIC(38, 2),
+    language VARCHAR(255),
+    pages INTEGER,
+    status VARCHAR(32),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    type VARCHAR(32),
+    status VARCHAR(32),
+    borrowed_at TIMESTAMP(6),
+    due_date TIMESTAMP(6),
+    returned_at TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    notes VARCHAR(255),
+    version BIGINT,
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS fine_amount NUMERIC(10, 2);
+
+CREATE TABLE IF NOT EXISTS batch_checkpoints (
+    job_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    run_id BIGINT,
+    status VARCHAR(32),
+    last_id BIGINT,
+    items_read BIGINT,
+    items_written BIGINT,
+    items_filtered BIGINT,
+    started_at TIMESTAMP(6),
+    finished_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    last_error VARCHAR(1000)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    user_id BIGINT,
+    book_id BIGINT,
+    transaction_id BIGINT,
+    quantity INTEGER NOT NULL,
+    created_at TIMESTAMP(6),
+    published_at TIMESTAMP(6),
+    attempts INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_books_category_copies ON books (category, total_copies, available_copies);
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox_events (published_at, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_updated_at ON transactions (updated_at);
+
+-- Stores created before the sequences had identity columns; restarting past the highest id on every
+-- start covers them, and only skips the unused rest of the last allocated blocks otherwise
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+ALTER SEQUENCE books_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM books);
+ALTER SEQUENCE transactions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM transactions);
+ALTER SEQUENCE outbox_events_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM outbox_events);
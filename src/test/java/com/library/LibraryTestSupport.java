@@ -0,0 +1,93 @@
+package com.library;
+
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Helpers shared by the Spring Boot tests. Every test class runs against the same in-memory
+ * database, so usernames and ISBNs carry a suffix seeded from {@link System#nanoTime()} to
+ * stay unique.
+ */
+public final class LibraryTestSupport {
+
+    private static final AtomicLong SUFFIX = new AtomicLong(System.nanoTime());
+
+    private LibraryTestSupport() {
+    }
+
+    /** The prefix followed by a suffix no other call in this JVM returns. */
+    public static String unique(String prefix) {
+        return prefix + SUFFIX.incrementAndGet();
+    }
+
+    /** A patron named {@code <prefix><suffix>}, not yet saved, for tests that adjust it first. */
+    public static User newUser(String prefix) {
+        String username = unique(prefix);
+        return new User(username, "password", username + "@test.local", "Test", "User");
+    }
+
+    public static User createUser(UserRepository userRepository, String prefix) {
+        return userRepository.save(newUser(prefix));
+    }
+
+    /** Saves {@code count} users named {@code <prefix><suffix>_<i>} and returns their ids. */
+    public static List<Long> createUsers(UserRepository userRepository, String prefix, int count) {
+        String unique = unique(prefix) + "_";
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User(unique + i, "password", unique + i + "@test.local", "Test", "User" + i);
+            ids.add(userRepository.save(user).getId());
+        }
+        return ids;
+    }
+
+    /** A Fiction title by "Test Author" with ISBN {@code <isbnPrefix><suffix>}. */
+    public static Book createBook(BookRepository bookRepository, String isbnPrefix, String title, int copies) {
+        return createBook(bookRepository, isbnPrefix, title, "Fiction", copies);
+    }
+
+    public static Book createBook(BookRepository bookRepository, String isbnPrefix, String title, String category,
+                                  int copies) {
+        return bookRepository.save(new Book(unique(isbnPrefix), title, "Test Author", category, copies));
+    }
+
+    /**
+     * Runs the task once per user id, each on its own thread, all released together. Rethrows
+     * the first failure and gives up after a minute.
+     */
+    public static void runConcurrently(List<Long> userIds, UserTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(userIds.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(userId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public interface UserTask {
+        void run(Long userId);
+    }
+}
@@ -0,0 +1,142 @@
+package com.library.config;
+
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+@AutoConfigureMockMvc
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User patron;
+    private Book book;
+
+    @BeforeEach
+    void createPatronAndBook() {
+        patron = createUser(userRepository, "idem");
+        book = createBook(bookRepository, "IDEM-", "Retry Title", 3);
+    }
+
+    @Test
+    void replayReturnsStoredResponseWithoutBorrowingAgain() throws Exception {
+        MvcResult first = mockMvc.perform(borrow("key-1")).andReturn();
+        MvcResult replay = mockMvc.perform(borrow("key-1")).andReturn();
+
+        assertThat(first.getResponse().getStatus()).isEqualTo(200);
+        assertThat(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(replay.getResponse().getStatus()).isEqualTo(200);
+        assertThat(replay.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replay.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(activeLoans()).isEqualTo(1);
+        assertThat(availableCopies()).isEqualTo(2);
+
+        // A different key is a new request, which the service refuses as a duplicate loan
+        MvcResult fresh = mockMvc.perform(borrow("key-2")).andReturn();
+        assertThat(fresh.getResponse().getContentAsString()).contains("\"failed\":1");
+        assertThat(activeLoans()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        mockMvc.perform(borrow("key-1")).andReturn();
+
+        MvcResult reused = mockMvc.perform(circulate("RETURN", "key-1")).andReturn();
+
+        assertThat(reused.getResponse().getStatus()).isEqualTo(422);
+        assertThat(activeLoans()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MvcResult>> futures = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(borrow("burst")).andReturn();
+                }));
+            }
+            start.countDown();
+
+            int replayed = 0;
+            for (Future<MvcResult> future : futures) {
+                MvcResult result = future.get(60, TimeUnit.SECONDS);
+                assertThat(result.getResponse().getStatus()).isEqualTo(200);
+                if ("true".equals(result.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER))) {
+                    replayed++;
+                }
+            }
+            assertThat(replayed).isEqualTo(duplicates - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(activeLoans()).isEqualTo(1);
+    }
+
+    private MockHttpServletRequestBuilder borrow(String key) {
+        return circulate("BORROW", key);
+    }
+
+    private MockHttpServletRequestBuilder circulate(String action, String key) {
+        return post("/api/transactions/circulation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"action\":\"" + action + "\",\"bookIds\":[" + book.getId() + "]}")
+                .header(IdempotencyFilter.KEY_HEADER, key)
+                .with(user(patron));
+    }
+
+    private long activeLoans() {
+        return transactionRepository.findByBook(book).stream()
+                .filter(t -> t.getStatus() == Transaction.TransactionStatus.ACTIVE)
+                .count();
+    }
+
+    private int availableCopies() {
+        return bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies();
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.config;
+
+import com.library.LibraryManagementApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void dataSurvivesARestartAndTheSchemaValidatesAgainstTheReopenedStore() {
+        long users;
+        long transactions;
+        try (ConfigurableApplicationContext first = start()) {
+            JdbcTemplate jdbc = first.getBean(JdbcTemplate.class);
+            users = count(jdbc, "users");
+            transactions = count(jdbc, "transactions");
+            assertThat(users).isPositive();
+            jdbc.update("UPDATE books SET description = 'kept across restarts' WHERE id = 1");
+        }
+        assertThat(Files.exists(dataDir.resolve("library_db.mv.db"))).isTrue();
+
+        // Reopening skips seeding and sees the committed change
+        try (ConfigurableApplicationContext second = start()) {
+            JdbcTemplate jdbc = second.getBean(JdbcTemplate.class);
+            assertThat(count(jdbc, "users")).isEqualTo(users);
+            assertThat(count(jdbc, "transactions")).isEqualTo(transactions);
+            assertThat(jdbc.queryForObject("SELECT description FROM books WHERE id = 1", String.class))
+                    .isEqualTo("kept across restarts");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .run("--LIBRARY_DATA_DIR=" + dataDir,
+                        "--library.ledger.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--management.tracing.enabled=false");
+    }
+
+    private static long count(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
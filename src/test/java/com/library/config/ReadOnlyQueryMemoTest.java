@@ -0,0 +1,127 @@
+package com.library.config;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.unique;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global; keep background pollers from adding statements mid-test
+        "library.outbox.poll-interval-ms=3600000",
+        "library.reservations.sweep-interval-ms=3600000",
+        "library.overdue.enabled=false",
+        "management.tracing.enabled=false"
+})
+class ReadOnlyQueryMemoTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private String category;
+
+    @BeforeEach
+    void createBooks() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        category = unique("memo-");
+        createBook(bookRepository, "M1-", "Memo One", category, 1);
+        createBook(bookRepository, "M2-", "Memo Two", category, 1);
+    }
+
+    @Test
+    void identicalReadsInReadOnlyTransactionRunOnce() {
+        double reusedBefore = reused();
+        statistics.clear();
+
+        transaction(true).executeWithoutResult(status -> {
+            List<Book> first = bookRepository.findByCategory(category);
+            List<Book> second = bookRepository.findByCategory(category);
+            assertThat(second).isSameAs(first).hasSize(2);
+            assertThat(bookRepository.findByCategory(category + "-other")).isEmpty();
+            assertThat(bookRepository.countByAvailableCopiesGreaterThan(0))
+                    .isEqualTo(bookRepository.countByAvailableCopiesGreaterThan(0));
+            // Same inherited method on another repository is a different read
+            assertThat(userRepository.count()).isNotEqualTo(bookRepository.count());
+        });
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(reused() - reusedBefore).isEqualTo(2);
+    }
+
+    @Test
+    void eachTransactionStartsWithAnEmptyMemo() {
+        List<Book> first = transaction(true).execute(status -> bookRepository.findByCategory(category));
+        bookRepository.save(new Book("M3-" + category, "Memo Three", "Memo Author", category, 1));
+        List<Book> second = transaction(true).execute(status -> bookRepository.findByCategory(category));
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(3);
+    }
+
+    @Test
+    void readWriteTransactionsAreNotMemoized() {
+        statistics.clear();
+
+        transaction(false).executeWithoutResult(status -> {
+            assertThat(bookRepository.findByCategory(category)).hasSize(2);
+            bookRepository.save(new Book("M4-" + category, "Memo Four", "Memo Author", category, 1));
+            assertThat(bookRepository.findByCategory(category)).hasSize(3);
+        });
+
+        // A suspended read-only memo does not leak into a new read-write transaction either
+        transaction(true).executeWithoutResult(outer -> {
+            assertThat(bookRepository.findByCategory(category)).hasSize(3);
+            TransactionTemplate inner = transaction(false);
+            inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            inner.executeWithoutResult(status -> {
+                bookRepository.save(new Book("M5-" + category, "Memo Five", "Memo Author", category, 1));
+                assertThat(bookRepository.findByCategory(category)).hasSize(4);
+            });
+        });
+    }
+
+    private double reused() {
+        return meterRegistry.find("library.query.memo.reused").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+}
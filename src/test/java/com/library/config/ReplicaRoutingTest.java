@@ -0,0 +1,84 @@
+package com.library.config;
+
+import com.library.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:library_replica_primary",
+        "library.replica.enabled=true",
+        "library.replica.name=library_replica_test",
+        // Only the test refreshes, so it controls what the replica has seen
+        "library.replica.refresh-interval=1h",
+        "library.replica.max-lag=1500ms",
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private AnalyticsReplica analyticsReplica;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaUntilItFallsBehind() throws InterruptedException {
+        String category = "replica-" + System.nanoTime();
+        assertThat(analyticsReplica.refresh()).isTrue();
+
+        assertThat(database(false)).isEqualTo("LIBRARY_REPLICA_PRIMARY");
+        assertThat(database(true)).startsWith("LIBRARY_REPLICA_TEST_");
+        assertThat(analyticsService.generateDashboard()).isNotNull();
+
+        // A write lands on the primary and reaches readers with the next snapshot
+        write(category);
+        assertThat(countReadOnly(category)).isZero();
+        assertThat(analyticsReplica.refresh()).isTrue();
+        assertThat(countReadOnly(category)).isEqualTo(1);
+
+        // Past max-lag, reads go to the primary and see writes immediately
+        write(category);
+        Thread.sleep(1600);
+        assertThat(analyticsReplica.isServingReads()).isFalse();
+        assertThat(database(true)).isEqualTo("LIBRARY_REPLICA_PRIMARY");
+        assertThat(countReadOnly(category)).isEqualTo(2);
+    }
+
+    private void write(String category) {
+        transaction(false).executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO books (id, isbn, title, author, category, total_copies, available_copies, status, version,"
+                        + " created_at, updated_at) VALUES (NEXT VALUE FOR books_seq, ?, 'Replica', 'Test', ?, 1, 1,"
+                        + " 'AVAILABLE', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                "R" + System.nanoTime(), category));
+    }
+
+    private long countReadOnly(String category) {
+        return transaction(true).execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE category = ?", Long.class, category));
+    }
+
+    private String database(boolean readOnly) {
+        return transaction(readOnly).execute(status ->
+                jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+}
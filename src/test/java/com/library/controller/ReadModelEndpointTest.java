@@ -0,0 +1,111 @@
+package com.library.controller;
+
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global; keep background pollers from adding statements mid-request
+        "library.outbox.poll-interval-ms=3600000",
+        "library.reservations.sweep-interval-ms=3600000",
+        "library.overdue.enabled=false",
+        "management.tracing.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadModelEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User patron;
+    private User admin;
+    private Book book;
+
+    @BeforeEach
+    void createUsersAndBook() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        patron = newUser("view");
+        patron.setPassword("secret-hash");
+        patron = userRepository.save(patron);
+        admin = newUser("viewadmin");
+        admin.setPassword("secret-hash");
+        admin.setRole(User.Role.ADMIN);
+        admin = userRepository.save(admin);
+        book = createBook(bookRepository, "VIEW-", "Projected Title", 2);
+    }
+
+    @Test
+    void borrowAndReturnRespondWithFlatTransactions() throws Exception {
+        String borrowed = ok(post("/api/transactions/borrow").param("bookId", book.getId().toString()).with(user(patron)));
+        assertThat(borrowed).contains("\"username\":\"" + patron.getUsername() + "\"")
+                .contains("\"bookTitle\":\"Projected Title\"")
+                .contains("\"status\":\"ACTIVE\"")
+                .doesNotContain("secret-hash");
+
+        String returned = ok(post("/api/transactions/return").param("bookId", book.getId().toString()).with(user(patron)));
+        assertThat(returned).contains("\"status\":\"COMPLETED\"").contains("\"returnedAt\":\"").doesNotContain("secret-hash");
+    }
+
+    @Test
+    void listAndDetailEndpointsRunOneQuery() throws Exception {
+        ok(post("/api/transactions/borrow").param("bookId", book.getId().toString()).with(user(patron)));
+
+        assertThat(queries(get("/api/transactions/my-history").with(user(patron)))).isEqualTo(1);
+        assertThat(queries(get("/api/transactions/book/" + book.getId()).with(user(admin)))).isEqualTo(1);
+        assertThat(queries(get("/api/transactions/all").with(user(admin)))).isEqualTo(1);
+        assertThat(queries(get("/api/books").with(user(patron)))).isEqualTo(1);
+        assertThat(queries(get("/api/books/" + book.getId()).with(user(patron)))).isEqualTo(1);
+
+        statistics.clear();
+        String users = ok(get("/api/users").with(user(admin)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(users).contains(patron.getUsername()).doesNotContain("secret-hash").doesNotContain("password");
+    }
+
+    private long queries(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        ok(request);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private String ok(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).as(result.getResponse().getContentAsString()).isEqualTo(200);
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.performance;
+
+import com.library.repository.TransactionRepository;
+import com.library.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the analytics endpoints against N+1 query patterns and full-table materialization.
+ *
+ * The seeded dataset has 1000 users and 500 books, so a per-user or per-book query loop
+ * shows up as hundreds of statements.
+ */
+class AnalyticsServicePerformanceTest extends PerformanceTestSupport {
+
+    // Aggregates, column store scans and a handful of lookups for the ranked books and users
+    private static final long MAX_DASHBOARD_STATEMENTS = 25;
+    private static final long MAX_DASHBOARD_ALLOCATED_BYTES = 20_000_000;
+
+    // Dashboard against loading the whole transaction table once
+    private static final double MAX_DASHBOARD_TO_SCAN_RATIO = 40;
+
+    // The dashboard is expensive enough that a few samples give a stable median
+    private static final int DASHBOARD_WARMUP_ITERATIONS = 3;
+    private static final int DASHBOARD_MEASURED_ITERATIONS = 5;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void dashboardStaysWithinQueryAndAllocationBudget() {
+        warmUp(analyticsService::generateDashboard, DASHBOARD_WARMUP_ITERATIONS);
+        Measurement dashboard = measure(analyticsService::generateDashboard);
+
+        assertThat(dashboard.statements()).as("statements per dashboard")
+                .isLessThanOrEqualTo(MAX_DASHBOARD_STATEMENTS);
+        assertThat(dashboard.allocatedBytes()).as("bytes allocated per dashboard")
+                .isLessThanOrEqualTo(MAX_DASHBOARD_ALLOCATED_BYTES);
+    }
+
+    @Test
+    void dashboardLatencyStaysProportionalToTransactionScan() {
+        long scan = medianNanos(transactionRepository::findAll);
+        long dashboard = medianNanos(analyticsService::generateDashboard,
+                DASHBOARD_WARMUP_ITERATIONS, DASHBOARD_MEASURED_ITERATIONS);
+
+        assertThat((double) dashboard / scan)
+                .as("dashboard median (%d ns) relative to findAll median (%d ns)", dashboard, scan)
+                .isLessThanOrEqualTo(MAX_DASHBOARD_TO_SCAN_RATIO);
+    }
+}
@@ -0,0 +1,115 @@
+package com.library.performance;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Base class for the performance regression suite (run with {@code mvn test -Pperf}).
+ *
+ * Every test class shares one application context seeded by the synthetic data generator
+ * with a fixed seed and size, so query counts and allocation are reproducible.
+ * Latency is asserted relative to a reference operation measured in the same JVM, which
+ * keeps the bounds independent of the machine running the build.
+ */
+@Tag("performance")
+@ActiveProfiles("synthetic-data")
+@SpringBootTest(properties = {
+        "library.synthetic.seed=29",
+        "library.synthetic.users=1000",
+        "library.synthetic.books=500",
+        "library.synthetic.transactions=20000",
+        "library.synthetic.batch-size=1000",
+        "spring.datasource.url=jdbc:h2:mem:library_perf",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        // Budgets cover the database path; repeated borrows must not promote books into the ledger
+        "library.ledger.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.tracing.enabled=false",
+        "logging.level.com.library=INFO",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+abstract class PerformanceTestSupport {
+
+    protected static final int WARMUP_ITERATIONS = 20;
+    protected static final int MEASURED_ITERATIONS = 30;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    /** JDBC statements, bytes allocated on the calling thread and wall time of one call. */
+    protected record Measurement(long statements, long allocatedBytes, long nanos) {
+    }
+
+    protected Measurement measure(Runnable call) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        statistics.clear();
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        call.run();
+        long nanos = System.nanoTime() - start;
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement(statistics.getPrepareStatementCount(), allocated, nanos);
+    }
+
+    protected void warmUp(Runnable call) {
+        warmUp(call, WARMUP_ITERATIONS);
+    }
+
+    protected void warmUp(Runnable call, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+    }
+
+    /** Median wall time over {@link #MEASURED_ITERATIONS} calls, after warmup. */
+    protected long medianNanos(Runnable call) {
+        return medianNanos(call, WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+    }
+
+    protected long medianNanos(Runnable call, int warmupIterations, int measuredIterations) {
+        warmUp(call, warmupIterations);
+        long[] samples = new long[measuredIterations];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            call.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    protected long userWithoutLoans() {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(u.id) FROM users u WHERE u.role = 'USER' AND u.enabled = TRUE AND NOT EXISTS " +
+                "(SELECT 1 FROM transactions t WHERE t.user_id = u.id AND t.status IN ('ACTIVE', 'OVERDUE'))", Long.class);
+    }
+
+    protected long bookWithSpareCopies() {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM books WHERE available_copies >= 2", Long.class);
+    }
+}
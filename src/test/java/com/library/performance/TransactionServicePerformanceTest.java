@@ -0,0 +1,79 @@
+package com.library.performance;
+
+import com.library.repository.BookRepository;
+import com.library.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the borrow/return write paths against extra queries, allocation growth and
+ * latency regressions.
+ */
+class TransactionServicePerformanceTest extends PerformanceTestSupport {
+
+    // Statement budgets per call: borrow = user with loans, conditional inventory update, book
+    // reload, insert, outbox insert; return = conditional inventory update, loan lookup, loan
+    // update, outbox insert. Each insert may also fetch a new block of 50 ids from its sequence.
+    private static final long MAX_BORROW_STATEMENTS = 5 + 2;
+    private static final long MAX_RETURN_STATEMENTS = 4 + 1;
+
+    private static final long MAX_BORROW_ALLOCATED_BYTES = 400_000;
+    private static final long MAX_RETURN_ALLOCATED_BYTES = 400_000;
+
+    // Borrow + return against a primary key lookup of a book
+    private static final double MAX_BORROW_RETURN_TO_LOOKUP_RATIO = 60;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private long userId;
+    private long bookId;
+
+    @BeforeEach
+    void pickUserAndBook() {
+        userId = userWithoutLoans();
+        bookId = bookWithSpareCopies();
+        warmUp(this::borrowAndReturn);
+    }
+
+    @Test
+    void borrowBookStaysWithinQueryAndAllocationBudget() {
+        Measurement borrow = measure(() -> transactionService.borrowBook(userId, bookId));
+        transactionService.returnBook(userId, bookId);
+
+        assertThat(borrow.statements()).as("statements per borrow").isLessThanOrEqualTo(MAX_BORROW_STATEMENTS);
+        assertThat(borrow.allocatedBytes()).as("bytes allocated per borrow")
+                .isLessThanOrEqualTo(MAX_BORROW_ALLOCATED_BYTES);
+    }
+
+    @Test
+    void returnBookStaysWithinQueryAndAllocationBudget() {
+        transactionService.borrowBook(userId, bookId);
+        Measurement returned = measure(() -> transactionService.returnBook(userId, bookId));
+
+        assertThat(returned.statements()).as("statements per return").isLessThanOrEqualTo(MAX_RETURN_STATEMENTS);
+        assertThat(returned.allocatedBytes()).as("bytes allocated per return")
+                .isLessThanOrEqualTo(MAX_RETURN_ALLOCATED_BYTES);
+    }
+
+    @Test
+    void borrowAndReturnLatencyStaysProportionalToPrimaryKeyLookup() {
+        long lookup = medianNanos(() -> bookRepository.findById(bookId));
+        long borrowAndReturn = medianNanos(this::borrowAndReturn);
+
+        assertThat((double) borrowAndReturn / lookup)
+                .as("borrow+return median (%d ns) relative to findById median (%d ns)", borrowAndReturn, lookup)
+                .isLessThanOrEqualTo(MAX_BORROW_RETURN_TO_LOOKUP_RATIO);
+    }
+
+    private void borrowAndReturn() {
+        transactionService.borrowBook(userId, bookId);
+        transactionService.returnBook(userId, bookId);
+    }
+}
@@ -0,0 +1,218 @@
+package com.library.service;
+
+import com.library.dto.AnalyticsDashboardDto;
+import com.library.dto.BookCategoryAggregate;
+import com.library.dto.BookView;
+import com.library.dto.UserRoleAggregate;
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static com.library.LibraryTestSupport.newUser;
+import static com.library.LibraryTestSupport.unique;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class AnalyticsAggregateTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionColumnStore columnStore;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String category;
+
+    @BeforeEach
+    void createUsersBooksAndLoans() {
+        category = unique("agg-");
+        User borrower = createUser(userRepository, "agg");
+        User librarian = newUser("agglib");
+        librarian.setRole(User.Role.LIBRARIAN);
+        userRepository.save(librarian);
+        User lastMonth = createUser(userRepository, "aggold");
+        lastMonth.setCreatedAt(LocalDate.now().withDayOfMonth(1).atStartOfDay().minusDays(3));
+        userRepository.save(lastMonth);
+
+        Book borrowed = createBook(bookRepository, "AGG1-", "Aggregate One", category, 1);
+        createBook(bookRepository, "AGG2-", "Aggregate Two", category, 3);
+        transactionService.borrowBook(borrower.getId(), borrowed.getId());
+    }
+
+    @Test
+    void userAggregatesMatchThePerMetricCounts() {
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime lastMonthStart = monthStart.minusMonths(1);
+        List<UserRoleAggregate> aggregates = userRepository.aggregateByRole(monthStart, lastMonthStart);
+
+        assertThat(aggregates.stream().mapToLong(UserRoleAggregate::users).sum()).isEqualTo(userRepository.count());
+        assertThat(aggregates.stream().mapToLong(UserRoleAggregate::activeUsers).sum())
+                .isEqualTo(userRepository.countUsersWithActiveTransactions()).isPositive();
+        assertThat(aggregates.stream().mapToLong(UserRoleAggregate::newThisMonth).sum())
+                .isEqualTo(userRepository.countUsersByCreatedAtAfter(monthStart));
+        assertThat(aggregates.stream().mapToLong(UserRoleAggregate::newLastMonth).sum())
+                .isEqualTo(userRepository.countUsersByCreatedAtBetween(lastMonthStart, monthStart)).isPositive();
+        for (UserRoleAggregate aggregate : aggregates) {
+            assertThat(aggregate.users()).isEqualTo(userRepository.countByRole(aggregate.role()));
+        }
+    }
+
+    @Test
+    void bookAggregatesMatchThePerMetricCounts() {
+        List<BookCategoryAggregate> aggregates = bookRepository.aggregateByCategory();
+
+        assertThat(aggregates.stream().mapToLong(BookCategoryAggregate::books).sum()).isEqualTo(bookRepository.count());
+        assertThat(aggregates.stream().mapToLong(BookCategoryAggregate::availableBooks).sum())
+                .isEqualTo(bookRepository.countByAvailableCopiesGreaterThan(0));
+        assertThat(aggregates.stream().mapToLong(BookCategoryAggregate::totalCopies).sum())
+                .isEqualTo(bookRepository.getTotalCopies());
+        assertThat(aggregates.stream().mapToLong(BookCategoryAggregate::availableCopies).sum())
+                .isEqualTo(bookRepository.getTotalAvailableCopies());
+        assertThat(aggregates).contains(new BookCategoryAggregate(category, 2, 1, 4, 3));
+    }
+
+    @Test
+    void highDemandBooksArePagedAndCategoryUtilizationIsAggregated() {
+        String demandCategory = category + "-demand";
+        Book hot = new Book("HOT-" + category, "Hot Title", "Agg Author", demandCategory, 10);
+        hot.setAvailableCopies(1);
+        bookRepository.save(hot);
+        Book busy = new Book("BUSY-" + category, "Busy Title", "Agg Author", demandCategory, 10);
+        busy.setAvailableCopies(2);
+        bookRepository.save(busy);
+
+        Page<BookView> all = analyticsService.getHighDemandBooks(PageRequest.of(0, 200));
+        assertThat(all.getContent()).extracting(BookView::title).contains("Hot Title").doesNotContain("Busy Title");
+        assertThat(all.getContent()).allMatch(book -> book.availableCopies() * 5 < book.totalCopies());
+
+        Page<BookView> first = analyticsService.getHighDemandBooks(PageRequest.of(0, 1));
+        assertThat(first.getContent()).hasSize(1);
+        assertThat(first.getTotalElements()).isEqualTo(all.getTotalElements());
+
+        AnalyticsDashboardDto dashboard = analyticsService.generateDashboard();
+        assertThat(dashboard.getInventoryAnalytics().getHighDemandBooks()).contains("Hot Title");
+        assertThat(dashboard.getInventoryAnalytics().getCategoryUtilization())
+                .containsEntry(demandCategory, 85.0)
+                .containsEntry(category, 25.0);
+        assertThat(analyticsService.getCategoryInventory())
+                .contains(new BookCategoryAggregate(demandCategory, 2, 2, 20, 3));
+    }
+
+    @Test
+    void dashboardReportsTheAggregatedKpis() {
+        AnalyticsDashboardDto dashboard = analyticsService.generateDashboard();
+
+        AnalyticsDashboardDto.UserAnalyticsDto users = dashboard.getUserAnalytics();
+        assertThat(users.getTotalUsers()).isEqualTo(userRepository.count());
+        assertThat(users.getActiveUsers()).isEqualTo(userRepository.countUsersWithActiveTransactions());
+        assertThat(users.getUsersByRole()).containsOnlyKeys("USER", "LIBRARIAN", "ADMIN");
+        assertThat(users.getUsersByRole().get("LIBRARIAN")).isEqualTo(userRepository.countByRole(User.Role.LIBRARIAN));
+
+        AnalyticsDashboardDto.BookAnalyticsDto books = dashboard.getBookAnalytics();
+        assertThat(books.getTotalBooks()).isEqualTo(bookRepository.count());
+        assertThat(books.getBooksByCategory()).containsEntry(category, 2L);
+        assertThat(books.getBorrowedBooks())
+                .isEqualTo(bookRepository.getTotalCopies() - bookRepository.getTotalAvailableCopies());
+
+        AnalyticsDashboardDto.InventoryAnalyticsDto inventory = dashboard.getInventoryAnalytics();
+        assertThat(inventory.getTotalCopies()).isEqualTo(bookRepository.getTotalCopies());
+        assertThat(inventory.getAvailableCopies()).isEqualTo(bookRepository.getTotalAvailableCopies());
+    }
+
+    @Test
+    void popularityRankingsMatchASortOfEveryBookAndUser() {
+        columnStore.sync();
+        AnalyticsDashboardDto dashboard = analyticsService.generateDashboard();
+
+        List<Book> books = bookRepository.findAll().stream().sorted(Comparator.comparing(Book::getId)).toList();
+        Comparator<Book> byBorrows = Comparator.comparingLong(book -> transactionRepository.findByBook(book).size());
+        assertThat(dashboard.getBookAnalytics().getMostBorrowedBooks())
+                .extracting(AnalyticsDashboardDto.PopularBookDto::getTitle)
+                .containsExactlyElementsOf(books.stream().sorted(byBorrows.reversed()).limit(10).map(Book::getTitle).toList());
+        assertThat(dashboard.getBookAnalytics().getLeastBorrowedBooks())
+                .extracting(AnalyticsDashboardDto.PopularBookDto::getTitle)
+                .containsExactlyElementsOf(books.stream().sorted(byBorrows).limit(5).map(Book::getTitle).toList());
+        assertThat(dashboard.getBookAnalytics().getMostBorrowedBooks().get(0).getBorrowCount())
+                .isEqualTo(books.stream().mapToLong(book -> transactionRepository.findByBook(book).size()).max().orElseThrow());
+
+        List<User> users = userRepository.findAll().stream().sorted(Comparator.comparing(User::getId)).toList();
+        Comparator<User> byTransactions = Comparator.comparingLong(user -> transactionRepository.findByUser(user).size());
+        assertThat(dashboard.getUserAnalytics().getTopActiveUsers())
+                .extracting(AnalyticsDashboardDto.UserActivityDto::getUsername)
+                .containsExactlyElementsOf(users.stream().sorted(byTransactions.reversed()).limit(5).map(User::getUsername).toList());
+    }
+
+    @Test
+    void rankingsSkipBooksAndUsersDeletedSinceTheTally() {
+        User heavy = createUser(userRepository, "aggheavy");
+        Book top = createBook(bookRepository, "AGGTOP-", "Deleted Bestseller", 1);
+        columnStore.sync();
+        // Enough loans to rank first among books and among users
+        LongIntCounter tally = new LongIntCounter(64);
+        columnStore.countPerBook(tally);
+        int[] most = {0};
+        tally.forEach((id, count) -> most[0] = Math.max(most[0], count));
+        tally = new LongIntCounter(64);
+        columnStore.countPerUser(tally);
+        tally.forEach((id, count) -> most[0] = Math.max(most[0], count));
+        for (int i = 0; i <= most[0]; i++) {
+            transactionService.borrowBook(heavy.getId(), top.getId());
+            transactionService.returnBook(heavy.getId(), top.getId());
+        }
+        columnStore.sync();
+
+        // Deleted behind the column store's back, as between a delete's commit and its outbox event
+        try {
+            jdbcTemplate.update("DELETE FROM transactions WHERE book_id = ?", top.getId());
+            jdbcTemplate.update("DELETE FROM books WHERE id = ?", top.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", heavy.getId());
+
+            AnalyticsDashboardDto dashboard = analyticsService.generateDashboard();
+            assertThat(dashboard.getBookAnalytics().getMostBorrowedBooks())
+                    .extracting(AnalyticsDashboardDto.PopularBookDto::getTitle)
+                    .isNotEmpty()
+                    .doesNotContain("Deleted Bestseller");
+            assertThat(dashboard.getUserAnalytics().getTopActiveUsers())
+                    .extracting(AnalyticsDashboardDto.UserActivityDto::getUsername)
+                    .isNotEmpty()
+                    .doesNotContain(heavy.getUsername());
+        } finally {
+            columnStore.rebuild();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUsers;
+import static com.library.LibraryTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        // Promote on the first attempt; rebalance and flush only when the test asks
+        "library.ledger.contention-threshold=1",
+        "library.ledger.window-ms=3600000",
+        "library.ledger.flush-interval-ms=3600000",
+        "library.ledger.journal-dir=${java.io.tmpdir}/library-ledger-test-${random.uuid}",
+        "library.concurrency.max-attempts=50",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class AvailabilityLedgerTest {
+
+    private static final int COPIES = 5;
+    private static final int BORROWERS = 32;
+
+    @Autowired
+    private AvailabilityLedger availabilityLedger;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void heldBookNeverOversellsAndIsWrittenBehind() throws Exception {
+        Book book = hotBook();
+        List<Long> userIds = createUsers(userRepository, "ledger", BORROWERS);
+
+        AtomicInteger borrowed = new AtomicInteger();
+        runConcurrently(userIds, userId -> {
+            try {
+                transactionService.borrowBook(userId, book.getId());
+                borrowed.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("Book is not available for borrowing");
+            }
+        });
+
+        assertThat(borrowed.get()).isEqualTo(COPIES);
+        assertThat(activeLoans(book)).isEqualTo(COPIES);
+        // The row still shows the promoted state until the next write-behind flush
+        assertThat(availableInDatabase(book)).isEqualTo(COPIES);
+
+        availabilityLedger.flush();
+        assertThat(availableInDatabase(book)).isZero();
+    }
+
+    @Test
+    void rolledBackBorrowGivesTheCopyBack() {
+        Book book = hotBook();
+
+        availabilityLedger.withRouting(book.getId(), () -> transactionTemplate.execute(status -> {
+            assertThat(availabilityLedger.tryBorrow(book.getId())).isTrue();
+            status.setRollbackOnly();
+            return null;
+        }));
+
+        for (Long userId : createUsers(userRepository, "ledger", COPIES)) {
+            transactionService.borrowBook(userId, book.getId());
+        }
+        availabilityLedger.flush();
+        assertThat(availableInDatabase(book)).isZero();
+    }
+
+    @Test
+    void returnsAreReleasedAndEvictionFlushes() {
+        Book book = hotBook();
+        List<Long> userIds = createUsers(userRepository, "ledger", 2);
+        transactionService.borrowBook(userIds.get(0), book.getId());
+        transactionService.borrowBook(userIds.get(1), book.getId());
+        transactionService.returnBook(userIds.get(0), book.getId());
+
+        // Eviction flushes pending changes and hands the book back to the database
+        availabilityLedger.evict(book.getId());
+        assertThat(availabilityLedger.isHeld(book.getId())).isFalse();
+        assertThat(availableInDatabase(book)).isEqualTo(COPIES - 1);
+
+        transactionService.returnBook(userIds.get(1), book.getId());
+        assertThat(availableInDatabase(book)).isEqualTo(COPIES);
+
+        // Administrative edits work on the stored row, so they evict too
+        promote(book);
+        bookService.updateInventory(book.getId(), COPIES + 2, COPIES + 2);
+        assertThat(availabilityLedger.isHeld(book.getId())).isFalse();
+        assertThat(availableInDatabase(book)).isEqualTo(COPIES + 2);
+    }
+
+    @Test
+    void editedBookIsNotPromotedFromTheOldRowBeforeTheEditCommits() {
+        Book book = hotBook();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.updateInventory(book.getId(), 1, 1);
+            // Still contended, but a rebalance now would load the pre-edit copy counts
+            CompletableFuture.runAsync(() -> {
+                availabilityLedger.recordAttempt(book.getId());
+                availabilityLedger.rebalance();
+            }).join();
+            assertThat(availabilityLedger.isHeld(book.getId())).isFalse();
+        });
+
+        promote(book);
+        List<Long> userIds = createUsers(userRepository, "ledger", 2);
+        transactionService.borrowBook(userIds.get(0), book.getId());
+        assertThatThrownBy(() -> transactionService.borrowBook(userIds.get(1), book.getId()))
+                .hasMessage("Book is not available for borrowing");
+    }
+
+    private Book hotBook() {
+        Book book = createBook(bookRepository, "LEDGER-", "Bestseller", COPIES);
+        promote(book);
+        return book;
+    }
+
+    private void promote(Book book) {
+        availabilityLedger.recordAttempt(book.getId());
+        availabilityLedger.rebalance();
+        assertThat(availabilityLedger.isHeld(book.getId())).isTrue();
+    }
+
+    private int availableInDatabase(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies();
+    }
+
+    private long activeLoans(Book book) {
+        return transactionRepository.findByBook(book).stream()
+                .filter(t -> t.getStatus() == Transaction.TransactionStatus.ACTIVE)
+                .count();
+    }
+}
@@ -0,0 +1,135 @@
+package com.library.service;
+
+import com.library.dto.BatchJobResultDto;
+import com.library.entity.BatchCheckpoint;
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.Transaction.TransactionStatus;
+import com.library.entity.User;
+import com.library.repository.BatchCheckpointRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "library.overdue.enabled=false",
+        "library.ledger.enabled=false",
+        "library.batch.chunk-size=2",
+        "library.batch.processor-threads=2",
+        "library.batch.nightly-cron=-",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class BatchJobRunnerTest {
+
+    private static final Path OUTBOX = createOutbox();
+
+    @DynamicPropertySource
+    static void outbox(DynamicPropertyRegistry registry) {
+        registry.add("library.batch.notices.outbox-dir", OUTBOX::toString);
+    }
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @Autowired
+    private ReminderNoticeJob reminderNoticeJob;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void nightlyJobsSweepChargeAndNotifyAndResumeFromTheirCheckpoint() throws IOException {
+        User user = createUser(userRepository, "batch");
+        Long fiveDaysLate = borrow(user, 1, LocalDateTime.now().minusDays(5));
+        Long tenDaysLate = borrow(user, 2, LocalDateTime.now().minusDays(10));
+        Long dueTomorrow = borrow(user, 3, LocalDateTime.now().plusDays(1));
+
+        BatchJobResultDto sweep = batchJobRunner.run("overdue-sweep");
+        assertThat(sweep.getStatus()).isEqualTo(BatchCheckpoint.Status.COMPLETED);
+        assertThat(loan(fiveDaysLate).getStatus()).isEqualTo(TransactionStatus.OVERDUE);
+        assertThat(loan(tenDaysLate).getStatus()).isEqualTo(TransactionStatus.OVERDUE);
+        assertThat(loan(dueTomorrow).getStatus()).isEqualTo(TransactionStatus.ACTIVE);
+
+        // A run that died after committing the chunk ending at the first loan picks up right after it
+        BatchCheckpoint interrupted = new BatchCheckpoint("fine-accrual");
+        interrupted.startRun();
+        interrupted.setStatus(BatchCheckpoint.Status.FAILED);
+        interrupted.setLastId(fiveDaysLate);
+        checkpointRepository.save(interrupted);
+
+        BatchJobResultDto resumed = batchJobRunner.run("fine-accrual");
+        assertThat(resumed.isResumed()).isTrue();
+        assertThat(resumed.getStartedAfterId()).isEqualTo(fiveDaysLate);
+        assertThat(resumed.getStatus()).isEqualTo(BatchCheckpoint.Status.COMPLETED);
+        assertThat(loan(fiveDaysLate).getFineAmount()).isNull();
+        assertThat(loan(tenDaysLate).getFineAmount()).isEqualByComparingTo(new BigDecimal("2.50"));
+
+        // The next run starts over; unchanged fees are filtered out rather than rewritten
+        long version = loan(tenDaysLate).getVersion();
+        BatchJobResultDto fresh = batchJobRunner.run("fine-accrual");
+        assertThat(fresh.isResumed()).isFalse();
+        assertThat(fresh.getRunId()).isEqualTo(resumed.getRunId() + 1);
+        assertThat(fresh.getItemsFiltered()).isPositive();
+        assertThat(loan(fiveDaysLate).getFineAmount()).isEqualByComparingTo(new BigDecimal("1.25"));
+        assertThat(loan(tenDaysLate).getVersion()).isEqualTo(version);
+
+        BatchJobResultDto notices = batchJobRunner.run("reminder-notices");
+        assertThat(notices.getStatus()).isEqualTo(BatchCheckpoint.Status.COMPLETED);
+        List<String> lines = Files.readAllLines(reminderNoticeJob.outboxFile(LocalDate.now()));
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .contains("\"transactionId\":" + fiveDaysLate + ",").contains("\"kind\":\"OVERDUE\""));
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .contains("\"transactionId\":" + dueTomorrow + ",").contains("\"kind\":\"REMINDER\"")
+                .contains(user.getEmail()));
+    }
+
+    private Long borrow(User user, int copy, LocalDateTime dueDate) {
+        Book book = createBook(bookRepository, "BATCH-", "Batch Title " + copy, 1);
+        Transaction loan = transactionService.borrowBook(user.getId(), book.getId());
+        transactionService.extendDueDate(loan.getId(), dueDate);
+        return loan.getId();
+    }
+
+    private Transaction loan(Long id) {
+        return transactionRepository.findById(id).orElseThrow();
+    }
+
+    private static Path createOutbox() {
+        try {
+            return Files.createTempDirectory("library-outbox-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
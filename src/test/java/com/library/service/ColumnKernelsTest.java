@@ -0,0 +1,76 @@
+package com.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnKernelsTest {
+
+    private static final long ORIGIN = 1_700_000_000L;
+    private static final long DAY = ColumnKernels.SECONDS_PER_DAY;
+    // Around whole vectors of every width, plus ragged tails
+    private static final int[] SIZES = {0, 1, 3, 7, 31, 64, 65, 1_000, 4_099};
+
+    @Test
+    void forPlatformUsesTheVectorKernelsWhenTheModuleIsPresent() {
+        assertThat(ColumnKernels.forPlatform()).isSameAs(VectorColumnKernels.INSTANCE);
+    }
+
+    @Test
+    void vectorKernelsCountLikeTheScalarOnes() {
+        Random random = new Random(7);
+        ColumnKernels scalar = ColumnKernels.scalar();
+        ColumnKernels vector = VectorColumnKernels.INSTANCE;
+        for (int rows : SIZES) {
+            MemorySegment timestamps = Arena.ofAuto().allocate(Math.max(rows, 1) * (long) Long.BYTES, Long.BYTES);
+            MemorySegment codes = Arena.ofAuto().allocate(Math.max(rows, 1), 1);
+            for (int i = 0; i < rows; i++) {
+                // Empty slots (0) among thirty days of rows; codes 0-3
+                long timestamp = random.nextInt(10) == 0 ? 0 : ORIGIN + random.nextLong(30 * DAY);
+                timestamps.setAtIndex(ValueLayout.JAVA_LONG, i, timestamp);
+                codes.set(ValueLayout.JAVA_BYTE, i, (byte) random.nextInt(4));
+            }
+
+            long lo = ORIGIN + 10 * DAY;
+            long hi = ORIGIN + 17 * DAY;
+            assertThat(vector.countInRange(timestamps, rows, lo, hi)).as("range over %d rows", rows)
+                    .isEqualTo(scalar.countInRange(timestamps, rows, lo, hi));
+            assertThat(vector.countInRange(timestamps, rows, 1, Long.MAX_VALUE))
+                    .isEqualTo(scalar.countInRange(timestamps, rows, 1, Long.MAX_VALUE));
+            for (byte code = 0; code < 5; code++) {
+                assertThat(vector.countEqual(codes, rows, code)).as("code %d over %d rows", code, rows)
+                        .isEqualTo(scalar.countEqual(codes, rows, code));
+            }
+
+            long[] expected = new long[7];
+            long[] actual = new long[7];
+            scalar.countPerDay(timestamps, codes, rows, (byte) 2, lo, expected);
+            vector.countPerDay(timestamps, codes, rows, (byte) 2, lo, actual);
+            assertThat(actual).as("per day over %d rows", rows).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void windowsIncludeBothEndsAndDaysStartAtMidnight() {
+        MemorySegment timestamps = Arena.ofAuto().allocate(8L * Long.BYTES, Long.BYTES);
+        MemorySegment codes = Arena.ofAuto().allocate(8, 1);
+        long[] values = {ORIGIN - 1, ORIGIN, ORIGIN + DAY - 1, ORIGIN + DAY, ORIGIN + 2 * DAY, 0, ORIGIN + DAY, ORIGIN};
+        for (int i = 0; i < values.length; i++) {
+            timestamps.setAtIndex(ValueLayout.JAVA_LONG, i, values[i]);
+            codes.set(ValueLayout.JAVA_BYTE, i, (byte) (i == 6 ? 2 : 1));
+        }
+
+        for (ColumnKernels kernels : new ColumnKernels[]{ColumnKernels.scalar(), VectorColumnKernels.INSTANCE}) {
+            assertThat(kernels.countInRange(timestamps, 8, ORIGIN, ORIGIN + DAY)).isEqualTo(5);
+            assertThat(kernels.countEqual(codes, 8, (byte) 1)).isEqualTo(7);
+            long[] perDay = new long[2];
+            kernels.countPerDay(timestamps, codes, 8, (byte) 1, ORIGIN, perDay);
+            assertThat(perDay).containsExactly(3, 1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUsers;
+import static com.library.LibraryTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "library.group-commit.enabled=true",
+        "library.group-commit.window=50ms",
+        "library.group-commit.committers=1",
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class GroupCommitExecutorTest {
+
+    private static final int USERS = 16;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @Test
+    void concurrentBorrowsShareACommitButFailIndividually() throws Exception {
+        Book scarce = createBook(bookRepository, "GROUP-", "Scarce Title", 2);
+        List<Long> userIds = createUsers(userRepository, "group", USERS);
+
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        runConcurrently(userIds, userId -> {
+            try {
+                transactionService.borrowBook(userId, scarce.getId());
+                borrowed.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("Book is not available for borrowing");
+                refused.incrementAndGet();
+            }
+        });
+
+        assertThat(borrowed.get()).isEqualTo(2);
+        assertThat(refused.get()).isEqualTo(USERS - 2);
+        assertThat(bookRepository.findById(scarce.getId()).orElseThrow().getAvailableCopies()).isZero();
+
+        DistributionSummary batchSize = meterRegistry.get("library.groupcommit.batch.size").summary();
+        assertThat(batchSize.max()).isGreaterThan(1);
+        // Refusals were rolled back to their savepoint instead of failing the whole batch
+        assertThat(meterRegistry.get("library.groupcommit.fallbacks").counter().count()).isZero();
+    }
+
+    @Test
+    void borrowsOfOneBookInABatchEachSeeTheirOwnClaim() throws Exception {
+        Book book = createBook(bookRepository, "GROUP-", "Shared Title", USERS);
+        List<Long> userIds = createUsers(userRepository, "group", USERS);
+
+        List<Integer> reported = Collections.synchronizedList(new ArrayList<>());
+        runConcurrently(userIds, userId -> reported.add(
+                transactionService.borrowBook(userId, book.getId()).getBook().getAvailableCopies()));
+
+        // Loans in one batch share the book, which must show the count as that batch committed
+        // it: every claim in this batch and the ones before, not a copy read before the claims
+        assertThat(meterRegistry.get("library.groupcommit.batch.size").summary().max()).isGreaterThan(1);
+        for (int available : reported) {
+            long claimedSoFar = reported.stream().filter(other -> other >= available).count();
+            assertThat(available).isEqualTo(USERS - claimedSoFar);
+        }
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void borrowAndReturnCyclesThroughBatches() throws Exception {
+        Book book = createBook(bookRepository, "GROUP-", "Busy Title", USERS);
+        List<Long> userIds = createUsers(userRepository, "group", USERS);
+
+        runConcurrently(userIds, userId -> {
+            for (int i = 0; i < 3; i++) {
+                transactionService.borrowBook(userId, book.getId());
+                transactionService.returnBook(userId, book.getId());
+            }
+        });
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(USERS);
+        assertThat(transactionService.getActiveTransactionsByUser(userIds.get(0))).isEmpty();
+    }
+
+    @Test
+    void failedRequestHasItsCallbacksRolledBackWhileTheBatchCommits() {
+        Book book = createBook(bookRepository, "GROUP-", "Failing Title", 1);
+
+        List<String> callbacks = new CopyOnWriteArrayList<>();
+        assertThatThrownBy(() -> groupCommitExecutor.execute("borrow", book.getId(), () -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    callbacks.add("committed");
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    callbacks.add(status == STATUS_ROLLED_BACK ? "rolled back" : "completed " + status);
+                }
+            });
+            throw new RuntimeException("Book not found with id: " + book.getId());
+        })).hasMessage("Book not found with id: " + book.getId());
+
+        assertThat(callbacks).containsExactly("rolled back");
+    }
+}
@@ -0,0 +1,77 @@
+package com.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long ORIGIN = 1_700_000_000_000L;
+
+    @Test
+    void entriesExpireOnTheirTickAcrossEveryLevel() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, ORIGIN);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long horizon = 64L * 64 * 64 * 64 * 3;  // well into the overflow bucket
+        for (long id = 1; id <= 5_000; id++) {
+            long deadline = ORIGIN + (long) (random.nextDouble() * horizon) * TICK + random.nextInt((int) TICK);
+            deadlines.put(id, deadline);
+            wheel.add(id, deadline);
+        }
+        assertThat(wheel.size()).isEqualTo(5_000);
+
+        Map<Long, Long> expiredAt = new HashMap<>();
+        long now = ORIGIN;
+        while (expiredAt.size() < deadlines.size()) {
+            // Uneven steps, as a ticker that falls behind would take
+            now += TICK * (1 + random.nextInt(5000));
+            long at = now;
+            wheel.advanceTo(now, id -> assertThat(expiredAt.put(id, at)).isNull());
+        }
+
+        deadlines.forEach((id, deadline) -> {
+            long firedAt = expiredAt.get(id);
+            assertThat(firedAt).isGreaterThanOrEqualTo(deadline);
+        });
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void everyTickFiresExactlyWhatFellDue() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, ORIGIN);
+        Random random = new Random(7);
+        Map<Long, List<Long>> dueByTime = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            long deadline = ORIGIN + random.nextInt(70_000) * TICK;
+            dueByTime.computeIfAbsent(deadline, time -> new ArrayList<>()).add(id);
+            wheel.add(id, deadline);
+        }
+
+        for (long tick = 0; tick <= 70_000; tick++) {
+            long now = ORIGIN + tick * TICK;
+            List<Long> fired = new ArrayList<>();
+            wheel.advanceTo(now, fired::add);
+            assertThat(fired).containsExactlyInAnyOrderElementsOf(dueByTime.getOrDefault(now, List.of()));
+        }
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, ORIGIN);
+        wheel.advanceTo(ORIGIN + 10 * TICK, id -> {});
+        wheel.add(1, ORIGIN);
+        wheel.add(2, ORIGIN - 5 * TICK);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(ORIGIN + 10 * TICK, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder(1L, 2L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void createStore() {
+        store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        ReflectionTestUtils.setField(store, "maxStoredBytes", DataSize.ofBytes(100));
+    }
+
+    @Test
+    void requestsInFlightOutliveTheEntryLimit() {
+        IdempotencyStore.Claim running = store.claim("running", "a");
+        complete("done-1", 10);
+        complete("done-2", 10);
+        store.claim("queued", "b");
+
+        // Only completed entries make room; the running claim still owns its key
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.claim("running", "a").entry()).isSameAs(running.entry());
+        assertThat(store.claim("done-1", "x").owner()).isTrue();
+    }
+
+    @Test
+    void requestsInFlightOutliveTheByteBudget() {
+        IdempotencyStore.Claim running = store.claim("running", "a");
+        complete("large", 150);
+
+        assertThat(store.claim("large", "x").owner()).isTrue();
+        assertThat(store.claim("running", "a").entry()).isSameAs(running.entry());
+    }
+
+    private void complete(String key, int bytes) {
+        IdempotencyStore.Claim claim = store.claim(key, key);
+        store.complete(key, claim.entry(), new IdempotencyStore.StoredResponse(200, "application/json", new byte[bytes]));
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntCounterTest {
+
+    @Test
+    void countsLikeABoxedMapThroughSeveralResizes() {
+        LongIntCounter counter = new LongIntCounter(0);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            // Sequential ids with a few far-off and negative ones, as well as key 0
+            long key = switch (random.nextInt(10)) {
+                case 0 -> random.nextLong();
+                case 1 -> -random.nextInt(100);
+                default -> random.nextInt(20_000);
+            };
+            counter.increment(key);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertThat(counter.size()).isEqualTo(expected.size());
+        expected.forEach((key, count) -> {
+            assertThat(counter.get(key)).isEqualTo(count);
+            assertThat(counter.containsKey(key)).isTrue();
+        });
+        Map<Long, Integer> visited = new HashMap<>();
+        counter.forEach((key, count) -> assertThat(visited.put(key, count)).isNull());
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void absentKeysReadAsZero() {
+        LongIntCounter counter = new LongIntCounter(4);
+        counter.add(7, 3);
+
+        assertThat(counter.get(8)).isZero();
+        assertThat(counter.containsKey(8)).isFalse();
+        assertThat(counter.get(0)).isZero();
+        assertThat(counter.containsKey(0)).isFalse();
+        assertThat(counter.get(7)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.OutboxEvent;
+import com.library.entity.Transaction;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.OutboxEventRepository;
+import com.library.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        // Own database, so relays of other cached test contexts cannot deliver these events
+        "spring.datasource.url=jdbc:h2:mem:library_outbox",
+        "library.outbox.poll-interval-ms=3600000",
+        "library.outbox.max-attempts=2",
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void committedChangesAreRelayedInOrderAndABadEventDoesNotHoldUpTheRest() {
+        outboxRelay.relay();
+        subscriber.events.clear();
+        double borrowedBefore = meterRegistry.counter("library.books.borrowed").count();
+
+        User user = createUser(userRepository, "outbox");
+        Book book = createBook(bookRepository, "OUTBOX-", "Outbox Title", 1);
+        Book poison = createBook(bookRepository, "OUTBOX-P-", "Poison Title", 1);
+
+        Transaction loan = transactionService.borrowBook(user.getId(), book.getId());
+        transactionService.returnBook(user.getId(), book.getId());
+        Transaction poisoned = transactionService.borrowBook(user.getId(), poison.getId());
+        // A refused borrow rolls back with its event
+        assertThatThrownBy(() -> transactionService.borrowBook(user.getId(), poison.getId()))
+                .hasMessage("User already has this book borrowed");
+
+        // Nothing reaches subscribers until the relay runs
+        assertThat(subscriber.events).isEmpty();
+        subscriber.rejectTransactionId = poisoned.getId();
+
+        outboxRelay.relay();
+        assertThat(subscriber.events)
+                .extracting(OutboxEvent::getType, OutboxEvent::getTransactionId)
+                .containsSubsequence(
+                        Tuple.tuple(OutboxEvent.Type.BOOK_BORROWED, loan.getId()),
+                        Tuple.tuple(OutboxEvent.Type.BOOK_RETURNED, loan.getId()));
+        assertThat(subscriber.events).noneMatch(event -> poisoned.getId().equals(event.getTransactionId()));
+        // Other subscribers took the whole batch, including the event this one rejected
+        assertThat(meterRegistry.counter("library.books.borrowed").count()).isEqualTo(borrowedBefore + 2);
+
+        // The rejected event is retried until it runs out of attempts, then left as a dead letter
+        outboxRelay.relay();
+        assertThat(outboxRelay.relay()).isZero();
+        List<OutboxEvent> pending = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getPublishedAt() == null)
+                .toList();
+        assertThat(pending).singleElement().satisfies(event -> {
+            assertThat(event.getTransactionId()).isEqualTo(poisoned.getId());
+            assertThat(event.getAttempts()).isEqualTo(2);
+        });
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+        final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+        volatile Long rejectTransactionId;
+
+        @Override
+        public void onEvents(List<OutboxEvent> batch) {
+            if (rejectTransactionId != null
+                    && batch.stream().anyMatch(event -> rejectTransactionId.equals(event.getTransactionId()))) {
+                throw new IllegalStateException("Subscriber is down");
+            }
+            events.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class SubscriberConfig {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+}
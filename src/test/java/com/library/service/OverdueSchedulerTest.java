@@ -0,0 +1,96 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.Transaction.TransactionStatus;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "library.overdue.tick=50ms",
+        "library.overdue.reconcile-interval=1h",
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class OverdueSchedulerTest {
+
+    @Autowired
+    private OverdueScheduler overdueScheduler;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void loansFlipWhenDueAndStayInStepWithExtensionsAndReturns() throws Exception {
+        User user = createUser(userRepository, "late");
+        Book first = createBook(bookRepository, "LATE-", "Late Title", 2);
+        Book second = createBook(bookRepository, "LATE-", "Late Title", 2);
+        Transaction extended = transactionService.borrowBook(user.getId(), first.getId());
+        Transaction returned = transactionService.borrowBook(user.getId(), second.getId());
+        awaitSeededLoansFlipped();
+        long before = overdueScheduler.getOverdueCount();
+
+        // Both fall due; the wheel flips them without anyone asking
+        transactionService.extendDueDate(extended.getId(), LocalDateTime.now().plusNanos(100_000_000));
+        transactionService.extendDueDate(returned.getId(), LocalDateTime.now().minusDays(1));
+        awaitStatus(extended.getId(), TransactionStatus.OVERDUE);
+        awaitStatus(returned.getId(), TransactionStatus.OVERDUE);
+        assertThat(overdueScheduler.getOverdueCount()).isEqualTo(before + 2);
+
+        // A later due date makes the loan active again, and the stale wheel entry is harmless
+        transactionService.extendDueDate(extended.getId(), LocalDateTime.now().plusDays(7));
+        assertThat(status(extended.getId())).isEqualTo(TransactionStatus.ACTIVE);
+        assertThat(overdueScheduler.getOverdueCount()).isEqualTo(before + 1);
+
+        // Overdue loans are still open: they count against the limit and can be returned
+        transactionService.returnBook(user.getId(), second.getId());
+        assertThat(status(returned.getId())).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(overdueScheduler.getOverdueCount()).isEqualTo(before);
+
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(status(extended.getId())).isEqualTo(TransactionStatus.ACTIVE);
+    }
+
+    private void awaitStatus(Long id, TransactionStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (status(id) != expected && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(status(id)).isEqualTo(expected);
+    }
+
+    // Seeded loans already past due are flipped by the first ticks after startup
+    private void awaitSeededLoansFlipped() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (overdueScheduler.getOverdueCount() != transactionRepository.countOverdueTransactions(LocalDateTime.now())
+                && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    private TransactionStatus status(Long id) {
+        return transactionRepository.findById(id).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,189 @@
+package com.library.service;
+
+import com.library.dto.ReservationDto;
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.Transaction.TransactionStatus;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUsers;
+import static com.library.LibraryTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Book book;
+    private List<Long> patrons;
+
+    @BeforeEach
+    void createBookAndPatrons() {
+        book = createBook(bookRepository, "RESERVE-", "Waitlisted Title", 1);
+        patrons = createUsers(userRepository, "hold", 3);
+    }
+
+    @Test
+    void returnedCopyGoesToReserversInOrder() {
+        transactionService.borrowBook(patron(0), book.getId());
+        ReservationDto first = reservationService.reserve(patron(1), book.getId());
+        ReservationDto second = reservationService.reserve(patron(2), book.getId());
+        assertThat(first.getStatus()).isEqualTo(TransactionStatus.WAITING);
+        assertThat(first.getPosition()).isEqualTo(1);
+        assertThat(second.getPosition()).isEqualTo(2);
+
+        transactionService.returnBook(patron(0), book.getId());
+
+        // The copy skipped the shelf
+        assertThat(availableCopies()).isZero();
+        assertThat(reservationService.getReservation(first.getId(), null).getStatus()).isEqualTo(TransactionStatus.READY);
+        assertThat(reservationService.getReservation(second.getId(), null).getPosition()).isEqualTo(1);
+        assertThatThrownBy(() -> transactionService.borrowBook(patron(2), book.getId()))
+                .hasMessage("Book is not available for borrowing");
+
+        // Collecting the hold is a normal borrow of the set-aside copy
+        Transaction loan = transactionService.borrowBook(patron(1), book.getId());
+        assertThat(loan.getStatus()).isEqualTo(TransactionStatus.ACTIVE);
+        assertThat(availableCopies()).isZero();
+        assertThat(transactionRepository.findById(first.getId()).orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.COMPLETED);
+
+        transactionService.returnBook(patron(1), book.getId());
+        assertThat(reservationService.getReservation(second.getId(), null).getStatus()).isEqualTo(TransactionStatus.READY);
+    }
+
+    @Test
+    void waiterIsWokenByReturnAndCancelledHoldPassesCopyOn() throws Exception {
+        transactionService.borrowBook(patron(0), book.getId());
+        ReservationDto first = reservationService.reserve(patron(1), book.getId());
+        ReservationDto second = reservationService.reserve(patron(2), book.getId());
+
+        CompletableFuture<ReservationDto> ready = reservationService.awaitReady(first.getId(), patron(1));
+        assertThat(ready).isNotDone();
+        assertThatThrownBy(() -> reservationService.awaitReady(first.getId(), patron(2)))
+                .hasMessage("Reservation belongs to another user");
+
+        transactionService.returnBook(patron(0), book.getId());
+        assertThat(ready.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(TransactionStatus.READY);
+
+        reservationService.cancelReservation(first.getId(), patron(1));
+        assertThat(reservationService.getReservation(second.getId(), null).getStatus()).isEqualTo(TransactionStatus.READY);
+        assertThat(availableCopies()).isZero();
+
+        reservationService.cancelReservation(second.getId(), null);
+        assertThat(availableCopies()).isEqualTo(1);
+    }
+
+    @Test
+    void longPollAnswersWhenTheHoldIsReady() throws Exception {
+        transactionService.borrowBook(patron(0), book.getId());
+        ReservationDto reservation = reservationService.reserve(patron(1), book.getId());
+
+        MvcResult pending = mockMvc.perform(get("/api/reservations/{id}/await", reservation.getId())
+                        .param("timeoutSeconds", "30")
+                        .with(user(userRepository.findById(patron(1)).orElseThrow())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        transactionService.returnBook(patron(0), book.getId());
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("READY"));
+    }
+
+    @Test
+    void parallelDuplicateReservationsCreateOneHold() throws Exception {
+        transactionService.borrowBook(patron(0), book.getId());
+
+        // The same hold requested from many threads at once: only one may be created
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(Collections.nCopies(8, patron(1)), userId -> {
+            try {
+                reservationService.reserve(userId, book.getId());
+                reserved.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("User already has a reservation for this book");
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(1);
+        assertThat(transactionRepository.countOpenReservationsByUserId(patron(1))).isEqualTo(1);
+    }
+
+    @Test
+    void parallelReservationsStopAtTheLimit() throws Exception {
+        List<Book> titles = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            titles.add(createBook(bookRepository, "RESERVE-", "Limited Title " + i, 1));
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(Collections.nCopies(titles.size(), patron(1)), userId -> {
+            try {
+                reservationService.reserve(userId, titles.get(next.getAndIncrement()).getId());
+                reserved.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("User has reached the maximum number of reservations");
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(5);
+        assertThat(transactionRepository.countOpenReservationsByUserId(patron(1))).isEqualTo(5);
+    }
+
+    private Long patron(int index) {
+        return patrons.get(index);
+    }
+
+    private int availableCopies() {
+        return bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies();
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopKTest {
+
+    @Test
+    void selectsWhatASortWouldWithTiesToTheSmallerKey() {
+        Random random = new Random(3);
+        long[] scores = new long[10_000];
+        for (int i = 0; i < scores.length; i++) {
+            // Few distinct scores, so most of the ranking is decided by ties
+            scores[i] = random.nextInt(50);
+        }
+        for (int k : new int[]{1, 5, 10, 64}) {
+            TopK highest = new TopK(k);
+            TopK lowest = new TopK(k);
+            // Offered in shuffled order; the result must not depend on it
+            for (int key : IntStream.range(0, scores.length).boxed()
+                    .sorted(Comparator.comparingInt(key -> (key * 7919) % scores.length)).toList()) {
+                highest.offer(key, scores[key]);
+                lowest.offer(key, -scores[key]);
+            }
+
+            long[] expectedHighest = IntStream.range(0, scores.length).boxed()
+                    .sorted(Comparator.comparingLong((Integer key) -> scores[key]).reversed())
+                    .limit(k).mapToLong(Integer::longValue).toArray();
+            long[] expectedLowest = IntStream.range(0, scores.length).boxed()
+                    .sorted(Comparator.comparingLong(key -> scores[key]))
+                    .limit(k).mapToLong(Integer::longValue).toArray();
+            assertThat(highest.drain()).as("top %d", k).containsExactly(expectedHighest);
+            assertThat(lowest.drain()).as("bottom %d", k).containsExactly(expectedLowest);
+            assertThat(highest.size()).isZero();
+        }
+    }
+
+    @Test
+    void returnsFewerKeysThanKWhenFewerWereOffered() {
+        TopK top = new TopK(10);
+        top.offer(4, 1);
+        top.offer(9, 5);
+
+        assertThat(top.drain()).containsExactly(9, 4);
+        assertThatThrownBy(() -> new TopK(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Own database, so a test context starting later cannot recreate the tables under this store
+        "spring.datasource.url=jdbc:h2:mem:library_column_store",
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class TransactionColumnStoreTest {
+
+    @Autowired
+    private TransactionColumnStore columnStore;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User patron;
+    private Book book;
+
+    @BeforeEach
+    void createPatronAndBook() {
+        patron = createUser(userRepository, "col");
+        book = createBook(bookRepository, "COL-", "Columnar Title", 2);
+    }
+
+    @Test
+    void scansMatchTheEntityQueries() {
+        transactionService.borrowBook(patron.getId(), book.getId());
+        columnStore.sync();
+
+        assertThat(columnStore.isReady()).isTrue();
+        assertThat(columnStore.rowCount()).isEqualTo(transactionRepository.count());
+        for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+            assertThat(columnStore.countByType(type)).as(type.name())
+                    .isEqualTo(transactionRepository.findByType(type).size());
+        }
+        for (Transaction.TransactionStatus status : Transaction.TransactionStatus.values()) {
+            assertThat(columnStore.countByStatus(status)).as(status.name())
+                    .isEqualTo(transactionRepository.countByStatus(status));
+        }
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        LocalDateTime weekAgo = now.minusWeeks(1);
+        assertThat(columnStore.countCreatedBetween(weekAgo, now))
+                .isEqualTo(transactionRepository.findTransactionsByDateRange(weekAgo, now).size())
+                .isPositive();
+
+        LocalDate firstDay = LocalDate.now().minusDays(6);
+        long[] perDay = columnStore.countPerDay(firstDay, 7, Transaction.TransactionType.BORROW);
+        assertThat(perDay[6]).isEqualTo(transactionRepository.findTransactionsByDateRange(
+                        LocalDate.now().atStartOfDay(), now).stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.BORROW)
+                .count());
+    }
+
+    @Test
+    void borrowsAndReturnsAreMirroredOnThePollAfterTheOutboxRelays() {
+        Transaction loan = transactionService.borrowBook(patron.getId(), book.getId());
+        outboxRelay.relay();
+        columnStore.poll();
+        assertThat(columnStore.countByStatus(Transaction.TransactionStatus.ACTIVE))
+                .isEqualTo(transactionRepository.countByStatus(Transaction.TransactionStatus.ACTIVE));
+
+        transactionService.returnBook(patron.getId(), book.getId());
+        outboxRelay.relay();
+        columnStore.poll();
+        Transaction.TransactionStatus closed = transactionRepository.findById(loan.getId()).orElseThrow().getStatus();
+        assertThat(closed).isNotEqualTo(Transaction.TransactionStatus.ACTIVE);
+        assertThat(columnStore.countByStatus(closed)).isEqualTo(transactionRepository.countByStatus(closed));
+
+        List<Transaction> loans = transactionRepository.findByStatus(closed);
+        double expectedDays = loans.stream()
+                .filter(t -> t.getBorrowedAt() != null && t.getReturnedAt() != null)
+                .mapToLong(t -> ChronoUnit.DAYS.between(t.getBorrowedAt(), t.getReturnedAt()))
+                .sum() / (double) loans.size();
+        assertThat(columnStore.averageLoanDays(closed)).isEqualTo(expectedDays);
+    }
+
+    @Test
+    void deletedBooksAndUsersTakeTheirTransactionsWithThem() {
+        Book other = createBook(bookRepository, "COL-", "Other Columnar Title", 1);
+        transactionService.borrowBook(patron.getId(), book.getId());
+        transactionService.returnBook(patron.getId(), book.getId());
+        transactionService.borrowBook(patron.getId(), book.getId());
+        transactionService.borrowBook(patron.getId(), other.getId());
+        columnStore.sync();
+        assertThat(perBook().get(book.getId())).isPositive();
+
+        // Cascades to the book's loans, which no sync would ever see again
+        bookService.deleteBook(book.getId());
+        outboxRelay.relay();
+        assertThat(perBook().containsKey(book.getId())).isFalse();
+        assertThat(perBook().get(other.getId())).isEqualTo(1);
+        assertThat(columnStore.rowCount()).isEqualTo(transactionRepository.count());
+
+        userService.deleteUser(patron.getId());
+        outboxRelay.relay();
+        LongIntCounter perUser = new LongIntCounter(16);
+        columnStore.countPerUser(perUser);
+        assertThat(perUser.containsKey(patron.getId())).isFalse();
+        assertThat(perBook().containsKey(other.getId())).isFalse();
+        assertThat(columnStore.rowCount()).isEqualTo(transactionRepository.count());
+    }
+
+    @Test
+    void growsPastItsCapacityAndRebuildsToTheSameCounts() {
+        long farId = 5_000_000 + System.nanoTime() % 1000;
+        jdbcTemplate.update("INSERT INTO transactions (id, user_id, book_id, type, status, borrowed_at, due_date, " +
+                        "created_at, updated_at, version) VALUES (?, ?, ?, 'RESERVE', 'WAITING', NULL, NULL, ?, ?, 0)",
+                farId, patron.getId(), book.getId(), LocalDateTime.now(), LocalDateTime.now());
+        columnStore.sync();
+
+        long waiting = transactionRepository.countByStatus(Transaction.TransactionStatus.WAITING);
+        assertThat(columnStore.countByStatus(Transaction.TransactionStatus.WAITING)).isEqualTo(waiting);
+        assertThat(columnStore.rowCount()).isEqualTo(transactionRepository.count());
+
+        columnStore.rebuild();
+        assertThat(columnStore.countByStatus(Transaction.TransactionStatus.WAITING)).isEqualTo(waiting);
+        assertThat(columnStore.rowCount()).isEqualTo(transactionRepository.count());
+
+        jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", farId);
+        columnStore.rebuild();
+    }
+
+    private LongIntCounter perBook() {
+        LongIntCounter counts = new LongIntCounter(16);
+        columnStore.countPerBook(counts);
+        return counts;
+    }
+}
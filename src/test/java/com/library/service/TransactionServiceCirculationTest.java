@@ -0,0 +1,96 @@
+package com.library.service;
+
+import com.library.dto.CirculationRequestDto;
+import com.library.dto.CirculationRequestDto.Action;
+import com.library.dto.CirculationResultDto;
+import com.library.dto.CirculationResultDto.ItemResult;
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class TransactionServiceCirculationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void createUserAndBooks() {
+        userId = createUser(userRepository, "kiosk").getId();
+        for (int i = 0; i < 7; i++) {
+            books.add(createBook(bookRepository, "KIOSK-", "Stack Title " + i, 1));
+        }
+    }
+
+    @Test
+    void borrowStackAppliesLimitOnceAndReportsEachBook() {
+        Book unavailable = books.get(6);
+        unavailable.setAvailableCopies(0);
+        bookRepository.save(unavailable);
+
+        CirculationResultDto result = transactionService.circulate(userId, new CirculationRequestDto(Action.BORROW,
+                null, List.of(books.get(0).getId(), books.get(1).getId(), books.get(0).getId(), unavailable.getId(),
+                        books.get(2).getId(), books.get(3).getId()),
+                List.of(books.get(4).getIsbn(), books.get(5).getIsbn(), "NO-SUCH-ISBN")));
+
+        assertThat(result.getItems()).extracting(ItemResult::getMessage).containsExactly(
+                null,
+                null,
+                "Book was scanned more than once",
+                "Book is not available for borrowing",
+                null,
+                null,
+                null,
+                "User has reached the maximum borrowing limit",
+                "Book not found with ISBN: NO-SUCH-ISBN");
+        assertThat(result.getSucceeded()).isEqualTo(5);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getItems().get(4).getTransactionId()).isNotNull();
+        assertThat(transactionService.getActiveTransactionsByUser(userId)).hasSize(5);
+        assertThat(bookRepository.findById(books.get(5).getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+    }
+
+    @Test
+    void returnAndRenewOnlyTouchActiveLoans() {
+        transactionService.borrowBook(userId, books.get(0).getId());
+        transactionService.borrowBook(userId, books.get(1).getId());
+
+        CirculationResultDto renewed = transactionService.circulate(userId, new CirculationRequestDto(Action.RENEW,
+                null, List.of(books.get(0).getId(), books.get(2).getId()), List.of()));
+        assertThat(renewed.getItems()).extracting(ItemResult::isSuccess).containsExactly(true, false);
+        assertThat(renewed.getItems().get(0).getDueDate()).isAfter(LocalDateTime.now().plusDays(13));
+        assertThat(renewed.getItems().get(1).getMessage()).isEqualTo("No active borrowing found for this book and user");
+
+        CirculationResultDto returned = transactionService.circulate(userId, new CirculationRequestDto(Action.RETURN,
+                null, List.of(books.get(0).getId()), List.of(books.get(1).getIsbn())));
+        assertThat(returned.getSucceeded()).isEqualTo(2);
+        assertThat(transactionService.getActiveTransactionsByUser(userId)).isEmpty();
+        assertThat(bookRepository.findById(books.get(0).getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+        assertThat(bookRepository.findById(books.get(1).getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Transaction;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.library.LibraryTestSupport.createBook;
+import static com.library.LibraryTestSupport.createUsers;
+import static com.library.LibraryTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "library.concurrency.max-attempts=50",
+        // Exercises the row-level path; the in-memory ledger has its own test
+        "library.ledger.enabled=false",
+        "spring.jpa.show-sql=false",
+        "management.tracing.enabled=false"
+})
+class TransactionServiceConcurrencyTest {
+
+    private static final int COPIES = 5;
+    private static final int BORROWERS = 32;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void parallelBorrowsOfOneBookNeverOversell() throws Exception {
+        Book book = createBook(bookRepository, "CONC-", "Contended Title", COPIES);
+        List<Long> userIds = createUsers(userRepository, "conc", BORROWERS);
+
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        runConcurrently(userIds, userId -> {
+            try {
+                transactionService.borrowBook(userId, book.getId());
+                borrowed.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("Book is not available for borrowing");
+                refused.incrementAndGet();
+            }
+        });
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        long active = transactionRepository.findByBook(reloaded).stream()
+                .filter(t -> t.getStatus() == Transaction.TransactionStatus.ACTIVE)
+                .count();
+
+        assertThat(borrowed.get()).isEqualTo(COPIES);
+        assertThat(refused.get()).isEqualTo(BORROWERS - COPIES);
+        assertThat(active).isEqualTo(COPIES);
+        assertThat(reloaded.getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void parallelBorrowAndReturnKeepInventoryConsistent() throws Exception {
+        Book book = createBook(bookRepository, "CONC-", "Busy Title", COPIES);
+        List<Long> userIds = createUsers(userRepository, "conc", BORROWERS);
+
+        // Every user borrows and immediately returns; the shelf must end up full again
+        AtomicInteger completedCycles = new AtomicInteger();
+        runConcurrently(userIds, userId -> {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    transactionService.borrowBook(userId, book.getId());
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                transactionService.returnBook(userId, book.getId());
+                completedCycles.incrementAndGet();
+            }
+        });
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        long active = transactionRepository.findByBook(reloaded).stream()
+                .filter(t -> t.getStatus() == Transaction.TransactionStatus.ACTIVE)
+                .count();
+
+        assertThat(completedCycles.get()).isPositive();
+        assertThat(active).isZero();
+        assertThat(reloaded.getAvailableCopies()).isEqualTo(COPIES);
+    }
+
+    @Test
+    void parallelDuplicateReturnsRestoreOneCopy() throws Exception {
+        Book book = createBook(bookRepository, "CONC-", "Returned Title", COPIES);
+        Long userId = createUsers(userRepository, "conc", 1).get(0);
+        transactionService.borrowBook(userId, book.getId());
+
+        // The same loan returned from many threads at once: only one return may count
+        AtomicInteger returned = new AtomicInteger();
+        runConcurrently(Collections.nCopies(8, userId), id -> {
+            try {
+                transactionService.returnBook(id, book.getId());
+                returned.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e.getMessage()).isEqualTo("No active borrowing found for this book and user");
+            }
+        });
+
+        assertThat(returned.get()).isEqualTo(1);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(COPIES);
+    }
+}